@@ -0,0 +1,76 @@
+package com.example.snakegame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads everything the app needs after the splash (images, sounds, the
+ * player index, the score file) at the same time, each on its own virtual
+ * thread, while the splash animation plays. Every load is named and timed so
+ * the startup benchmark can show which one is the long pole.
+ * <p>
+ * A load that fails is reported on stderr once and completes its future
+ * exceptionally; {@link #get(CompletableFuture)} turns that into null so
+ * callers can fall back the way they did before preloading.
+ */
+final class AssetPreloader implements AutoCloseable {
+    private final long startNanos = System.nanoTime();
+    private final ExecutorService loaders = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<CompletableFuture<?>> pending = new ArrayList<>();
+    private final List<String> timings = new ArrayList<>();
+
+    /** Starts {@code task} in the background; call from the FX thread. */
+    <T> CompletableFuture<T> submit(String name, Callable<T> task) {
+        CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> {
+            long t0 = System.nanoTime();
+            try {
+                return task.call();
+            } catch (Exception e) {
+                System.err.println("Error loading " + name + ": " + e.getMessage());
+                throw new CompletionException(e);
+            } finally {
+                long t1 = System.nanoTime();
+                synchronized (timings) {
+                    timings.add(String.format(Locale.ROOT, "%s %.1f ms (done at %.1f ms)",
+                            name, (t1 - t0) / 1e6, (t1 - startNanos) / 1e6));
+                }
+            }
+        }, loaders);
+        pending.add(future);
+        return future;
+    }
+
+    /** Completes when every load submitted so far has finished, successfully or not. */
+    CompletableFuture<Void> all() {
+        return CompletableFuture.allOf(pending.stream()
+                .map(f -> f.exceptionally(e -> null))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    /** One line per finished load, in the order they finished. */
+    List<String> timings() {
+        synchronized (timings) {
+            return List.copyOf(timings);
+        }
+    }
+
+    /** The loaded value, waiting for it if it's still loading; null if it failed. */
+    static <T> T get(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        loaders.shutdown();
+    }
+}
@@ -1,5 +0,0 @@
-package com.example.snakegame;
-
-public enum DifficultyLevel {
-    EASY, MEDIUM, HARD
-}
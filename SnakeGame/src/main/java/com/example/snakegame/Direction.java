@@ -1,5 +0,0 @@
-package com.example.snakegame;
-
-public enum Direction {
-    UP, DOWN, LEFT, RIGHT;
-}
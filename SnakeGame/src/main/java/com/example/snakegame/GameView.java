@@ -1,120 +1,386 @@
 package com.example.snakegame;
 
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameListener;
+import com.example.snakegame.core.Level;
+import com.example.snakegame.core.SnakeView;
+import com.example.snakegame.core.StepResult;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 
-public class GameView {
+/**
+ * Draws the part of the board inside the canvas. {@link #render} repaints the
+ * whole viewport; {@link #renderChanges} only repaints the cells reported
+ * dirty through the {@link GameListener} callbacks since the last frame
+ * (normally the new head, the old head and the freed tail).
+ * <p>
+ * On boards bigger than the canvas a camera follows the head: it stays put
+ * while the head is inside the middle half of the view and jumps to keep it
+ * there otherwise, which costs one full viewport repaint. Nothing outside the
+ * viewport is ever visited, so a frame costs the same on any board size.
+ * <p>
+ * The checkerboard comes from a cached background image and every entity is
+ * one blit from the {@link SpriteAtlas}, so a frame costs one draw call per
+ * visible entity. On a {@link Level} the background is the whole level with
+ * its walls already on it, rendered once when the level is set, so walls cost
+ * nothing per frame.
+ * <p>
+ * Between ticks the incremental path can interpolate: the head slides in from
+ * the cell behind it and the freed tail slides into the new tail cell. Only
+ * the cells those two sprites cross are repainted each frame.
+ */
+public class GameView implements GameListener {
     private final GraphicsContext gc;
     private final int cellSize;
+    private final int cols, rows;
+    private final SpriteAtlas sprites;
+    private static final int BORDER_WIDTH = 6;
+
+    // one column wider than the view, so an odd camera offset can start one cell in
+    private Image background;
+    // the level being shown (null on an open board) and its pre-rendered board, null if too big for one image
+    private Level level;
+    private Image levelBackground;
+
+    // board being shown and the board cell at the top-left of the view
+    private int boardWidth, boardHeight;
+    private int camX, camY;
+
+    // dirty cells since the last frame: a bitmap for de-duplication plus a list to walk
+    private final long[] dirtyBits;
+    private final int[] dirtyList;
+    private int dirtyCount;
+    private boolean fullRepaintNeeded = true;
+
+    // tail freed by the last tick (-1 if the snake grew) and cells the sliding sprites covered last frame
+    private int freedTail = -1;
+    private final int[] slideCells = new int[4];
+    private int slideCount;
+
+    // optional text panel in the top-left corner (the frame-time overlay); null when hidden
+    private static final int OVERLAY_COLS = 12, OVERLAY_ROWS = 4;
+    private static final Font OVERLAY_FONT = Font.font("Consolas", 12);
+    private static final Color OVERLAY_BACK = Color.rgb(0, 0, 0, 0.65);
+    private String[] overlay;
 
     public GameView(GraphicsContext gc, int cellSize) {
         this.gc = gc;
         this.cellSize = cellSize;
+        this.cols = (int) (gc.getCanvas().getWidth() / cellSize);
+        this.rows = (int) (gc.getCanvas().getHeight() / cellSize);
+        this.sprites = new SpriteAtlas(cellSize);
+        this.dirtyBits = new long[(cols * rows + 63) >>> 6];
+        this.dirtyList = new int[cols * rows];
     }
 
+    /** Shows {@code level}'s walls from now on, or an open board for null. */
+    public void setLevel(Level level) {
+        if (level == this.level) return;
+        this.level = level;
+        levelBackground = level == null ? null : SpriteAtlas.background(level, cellSize);
+        invalidate();
+    }
 
-    public void render(char[][] grid,
-                       int foodX, int foodY,
-                       String difficulty,
-                       int bonusFoodX, int bonusFoodY,
-                       boolean hasBonusFood) {
+    private boolean isWall(int cell) {
+        return level != null && level.isWall(cell);
+    }
+
+    /** Forces the next frame to be a full repaint. */
+    public void invalidate() {
+        fullRepaintNeeded = true;
+    }
+
+    public boolean isFullRepaintNeeded() {
+        return fullRepaintNeeded;
+    }
+
+    /**
+     * Shows {@code lines} in a panel over the top-left corner of the board,
+     * or hides the panel when {@code null}. The cells under the panel are
+     * repainted every frame while it is shown.
+     */
+    public void setOverlay(String[] lines) {
+        if (overlay != null && lines == null) invalidate();
+        overlay = lines;
+    }
+
+    private void drawOverlay() {
+        if (overlay == null) return;
+        double w = Math.min(cols, OVERLAY_COLS) * cellSize, h = Math.min(rows, OVERLAY_ROWS) * cellSize;
+        gc.setFill(OVERLAY_BACK);
+        gc.fillRect(0, 0, w, h);
+        gc.setFont(OVERLAY_FONT);
+        gc.setFill(Color.WHITE);
+        for (int i = 0; i < overlay.length; i++) {
+            gc.fillText(overlay[i], 6, 16 + i * 15);
+        }
+    }
+
+    /**
+     * Points the camera at the snake's head on {@code snake}'s board. Call
+     * once per frame before rendering; a camera move forces a full repaint.
+     */
+    public void follow(SnakeView snake) {
+        if (snake.width() != boardWidth || snake.height() != boardHeight) {
+            boardWidth = snake.width();
+            boardHeight = snake.height();
+            camX = 0;
+            camY = 0;
+            invalidate();
+        }
+        int x = cameraAxis(camX, snake.headX(), viewCols(), boardWidth);
+        int y = cameraAxis(camY, snake.headY(), viewRows(), boardHeight);
+        if (x != camX || y != camY) {
+            camX = x;
+            camY = y;
+            invalidate();
+        }
+    }
+
+    private static int cameraAxis(int cam, int head, int view, int board) {
+        int margin = view / 4;
+        if (head - cam < margin) {
+            cam = head - margin;
+        } else if (head - cam >= view - margin) {
+            cam = head - view + margin + 1;
+        }
+        return Math.max(0, Math.min(cam, board - view));
+    }
+
+    private int viewCols() {
+        return Math.min(cols, boardWidth);
+    }
+
+    private int viewRows() {
+        return Math.min(rows, boardHeight);
+    }
+
+    /** View cell showing board cell {@code cell}, or -1 when it is off screen. */
+    private int toView(int cell) {
+        if (cell < 0 || boardWidth == 0) return -1;
+        int x = cell % boardWidth - camX, y = cell / boardWidth - camY;
+        return x < 0 || y < 0 || x >= viewCols() || y >= viewRows() ? -1 : y * cols + x;
+    }
+
+    @Override
+    public void onReset() {
+        freedTail = -1;
+        invalidate();
+    }
+
+    @Override
+    public void onSnakeMoved(int headCell, int oldHeadCell, int tailCell) {
+        markDirty(toView(headCell));
+        markDirty(toView(oldHeadCell));
+        markDirty(toView(tailCell));
+        freedTail = tailCell;
+    }
+
+    @Override
+    public void onFoodPlaced(int cell) {
+        markDirty(toView(cell));
+    }
+
+    @Override
+    public void onBonusPlaced(int cell) {
+        markDirty(toView(cell));
+    }
+
+    @Override
+    public void onBonusRemoved(int cell, boolean eaten) {
+        markDirty(toView(cell));
+    }
+
+    @Override
+    public void onGameEnded(StepResult result) {
+        invalidate(); // the overlay is drawn over a fresh frame
+    }
+
+    private void markDirty(int cell) {
+        if (cell < 0 || cell >= dirtyList.length) return;
+        long bit = 1L << cell;
+        if ((dirtyBits[cell >>> 6] & bit) == 0) {
+            dirtyBits[cell >>> 6] |= bit;
+            dirtyList[dirtyCount++] = cell;
+        }
+    }
+
+    private void clearDirty() {
+        for (int i = 0; i < dirtyCount; i++) {
+            int cell = dirtyList[i];
+            dirtyBits[cell >>> 6] &= ~(1L << cell);
+        }
+        dirtyCount = 0;
+    }
 
-        final int w = grid[0].length, h = grid.length;
+    private Image background() {
+        if (background == null) {
+            background = SpriteAtlas.background(cols + 1, rows, cellSize);
+        }
+        return background;
+    }
 
-        /* ----------  BACKGROUND  ---------- */
-        gc.setFill(Color.web("#0f2027"));
-        gc.fillRect(0, 0, w * cellSize, h * cellSize);
+    /**
+     * Restores view cell ({@code x}, {@code y}) to bare ground, or the level's
+     * wall there, plus the Hard border where it has one.
+     */
+    private void drawGround(Image bg, int x, int y, boolean walls) {
+        double px = x * cellSize, py = y * cellSize;
+        if (levelBackground != null) {
+            gc.drawImage(levelBackground, (x + camX) * cellSize, (y + camY) * cellSize, cellSize, cellSize,
+                    px, py, cellSize, cellSize);
+        } else {
+            double sx = (x + ((camX + camY) & 1)) * cellSize;
+            gc.drawImage(bg, sx, py, cellSize, cellSize, px, py, cellSize, cellSize);
+            if (isWall((y + camY) * boardWidth + x + camX)) sprites.drawWall(gc, x, y);
+        }
+        if (!walls) return;
+        gc.setFill(SpriteAtlas.BORDER);
+        if (x == 0 && camX == 0) gc.fillRect(px, py, BORDER_WIDTH, cellSize);
+        if (y == 0 && camY == 0) gc.fillRect(px, py, cellSize, BORDER_WIDTH);
+        if (x == viewCols() - 1 && camX + x == boardWidth - 1) {
+            gc.fillRect(px + cellSize - BORDER_WIDTH, py, BORDER_WIDTH, cellSize);
+        }
+        if (y == viewRows() - 1 && camY + y == boardHeight - 1) {
+            gc.fillRect(px, py + cellSize - BORDER_WIDTH, cellSize, BORDER_WIDTH);
+        }
+    }
 
-        /* ----------  GRID & SNAKE  ---------- */
-        Color grassA = Color.web("#1e272e");
-        Color grassB = Color.web("#2f3640");
-        Color snakeOrange = Color.GREEN;
+    private int wrapCell(int x, int y) {
+        return Math.floorMod(y, boardHeight) * boardWidth + Math.floorMod(x, boardWidth);
+    }
 
-        double segSize   = cellSize * 0.9;         // body diameter
-        double segOffset = (cellSize - segSize) / 2;
+    /**
+     * Repaints only the dirty cells. Does nothing while a full repaint is
+     * still owed; callers check {@link #isFullRepaintNeeded()} first.
+     *
+     * @param alpha how far into the next tick this frame is, in {@code [0, 1)},
+     *              or a negative value to draw the snake exactly on its cells
+     */
+    public void renderChanges(SnakeView snake, Direction facing,
+                              int foodX, int foodY,
+                              DifficultyLevel difficulty,
+                              int bonusFoodX, int bonusFoodY,
+                              boolean hasBonusFood, double alpha) {
+        if (fullRepaintNeeded) return;
 
-        double headSize   = cellSize * 1.0;        // head a bit bigger
-        double headOffset = (cellSize - headSize) / 2;
+        boolean sliding = alpha >= 0;
+        int headCell = snake.headCell();
+        int hx = snake.headX(), hy = snake.headY();
+        int behindHead = wrapCell(hx - facing.dx, hy - facing.dy);
+        int tailCell = snake.tailCell();
+        int tail = freedTail >= 0 && freedTail != headCell ? freedTail : -1;
 
-        // First pass: draw background grid
-        for (int y = 0; y < h; y++) {
-            for (int x = 0; x < w; x++) {
-                gc.setFill((x + y) % 2 == 0 ? grassA : grassB);
-                gc.fillRect(x * cellSize, y * cellSize, cellSize, cellSize);
+        // wipe where the sliding sprites were last frame and where they go now (view cells)
+        for (int i = 0; i < slideCount; i++) markDirty(slideCells[i]);
+        slideCount = 0;
+        if (sliding) {
+            slideCells[slideCount++] = toView(headCell);
+            slideCells[slideCount++] = toView(behindHead);
+            if (tail >= 0) {
+                slideCells[slideCount++] = toView(tail);
+                slideCells[slideCount++] = toView(tailCell);
+            }
+            for (int i = 0; i < slideCount; i++) markDirty(slideCells[i]);
+        }
+        if (overlay != null) {
+            for (int y = 0; y < Math.min(rows, OVERLAY_ROWS); y++) {
+                for (int x = 0; x < Math.min(cols, OVERLAY_COLS); x++) markDirty(y * cols + x);
             }
         }
+        if (dirtyCount == 0) return;
 
-        // Second pass: snake body & head
-        int headX = -1, headY = -1;
-        for (int y = 0; y < h; y++) {
-            for (int x = 0; x < w; x++) {
-                char c = grid[y][x];
-                if (c == 'S') {                               // body segment
-                    gc.setFill(snakeOrange);
-                    gc.fillOval(x * cellSize + segOffset,
-                            y * cellSize + segOffset,
-                            segSize, segSize);
-                } else if (c == 'H') {                        // remember head
-                    headX = x;
-                    headY = y;
+        Image bg = background();
+        boolean walls = difficulty.wallsKill();
+        int foodCell = foodX >= 0 ? foodY * boardWidth + foodX : -1;
+        int bonusCell = hasBonusFood ? bonusFoodY * boardWidth + bonusFoodX : -1;
+
+        for (int i = 0; i < dirtyCount; i++) {
+            int x = dirtyList[i] % cols, y = dirtyList[i] / cols;
+            int cell = (y + camY) * boardWidth + x + camX;
+            drawGround(bg, x, y, walls);
+            if (cell == headCell) {
+                if (!sliding) sprites.drawHead(gc, facing, x, y);
+            } else if (snake.isOccupied(cell) && !isWall(cell)) {
+                sprites.drawBody(gc, x, y);
+            } else if (cell == foodCell) {
+                sprites.drawFood(gc, x, y);
+            } else if (cell == bonusCell) {
+                sprites.drawBonus(gc, x, y);
+            }
+        }
+        if (sliding) {
+            if (tail >= 0) {
+                // step from the freed tail toward the current tail, the short way round a wrap
+                int tx = tail % boardWidth, ty = tail / boardWidth;
+                int dx = wrapStep(tailCell % boardWidth - tx, boardWidth);
+                int dy = wrapStep(tailCell / boardWidth - ty, boardHeight);
+                sprites.drawBodyAt(gc, (tx - camX + dx * alpha) * cellSize, (ty - camY + dy * alpha) * cellSize);
+            }
+            sprites.drawHeadAt(gc, facing,
+                    (hx - camX - facing.dx * (1 - alpha)) * cellSize,
+                    (hy - camY - facing.dy * (1 - alpha)) * cellSize);
+        }
+        drawOverlay();
+        clearDirty();
+    }
+
+    private static int wrapStep(int d, int size) {
+        if (d > 1) return d - size;
+        if (d < -1) return d + size;
+        return d;
+    }
+
+
+    /** Repaints every cell of the viewport. */
+    public void render(SnakeView snake, Direction facing,
+                       int foodX, int foodY,
+                       DifficultyLevel difficulty,
+                       int bonusFoodX, int bonusFoodY,
+                       boolean hasBonusFood) {
+        Image bg = background();
+        boolean walls = difficulty.wallsKill();
+        int viewCols = viewCols(), viewRows = viewRows();
+
+        /* ----------  GROUND & BODY, visible cells only  ---------- */
+        if (viewCols < cols || viewRows < rows) {
+            // a board smaller than the canvas leaves a margin that nothing else paints
+            gc.clearRect(0, 0, gc.getCanvas().getWidth(), gc.getCanvas().getHeight());
+        }
+        int headCell = snake.headCell();
+        for (int y = 0; y < viewRows; y++) {
+            int rowStart = (y + camY) * boardWidth + camX;
+            for (int x = 0; x < viewCols; x++) {
+                drawGround(bg, x, y, walls);
+                int cell = rowStart + x;
+                if (cell != headCell && snake.isOccupied(cell) && !isWall(cell)) {
+                    sprites.drawBody(gc, x, y);
                 }
             }
         }
 
         // Draw head last so it sits on top
-        if (headX >= 0) {
-            gc.setFill(snakeOrange);
-            gc.fillOval(headX * cellSize + headOffset,
-                    headY * cellSize + headOffset,
-                    headSize, headSize);
-
-            /* --- simple cartoon eyes & tongue --- */
-            double eyeR   = cellSize * 0.10;
-            double eyeOff = cellSize * 0.22;
-            double cx     = headX * cellSize + cellSize / 2.0;
-            double cy     = headY * cellSize + cellSize / 2.0;
-
-            gc.setFill(Color.WHITE);
-            gc.fillOval(cx - eyeOff - eyeR, cy - eyeOff - eyeR, eyeR * 2, eyeR * 2); // left eye white
-            gc.fillOval(cx + eyeOff - eyeR, cy - eyeOff - eyeR, eyeR * 2, eyeR * 2); // right eye white
-
-            gc.setFill(Color.BLACK);
-            double pupilR = eyeR * 0.5;
-            gc.fillOval(cx - eyeOff - pupilR, cy - eyeOff - pupilR, pupilR * 2, pupilR * 2);
-            gc.fillOval(cx + eyeOff - pupilR, cy - eyeOff - pupilR, pupilR * 2, pupilR * 2);
-
-            // tongue (small red triangle)
-            gc.setFill(Color.RED);
-            gc.fillPolygon(
-                    new double[]{cx,               cx - cellSize * 0.05, cx + cellSize * 0.05},
-                    new double[]{cy + headSize*0.35, cy + headSize*0.55,  cy + headSize*0.55},
-                    3
-            );
-        }
-
-        /* ----------  REGULAR FOOD (orange orb)  ---------- */
-        gc.setFill(Color.RED);
-        double foodSize   = cellSize * 0.8;
-        double foodOffset = (cellSize - foodSize) / 2;
-        gc.fillOval(foodX * cellSize + foodOffset,
-                foodY * cellSize + foodOffset,
-                foodSize, foodSize);
-
-        /* ----------  BONUS FOOD (blue diamond)  ---------- */
-        if (hasBonusFood) {
-            gc.setFont(new Font(cellSize));
-            gc.setFill(Color.DEEPSKYBLUE);
-            gc.fillText("💎",
-                    bonusFoodX * cellSize + cellSize * 0.10,
-                    bonusFoodY * cellSize + cellSize * 0.80);
-        }
-
-        /* ----------  HARD DIFFICULTY BORDER  ---------- */
-        if ("Hard".equalsIgnoreCase(difficulty)) {
-            gc.setStroke(Color.rgb(173, 7, 7));
-            gc.setLineWidth(12);
-            gc.strokeRect(0, 0, w * cellSize, h * cellSize);
+        int head = toView(headCell);
+        if (head >= 0) {
+            sprites.drawHead(gc, facing, head % cols, head / cols);
         }
+
+        /* ----------  FOOD & BONUS  ---------- */
+        int food = foodX >= 0 ? toView(foodY * boardWidth + foodX) : -1;
+        if (food >= 0) {
+            sprites.drawFood(gc, food % cols, food / cols);
+        }
+        int bonus = hasBonusFood ? toView(bonusFoodY * boardWidth + bonusFoodX) : -1;
+        if (bonus >= 0) {
+            sprites.drawBonus(gc, bonus % cols, bonus / cols);
+        }
+
+        drawOverlay();
+        clearDirty();
+        slideCount = 0;
+        fullRepaintNeeded = false;
     }
 }
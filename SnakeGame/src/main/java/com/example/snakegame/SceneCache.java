@@ -0,0 +1,80 @@
+package com.example.snakegame;
+
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * One {@link Scene} for the whole app, with a root node per screen. A
+ * screen's root is built the first time it is shown and kept; navigating
+ * back to it swaps the existing root in and runs its on-show hook (to clear
+ * a form, start a game, ...), so going round the menus any number of times
+ * builds nothing new. FX thread only.
+ */
+final class SceneCache<K extends Enum<K>> {
+    private final Stage stage;
+    private final Scene scene = new Scene(new Pane());
+    private final Function<K, Parent> builder;
+    private final Map<K, Parent> roots;
+    private final Map<K, Runnable> onShow;
+    private final Map<K, Runnable> onHide;
+    private K current;
+
+    SceneCache(Stage stage, Class<K> screens, Function<K, Parent> builder) {
+        this.stage = stage;
+        this.builder = builder;
+        this.roots = new EnumMap<>(screens);
+        this.onShow = new EnumMap<>(screens);
+        this.onHide = new EnumMap<>(screens);
+        stage.setScene(scene);
+    }
+
+    Scene scene() {
+        return scene;
+    }
+
+    K current() {
+        return current;
+    }
+
+    /** Runs {@code action} every time {@code screen} is shown, after its root is in place. */
+    void onShow(K screen, Runnable action) {
+        onShow.put(screen, action);
+    }
+
+    /** Runs {@code action} every time another screen replaces {@code screen}. */
+    void onHide(K screen, Runnable action) {
+        onHide.put(screen, action);
+    }
+
+    void show(K screen) {
+        if (current != null && current != screen) {
+            Runnable hidden = onHide.get(current);
+            if (hidden != null) hidden.run();
+        }
+        Parent root = roots.get(screen);
+        if (root == null) {
+            root = builder.apply(screen);
+            roots.put(screen, root);
+        }
+        current = screen;
+        if (scene.getRoot() != root) {
+            scene.setRoot(root);
+            stage.sizeToScene();
+        }
+        Runnable action = onShow.get(screen);
+        if (action != null) action.run();
+    }
+
+    /** Forgets a screen that won't be shown again, e.g. the splash. */
+    void drop(K screen) {
+        roots.remove(screen);
+        onShow.remove(screen);
+        onHide.remove(screen);
+    }
+}
@@ -8,7 +8,7 @@ import javafx.animation.SequentialTransition;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.geometry.Pos;
-import javafx.scene.Scene;
+import javafx.scene.Parent;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.control.*;
@@ -25,44 +25,105 @@ import javafx.geometry.Insets;
 import javafx.util.Duration;
 import javafx.scene.media.Media;
 import javafx.scene.media.MediaPlayer;
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.FixedTimestep;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.GameListener;
+import com.example.snakegame.core.InputQueue;
+import com.example.snakegame.core.Level;
+import com.example.snakegame.core.StepResult;
+import com.example.snakegame.core.level.LevelPack;
+import com.example.snakegame.core.metrics.LoopStats;
+import com.example.snakegame.core.replay.Replay;
+import com.example.snakegame.core.replay.ReplayPlayer;
+import com.example.snakegame.core.replay.ReplayRecorder;
+import com.example.snakegame.core.store.AsyncAppendLog;
+import com.example.snakegame.core.store.AsyncAppendLog.FsyncPolicy;
+import com.example.snakegame.core.store.Leaderboard;
+import com.example.snakegame.core.store.ScoreStore;
+import com.example.snakegame.core.store.PlayerRegistry;
+import com.example.snakegame.core.telemetry.TelemetryLog;
+import com.example.snakegame.core.telemetry.TelemetryRecorder;
 
 import java.io.*;
 import java.net.URL;
-import java.util.Random;
-import java.util.Scanner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class SnakeGame extends Application {
     private Label scoreLabel;
-    private static final int WIDTH = 30, HEIGHT = 18, CELL_SIZE = 30;
-
-    private char[][] grid = new char[HEIGHT][WIDTH];
-    private SnakeLinkedList snake;
-    private int foodX, foodY;
-    private Direction direction = Direction.RIGHT;
-    private boolean gameOver = false, spacePressed = false;
+    // visible area in cells; bigger boards scroll under it
+    private static final int WIDTH = GameEngine.DEFAULT_WIDTH, HEIGHT = GameEngine.DEFAULT_HEIGHT, CELL_SIZE = 30;
+    private static final Font OVERLAY_TITLE_FONT = Font.font("Consolas", FontWeight.EXTRA_BOLD, 36);
+    private static final Font OVERLAY_HINT_FONT = Font.font("Arial", FontWeight.BOLD, 20);
+
+    private int boardWidth = GameEngine.DEFAULT_WIDTH, boardHeight = GameEngine.DEFAULT_HEIGHT;
+    private GameEngine engine;
+    // key presses wait here for the ticks; a few quick presses in one tick all get played
+    private static final int INPUT_BUFFER = 4;
+    private final InputQueue inputs = new InputQueue(INPUT_BUFFER, Direction.RIGHT);
+    private boolean spacePressed = false;
     private GraphicsContext gc;
     private GameView gameView;
+    private final boolean incrementalRender = !Boolean.getBoolean("snake.fullRender");
+    private final boolean interpolate = !Boolean.getBoolean("snake.noInterpolation");
+    private int shownScore = -1;
+    private static final int MAX_CATCH_UP_TICKS = 5;
     private MediaPlayer splashSound;
-    private MediaPlayer eatSound;
-    private MediaPlayer gameOverSound;
+    private boolean splashMusicDue;
+    private SoundEffects sounds;
     private String playerName = "";
     private String playerCode = "";
-    private int score = 0;
-    private String difficulty = "Easy";
-    private long speed = 200_000_000;
+    private DifficultyLevel difficulty = DifficultyLevel.EASY;
+    // chosen on the start screen: -1 and null for the open board, else an index into the level pack
+    private int levelIndex = -1;
+    private Level level;
 
-    private int bonusFoodX, bonusFoodY;
-    private boolean hasBonusFood = false;
-    private long lastBonusSpawnAttemptTime = 0;
-    private long bonusFoodActiveStartTime = 0;
-    private final long BONUS_SPAWN_COOLDOWN = 8_000_000_000L;
-    private final long BONUS_LIFETIME = 4_000_000_000L;
-    private final int BONUS_SCORE_THRESHOLD = 10;
-    private int segmentsToAdd = 0;
-    private Random random = new Random();
 
+    private enum Screen { SPLASH, LOGIN, DIFFICULTY, START, GAME, LEADERBOARD }
 
+    // every screen's root is built once and swapped in and out of one scene
+    private SceneCache<Screen> screens;
     private AnimationTimer gameLoopTimer;
+    private FixedTimestep clock;
+    private final Map<DifficultyLevel, LoopStats> loopStatsByDifficulty = new EnumMap<>(DifficultyLevel.class);
+    private long lastOverlay, lastDump;
+    private final AssetPreloader assets = new AssetPreloader();
+    // -Dsnake.startupBench=true: skip the splash animation, print startup times and exit at the login screen
+    private static final boolean STARTUP_BENCH = Boolean.getBoolean("snake.startupBench");
+    private CompletableFuture<Image> logoLoad;
+    private CompletableFuture<ScoreStore> scoresLoad;
+    private CompletableFuture<PlayerRegistry> playersLoad;
+    private CompletableFuture<Leaderboard> leaderboardLoad;
+    // owns the score store once it is loaded: appends run here, in order, never on the FX thread
+    private final ExecutorService scoreWriter =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("score-writer").factory());
+    private CompletableFuture<LevelPack> levelsLoad;
+    private static final int LEADERBOARD_SIZE = 10;
+    private boolean loginShown;
+    private AsyncAppendLog statsLog;
+    // -Dsnake.telemetry=telemetry.snkt: gameplay events for TelemetryReport; one session per engine
+    private TelemetryLog telemetry;
+    private TelemetryRecorder telemetryRecorder;
+    private int telemetrySessions;
+    private LoopStats loopStats;
+    private boolean showStats = Boolean.getBoolean("snake.stats");
+    private final long statsDumpIntervalNanos = Long.getLong("snake.statsIntervalMs", 10_000) * 1_000_000L;
+    private static final long OVERLAY_REFRESH_NANOS = 250_000_000L;
+    private ReplayRecorder recorder;
+    private final Path replayDir = Path.of(System.getProperty("snake.replayDir", "replays"));
+    private Replay replayToPlay;
+    private ReplayPlayer playback;
+    private static final int REPLAY_SEEK_TICKS = 50;
 
     public static void main(String[] args) {
         launch(args);
@@ -70,103 +131,337 @@ public class SnakeGame extends Application {
 
     @Override
     public void start(Stage stage) {
-        loadAudio();
-        stage.setScene(splashScene(stage));
-        stage.setTitle("Desert Slither");
+        long startNanos = System.nanoTime();
+        preloadAssets();
+        openStatsLog();
+        openTelemetry();
+        readBoardSize();
+        screens = new SceneCache<>(stage, Screen.class, screen -> switch (screen) {
+            case SPLASH -> splashRoot(stage);
+            case LOGIN -> loginRoot(stage);
+            case DIFFICULTY -> difficultyRoot(stage);
+            case START -> startGameRoot(stage);
+            case GAME -> gameRoot(stage);
+            case LEADERBOARD -> leaderboardRoot();
+        });
+        screens.scene().setOnKeyPressed(evt -> {
+            if (screens.current() == Screen.GAME) handleGameKey(evt.getCode());
+        });
+        // a game-over jingle shouldn't follow the player back to the menus
+        screens.onHide(Screen.GAME, sounds::stopAll);
+        String replayFile = System.getProperty("snake.replay");
+        if (replayFile != null && loadReplay(replayFile)) {
+            // -Dsnake.replay=replays/x.snkr: straight to playback, no login
+            playerName = "Replay " + Path.of(replayFile).getFileName();
+            screens.show(Screen.GAME);
+        } else {
+            screens.show(Screen.SPLASH);
+            stage.setTitle("Desert Slither");
+        }
         stage.show();
+        long startCallNanos = System.nanoTime() - startNanos;
+        if (reportsStartup()) {
+            // the first pulse after show() is the one that paints the window
+            onNextPulse(() -> reportStartup(String.format(Locale.ROOT,
+                    "first frame %d ms after launch, start() took %.1f ms", millisSinceLaunch(), startCallNanos / 1e6)));
+        }
     }
 
-    private void loadAudio() {
+    @Override
+    public void stop() {
+        sounds.stopAll();
+        // drain and fsync whatever is still queued before the JVM goes away
+        scoreWriter.shutdown();
         try {
-            URL splashSoundUrl = getClass().getResource("/5091770_snake-charmer_by_mystic8_preview.mp3");
-            if (splashSoundUrl != null) {
-                Media splashMedia = new Media(splashSoundUrl.toString());
-                splashSound = new MediaPlayer(splashMedia);
-                splashSound.setCycleCount(1);
-                splashSound.play();
+            if (!scoreWriter.awaitTermination(5, TimeUnit.SECONDS)) {
+                System.err.println("Gave up waiting for scores to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        AssetPreloader.get(leaderboardLoad);   // it may still be reading the store
+        ScoreStore scores = AssetPreloader.get(scoresLoad);
+        if (scores != null) {
+            try {
+                scores.close();
+            } catch (IOException e) {
+                System.err.println("Error closing scores.bin: " + e.getMessage());
+            }
+        }
+        if (statsLog != null) statsLog.close();
+        if (telemetry != null) telemetry.close();
+        PlayerRegistry players = AssetPreloader.get(playersLoad);
+        if (players != null) players.close();
+        LevelPack levels = AssetPreloader.get(levelsLoad);
+        if (levels != null) {
+            try {
+                levels.close();
+            } catch (IOException e) {
+                System.err.println("Error closing level pack: " + e.getMessage());
             }
+        }
+        assets.close();
+    }
 
-            // Load eat sound
-            URL eatSoundUrl = getClass().getResource("/Chomp.wav");
-            if (eatSoundUrl != null) {
-                Media eatMedia = new Media(eatSoundUrl.toString());
-                eatSound = new MediaPlayer(eatMedia);
+    /**
+     * Starts every slow load at once on the preloader: the logo, the sound
+     * effects, the splash music, the player index, the score store, the
+     * leaderboard built from it and the level pack's index. The
+     * splash goes up as soon as the window does and picks these up as they
+     * finish; by the time it fades out the login screen has nothing to wait for.
+     */
+    private void preloadAssets() {
+        FsyncPolicy policy = readFsyncPolicy();
+        long intervalMs = Long.getLong("snake.fsyncIntervalMs", 1000);
+        logoLoad = assets.submit("logo.png", () -> {
+            URL logoUrl = getClass().getResource("logo.png");
+            if (logoUrl == null) throw new FileNotFoundException("logo.png not found");
+            Image logo = new Image(logoUrl.toExternalForm(), 200, 0, true, true);
+            if (logo.isError()) throw logo.getException();
+            return logo;
+        });
+        sounds = SoundEffects.loadAsync(assets);
+        URL splashSoundUrl = getClass().getResource("/5091770_snake-charmer_by_mystic8_preview.mp3");
+        if (splashSoundUrl != null) {
+            assets.submit("splash music", () -> {
+                MediaPlayer player = new MediaPlayer(new Media(splashSoundUrl.toString()));
+                player.setCycleCount(1);
+                return player;
+            }).thenAcceptAsync(player -> {
+                // starts once it is loaded and the logo has faded in, whichever comes last
+                splashSound = player;
+                if (splashMusicDue) player.play();
+            }, Platform::runLater);
+        }
+        playersLoad = assets.submit("players.txt", () -> {
+            PlayerRegistry players = PlayerRegistry.load(Path.of("players.txt"), policy, intervalMs,
+                    e -> System.err.println("Error writing players.txt: " + e.getMessage()));
+            players.startPeriodicCompaction(10, TimeUnit.MINUTES);
+            return players;
+        });
+        scoresLoad = assets.submit("scores.bin", () -> {
+            Path file = Path.of("scores.bin"), legacy = Path.of("scores.txt");
+            boolean fresh = Files.notExists(file);
+            ScoreStore scores = ScoreStore.open(file);
+            // one-time migration; the old text log is left where it is
+            if (fresh && Files.exists(legacy)) scores.importText(legacy);
+            return scores;
+        });
+        // -Dsnake.levels=pack.snkl; the default pack is built from levels.txt the first time
+        levelsLoad = assets.submit("levels", () -> {
+            Path file = Path.of(System.getProperty("snake.levels", "levels.snkl")), source = Path.of("levels.txt");
+            if (Files.notExists(file) && Files.exists(source)) LevelPack.compile(source, file);
+            return LevelPack.open(file);
+        });
+        // read once here, then kept current by saveScore()
+        leaderboardLoad = assets.submit("leaderboard", () -> {
+            ScoreStore scores = AssetPreloader.get(scoresLoad);
+            if (scores == null) throw new IOException("scores.bin could not be opened");
+            return Leaderboard.from(scores, LEADERBOARD_SIZE);
+        });
+    }
+
+    private static long millisSinceLaunch() {
+        return ProcessHandle.current().info().startInstant()
+                .map(launched -> System.currentTimeMillis() - launched.toEpochMilli())
+                .orElse(-1L);
+    }
+
+    private static void onNextPulse(Runnable action) {
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                action.run();
             }
+        }.start();
+    }
+
+    /** Startup times go to stdout under {@code -Dsnake.startupBench} and into the stats log when there is one. */
+    private boolean reportsStartup() {
+        return STARTUP_BENCH || statsLog != null;
+    }
+
+    private void reportStartup(String what) {
+        String line = "startup: " + what;
+        if (STARTUP_BENCH) System.out.println(line);
+        if (statsLog != null) statsLog.append("# " + line);
+    }
 
-            // Load game over sound
-            URL gameOverSoundUrl = getClass().getResource("/game-over-arcade-6435.mp3");
-            if (gameOverSoundUrl != null) {
-                Media gameOverMedia = new Media(gameOverSoundUrl.toString());
-                gameOverSound = new MediaPlayer(gameOverMedia);
+    private void openStatsLog() {
+        String statsFile = System.getProperty("snake.statsFile");
+        if (statsFile != null) {
+            // periodic frame/tick timing dump, e.g. -Dsnake.statsFile=timings.tsv
+            statsLog = openLog(statsFile, FsyncPolicy.NONE, Long.getLong("snake.fsyncIntervalMs", 1000));
+            if (statsLog != null) {
+                statsLog.append("# " + System.getProperty("os.name") + " " + System.getProperty("os.arch")
+                        + ", " + Runtime.getRuntime().availableProcessors() + " cpus, java "
+                        + System.getProperty("java.version"));
             }
-        } catch (Exception e) {
-            System.err.println("Error loading audio files: " + e.getMessage());
         }
     }
 
-    private Scene splashScene(Stage stage) {
+    private void openTelemetry() {
+        String file = System.getProperty("snake.telemetry");
+        if (file == null) return;
+        try {
+            telemetry = TelemetryLog.open(Path.of(file), TelemetryLog.DEFAULT_CAPACITY,
+                    Long.getLong("snake.telemetryFlushMs", 1000),
+                    e -> System.err.println("Error writing " + file + ": " + e.getMessage()));
+        } catch (IOException e) {
+            System.err.println("Error opening " + file + ": " + e.getMessage());
+        }
+    }
+
+    /** Endurance boards, e.g. {@code -Dsnake.board=2000x2000}; the default is one screen. */
+    private void readBoardSize() {
+        String board = System.getProperty("snake.board");
+        if (board == null) return;
+        try {
+            String[] size = board.toLowerCase().split("x");
+            boardWidth = Math.max(2, Math.min(GameEngine.MAX_SIDE, Integer.parseInt(size[0].trim())));
+            boardHeight = Math.max(2, Math.min(GameEngine.MAX_SIDE, Integer.parseInt(size[1].trim())));
+        } catch (RuntimeException e) {
+            System.err.println("Error reading snake.board '" + board + "': " + e.getMessage());
+        }
+    }
+
+    private static FsyncPolicy readFsyncPolicy() {
+        String name = System.getProperty("snake.fsync");
+        try {
+            return FsyncPolicy.parse(name, FsyncPolicy.EVERY_BATCH);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error reading snake.fsync '" + name + "': " + e.getMessage());
+            return FsyncPolicy.EVERY_BATCH;
+        }
+    }
+
+    /** {@code -Dsnake.replaySpeed=4} plays back four times faster; kept between 1/16 and 64. */
+    private static double readReplaySpeed() {
+        String speed = System.getProperty("snake.replaySpeed");
+        if (speed == null) return 1;
+        try {
+            double value = Double.parseDouble(speed.trim());
+            if (!(value > 0) || Double.isInfinite(value)) throw new NumberFormatException("must be a positive number");
+            return Math.max(1.0 / 16, Math.min(64, value));
+        } catch (NumberFormatException e) {
+            System.err.println("Error reading snake.replaySpeed '" + speed + "': " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private boolean loadReplay(String file) {
+        try {
+            replayToPlay = Replay.load(Path.of(file));
+            difficulty = replayToPlay.difficulty();
+            boardWidth = replayToPlay.width();
+            boardHeight = replayToPlay.height();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error loading replay " + file + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private AsyncAppendLog openLog(String file, FsyncPolicy policy, long intervalMs) {
+        try {
+            return AsyncAppendLog.open(Path.of(file), policy, intervalMs,
+                    e -> System.err.println("Error writing " + file + ": " + e.getMessage()));
+        } catch (IOException e) {
+            System.err.println("Error opening " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void playSound(SoundEffects.Effect effect) {
+        long nanos = sounds.play(effect);
+        if (nanos >= 0 && loopStats != null) loopStats.sound(nanos);
+    }
+
+    private void stopSplashMusic() {
+        splashMusicDue = false;
+        if (splashSound != null) splashSound.stop();
+    }
+
+    private Parent splashRoot(Stage stage) {
         StackPane splashRoot = new StackPane();
         splashRoot.setStyle("-fx-background-color: linear-gradient(to right, #141e30, #243b55);");
         splashRoot.setPrefSize(WIDTH * CELL_SIZE, HEIGHT * CELL_SIZE);
 
-        ImageView logoView = new ImageView();
-        Label fallback = null;
+        // the background shows straight away; the logo joins it once the preloader has decoded it
+        logoLoad.whenCompleteAsync((logo, error) -> {
+            if (logo == null) {
+                Label fallback = new Label("Desert Slither");
+                fallback.setTextFill(Color.WHITE);
+                fallback.setFont(Font.font("Verdana", FontWeight.BOLD, 48));
+                splashRoot.getChildren().add(fallback);
+                Platform.runLater(() -> showLogin(stage));
+            } else if (STARTUP_BENCH) {
+                splashRoot.getChildren().add(new ImageView(logo));
+                assets.all().thenRunAsync(() -> showLogin(stage), Platform::runLater);
+            } else {
+                fadeInLogo(stage, splashRoot, logo);
+            }
+        }, Platform::runLater);
+        return splashRoot;
+    }
+
+    private void fadeInLogo(Stage stage, StackPane splashRoot, Image logo) {
+        ImageView logoView = new ImageView(logo);
+        logoView.setOpacity(0);
+        splashRoot.getChildren().add(logoView);
 
-        try {
-            URL logoUrl = getClass().getResource("logo.png");
-            if (logoUrl == null) throw new FileNotFoundException("logo.png not found");
-            Image logoImage = new Image(logoUrl.toExternalForm(), 200, 0, true, true);
-            logoView.setImage(logoImage);
-        } catch (Exception ex) {
-            System.err.println("Splash image load error: " + ex);
-            fallback = new Label("Desert Slither");
-            fallback.setTextFill(Color.WHITE);
-            fallback.setFont(Font.font("Verdana", FontWeight.BOLD, 48));
-        }
-
-        if (fallback != null) {
-            splashRoot.getChildren().add(fallback);
-            Platform.runLater(() -> stage.setScene(loginScene(stage)));
-        } else {
-            logoView.setOpacity(0);
-            splashRoot.getChildren().add(logoView);
+        FadeTransition fadeIn = new FadeTransition(Duration.seconds(2), logoView);
+        fadeIn.setFromValue(0);
+        fadeIn.setToValue(1);
 
-            FadeTransition fadeIn = new FadeTransition(Duration.seconds(2), logoView);
-            fadeIn.setFromValue(0);
-            fadeIn.setToValue(1);
+        fadeIn.setOnFinished(e -> {
+            splashMusicDue = true;
+            if (splashSound != null) {
+                splashSound.stop();
+                splashSound.play();
+            }
+        });
 
-            fadeIn.setOnFinished(e -> {
-                if (splashSound != null) {
-                    splashSound.stop();
-                    splashSound.play();
-                }
-            });
+        PauseTransition pause = new PauseTransition(Duration.seconds(1.5));
 
-            PauseTransition pause = new PauseTransition(Duration.seconds(1.5));
+        FadeTransition fadeOut = new FadeTransition(Duration.seconds(1.5), logoView);
+        fadeOut.setFromValue(1);
+        fadeOut.setToValue(0);
 
-            FadeTransition fadeOut = new FadeTransition(Duration.seconds(1.5), logoView);
-            fadeOut.setFromValue(1);
-            fadeOut.setToValue(0);
+        final boolean[] switched = {false};
 
-            final boolean[] switched = {false};
+        fadeOut.setOnFinished(e -> {
+            if (!switched[0]) {
+                switched[0] = true;
+                Platform.runLater(() -> showLogin(stage));
+            }
+        });
 
-            fadeOut.setOnFinished(e -> {
-                if (!switched[0]) {
-                    switched[0] = true;
-                    Platform.runLater(() -> {
-                        stage.setTitle("Snake Game – Login");
-                        stage.setScene(loginScene(stage));
-                    });
-                }
-            });
+        new SequentialTransition(fadeIn, pause, fadeOut).play();
+    }
 
-            new SequentialTransition(fadeIn, pause, fadeOut).play();
-        }
-        if (splashSound != null) splashSound.stop();
-        return new Scene(splashRoot);
+    /**
+     * Leaves the splash for the login screen. The first time, it also reports
+     * when the login became usable: on screen, and with every preloaded asset
+     * (the player index in particular) ready.
+     */
+    private void showLogin(Stage stage) {
+        stage.setTitle("Snake Game – Login");
+        screens.show(Screen.LOGIN);
+        screens.drop(Screen.SPLASH);
+        if (loginShown || !reportsStartup()) return;
+        loginShown = true;
+        assets.all().thenRunAsync(() -> onNextPulse(() -> {
+            reportStartup("login interactive " + millisSinceLaunch() + " ms after launch");
+            if (STARTUP_BENCH) {
+                assets.timings().forEach(t -> reportStartup("  " + t));
+                Platform.exit();
+            }
+        }), Platform::runLater);
     }
 
-    private Scene loginScene(Stage stage) {
+    private Parent loginRoot(Stage stage) {
         VBox box = new VBox(15);
         box.setAlignment(Pos.CENTER);
         box.setPrefSize(WIDTH * CELL_SIZE, HEIGHT * CELL_SIZE);
@@ -188,11 +483,22 @@ public class SnakeGame extends Application {
             if (nameInput.getText().isEmpty() || codeInput.getText().isEmpty()) {
                 message.setText("Fill both fields");
             } else {
-                savePlayerData(codeInput.getText(), nameInput.getText());
-                message.setTextFill(Color.LIGHTGREEN);
-                message.setText("Signed up!");
+                switch (savePlayerData(codeInput.getText(), nameInput.getText())) {
+                    case CREATED -> {
+                        message.setTextFill(Color.LIGHTGREEN);
+                        message.setText("Signed up!");
+                    }
+                    case CODE_TAKEN -> {
+                        message.setTextFill(Color.RED);
+                        message.setText("Code already taken");
+                    }
+                    case INVALID -> {
+                        message.setTextFill(Color.RED);
+                        message.setText("Name and code can't contain commas");
+                    }
+                }
             }
-            if (splashSound != null) splashSound.stop();
+            stopSplashMusic();
         });
 
         Button login = styledButton("Login");
@@ -200,7 +506,7 @@ public class SnakeGame extends Application {
             if (verifyPlayerData(codeInput.getText(), nameInput.getText())) {
                 playerName = nameInput.getText();
                 playerCode = codeInput.getText();
-                stage.setScene(difficultyScene(stage));
+                screens.show(Screen.DIFFICULTY);
             } else {
                 message.setTextFill(Color.RED);
                 message.setText("Invalid login");
@@ -208,10 +514,16 @@ public class SnakeGame extends Application {
         });
 
         box.getChildren().addAll(title, nameInput, codeInput, signUp, login, message);
-        return new Scene(box);
+        // a fresh form on every visit, as if the screen were new
+        screens.onShow(Screen.LOGIN, () -> {
+            nameInput.clear();
+            codeInput.clear();
+            message.setText("");
+        });
+        return box;
     }
 
-private Scene difficultyScene(Stage stage) {
+private Parent difficultyRoot(Stage stage) {
     VBox box = new VBox(20);
     box.setAlignment(Pos.CENTER);
     box.setPrefSize(WIDTH * CELL_SIZE, HEIGHT * CELL_SIZE);
@@ -224,10 +536,12 @@ private Scene difficultyScene(Stage stage) {
     Button easy = styledButton("Easy");
     Button med = styledButton("Medium");
     Button hard = styledButton("Hard");
+    Button scores = styledButton("Leaderboard");
 
-    easy.setOnAction(e -> setDifficulty("Easy", 200_000_000, stage));
-    med.setOnAction(e -> setDifficulty("Medium", 120_000_000, stage));
-    hard.setOnAction(e -> setDifficulty("Hard", 80_000_000, stage));
+    easy.setOnAction(e -> setDifficulty(DifficultyLevel.EASY));
+    med.setOnAction(e -> setDifficulty(DifficultyLevel.MEDIUM));
+    hard.setOnAction(e -> setDifficulty(DifficultyLevel.HARD));
+    scores.setOnAction(e -> screens.show(Screen.LEADERBOARD));
 
     // ---------- Bottom Bar (Back Button) ----------
     Button backButton = new Button("Back");
@@ -239,22 +553,20 @@ private Scene difficultyScene(Stage stage) {
     backButton.setOnMouseExited(e ->
             backButton.setStyle("-fx-background-color: Orange;"));
 
-    backButton.setOnAction(e -> {
-        stage.setScene(loginScene(stage));
-    });
+    backButton.setOnAction(e -> screens.show(Screen.LOGIN));
 
     HBox bottomBar = new HBox(backButton);
     bottomBar.setAlignment(Pos.CENTER);
     bottomBar.setPadding(new Insets(10));
     bottomBar.setStyle("-fx-background-color: linear-gradient(to bottom right, #141e30, #243b55);");
 
-    VBox content = new VBox(20, label, easy, med, hard);
+    VBox content = new VBox(20, label, easy, med, hard, scores);
     content.setAlignment(Pos.CENTER);
 
     box.getChildren().addAll(content, bottomBar);
     VBox.setVgrow(content, Priority.ALWAYS);
 
-    return new Scene(box);
+    return box;
 }
 
     private TextField styledTextField(String placeholder) {
@@ -280,7 +592,7 @@ private Scene difficultyScene(Stage stage) {
         return btn;
     }
 
-private Scene startGameScene(Stage stage) {
+private Parent startGameRoot(Stage stage) {
     VBox box = new VBox();
     box.setAlignment(Pos.CENTER);
     box.setPrefSize(WIDTH * CELL_SIZE, HEIGHT * CELL_SIZE);
@@ -291,7 +603,15 @@ private Scene startGameScene(Stage stage) {
     label.setTextFill(Color.WHITE);
 
     Button startButton = styledButton("Start Game");
-    startButton.setOnAction(e -> stage.setScene(gameScene(stage)));
+    startButton.setOnAction(e -> screens.show(Screen.GAME));
+
+    // cycles through the open board and the pack's levels; hidden when there is no pack
+    Button levelButton = styledButton("");
+    levelButton.setPrefWidth(240);
+    levelButton.setOnAction(e -> {
+        nextLevel();
+        levelButton.setText("Board: " + levelName());
+    });
 
     // ---------- Bottom Bar (Back Button) ----------
     Button backButton = new Button("Back");
@@ -303,34 +623,139 @@ private Scene startGameScene(Stage stage) {
     backButton.setOnMouseExited(e ->
             backButton.setStyle("-fx-background-color: Orange;"));
 
-    backButton.setOnAction(e -> {
-        stage.setScene(difficultyScene(stage));
-    });
+    backButton.setOnAction(e -> screens.show(Screen.DIFFICULTY));
 
     HBox bottomBar = new HBox(backButton);
     bottomBar.setAlignment(Pos.CENTER);
     bottomBar.setPadding(new Insets(10));
     bottomBar.setStyle("-fx-background-color: linear-gradient(to bottom right, #141e30, #243b55);");
 
-    VBox content = new VBox(30, label, startButton);
+    VBox content = new VBox(30, label, levelButton, startButton);
     content.setAlignment(Pos.CENTER);
 
     box.getChildren().addAll(content, bottomBar);
     VBox.setVgrow(content, Priority.ALWAYS);
 
-    return new Scene(box);
+    screens.onShow(Screen.START, () -> {
+        LevelPack levels = AssetPreloader.get(levelsLoad);
+        boolean any = levels != null && levels.size() > 0;
+        levelButton.setVisible(any);
+        levelButton.setManaged(any);
+        levelButton.setText("Board: " + levelName());
+    });
+    return box;
 }
 
+    /** Moves the start screen's choice on to the next level, wrapping round to the open board. */
+    private void nextLevel() {
+        LevelPack levels = AssetPreloader.get(levelsLoad);
+        if (levels == null) return;
+        levelIndex = levelIndex + 1 < levels.size() ? levelIndex + 1 : -1;
+        level = null;
+        if (levelIndex < 0) return;
+        try {
+            level = levels.level(levelIndex);
+        } catch (IOException e) {
+            System.err.println("Error loading level " + levels.names().get(levelIndex) + ": " + e.getMessage());
+            levelIndex = -1;
+        }
+    }
+
+    private String levelName() {
+        return level == null ? "Open" : level.name();
+    }
+
+
+    /**
+     * Best games per difficulty and the player's own totals, straight from the
+     * in-memory {@link Leaderboard}; showing the screen only refreshes label text.
+     */
+    private Parent leaderboardRoot() {
+        VBox box = new VBox(20);
+        box.setAlignment(Pos.CENTER);
+        box.setPrefSize(WIDTH * CELL_SIZE, HEIGHT * CELL_SIZE);
+        box.setStyle("-fx-background-color: linear-gradient(to bottom right, #141e30, #243b55);");
+
+        Label label = new Label("Leaderboard");
+        label.setFont(Font.font("Verdana", FontWeight.BOLD, 28));
+        label.setTextFill(Color.WHITE);
+
+        // one column per difficulty, and one for games logged before difficulties were recorded
+        DifficultyLevel[] levels = DifficultyLevel.values();
+        VBox[] columns = new VBox[levels.length + 1];
+        Label[] boards = new Label[levels.length + 1];
+        for (int i = 0; i < columns.length; i++) {
+            Label header = new Label(i < levels.length ? levels[i].displayName() : "Earlier");
+            header.setFont(Font.font("Verdana", FontWeight.BOLD, 18));
+            header.setTextFill(Color.ORANGE);
+            boards[i] = new Label();
+            boards[i].setFont(Font.font("Consolas", 14));
+            boards[i].setTextFill(Color.WHITE);
+            columns[i] = new VBox(8, header, boards[i]);
+        }
+        HBox table = new HBox(30, columns);
+        table.setAlignment(Pos.CENTER);
+
+        Label mine = new Label();
+        mine.setFont(Font.font("Consolas", FontWeight.BOLD, 16));
+        mine.setTextFill(Color.LIGHTGREEN);
+
+        Button backButton = new Button("Back");
+        backButton.setFont(Font.font(14));
+        backButton.setTextFill(Color.WHITE);
+        backButton.setStyle("-fx-background-color:Orange;");
+        backButton.setOnMouseEntered(e ->
+                backButton.setStyle("-fx-background-color:Red;"));
+        backButton.setOnMouseExited(e ->
+                backButton.setStyle("-fx-background-color: Orange;"));
+        backButton.setOnAction(e -> screens.show(Screen.DIFFICULTY));
+
+        HBox bottomBar = new HBox(backButton);
+        bottomBar.setAlignment(Pos.CENTER);
+        bottomBar.setPadding(new Insets(10));
+
+        VBox content = new VBox(20, label, table, mine);
+        content.setAlignment(Pos.CENTER);
+        box.getChildren().addAll(content, bottomBar);
+        VBox.setVgrow(content, Priority.ALWAYS);
+
+        screens.onShow(Screen.LEADERBOARD, () -> {
+            Leaderboard leaderboard = AssetPreloader.get(leaderboardLoad);
+            for (int i = 0; i < columns.length; i++) {
+                List<Leaderboard.Entry> top = leaderboard == null ? List.of()
+                        : leaderboard.top(i < levels.length ? levels[i] : null);
+                StringBuilder text = new StringBuilder();
+                for (int rank = 0; rank < top.size(); rank++) {
+                    text.append(String.format(Locale.ROOT, "%2d. %-12.12s %5d%n",
+                            rank + 1, top.get(rank).name(), top.get(rank).score()));
+                }
+                boards[i].setText(top.isEmpty() ? "No games yet" : text.toString().stripTrailing());
+                // the old-format column only shows up when there is something in it
+                boolean shown = i < levels.length || !top.isEmpty();
+                columns[i].setVisible(shown);
+                columns[i].setManaged(shown);
+            }
+            Leaderboard.PlayerStats stats = leaderboard == null ? null
+                    : leaderboard.player(playerCode, playerName).orElse(null);
+            mine.setText(stats == null ? "No games played yet"
+                    : String.format(Locale.ROOT, "%s: %d games, best %d, average %.1f",
+                    stats.name(), stats.games(), stats.best(), stats.average()));
+        });
+        return box;
+    }
 
-    private void setDifficulty(String diff, long sp, Stage stage) {
+    private void setDifficulty(DifficultyLevel diff) {
         difficulty = diff;
-        speed = sp;
-        stage.setScene(startGameScene(stage)); // Go to the new scene
+        screens.show(Screen.START);
     }
 
-    private Scene gameScene(Stage stage) {
+    /**
+     * Built once: the canvas, view and loop timer are reused by every game.
+     * Showing the screen starts a new game on them; Back just stops the timer.
+     */
+    private Parent gameRoot(Stage stage) {
         // ---------- Top Bar ----------
-        Label nameLabel = new Label("Player: " + playerName);
+        Label nameLabel = new Label();
         nameLabel.setTextFill(Color.ORANGE);
         nameLabel.setFont(Font.font("Consolas", FontWeight.BOLD, 18));
 
@@ -359,9 +784,11 @@ private Scene startGameScene(Stage stage) {
         BorderPane.setAlignment(scoreLabel, Pos.CENTER_RIGHT);
 
         // ---------- Game Canvas ----------
-        Canvas canvas = new Canvas(WIDTH * CELL_SIZE, HEIGHT * CELL_SIZE);
+        Canvas canvas = new Canvas(Math.min(WIDTH, boardWidth) * CELL_SIZE, Math.min(HEIGHT, boardHeight) * CELL_SIZE);
         gc = canvas.getGraphicsContext2D();
         gameView = new GameView(gc, CELL_SIZE);
+        canvas.widthProperty().addListener((obs, o, n) -> gameView.invalidate());
+        canvas.heightProperty().addListener((obs, o, n) -> gameView.invalidate());
         StackPane canvasPane = new StackPane(canvas);
         VBox.setVgrow(canvasPane, Priority.ALWAYS);
 
@@ -376,14 +803,10 @@ private Scene startGameScene(Stage stage) {
                 backToDifficultyBtn.setStyle("-fx-background-color: Orange;"));
 
         backToDifficultyBtn.setOnAction(e -> {
-            if (gameLoopTimer != null) {
-                gameLoopTimer.stop();
-            }
-            gameOver = true;
-            score = 0;
+            gameLoopTimer.stop();
             scoreLabel.setText("Score: 0");
             stage.setTitle("Snake Game – Difficulty");
-            stage.setScene(startGameScene(stage));
+            screens.show(Screen.START);
         });
 
         HBox bottomBar = new HBox(backToDifficultyBtn);
@@ -395,84 +818,81 @@ private Scene startGameScene(Stage stage) {
         // ---------- Main Layout ----------
         VBox root = new VBox(topBar, canvasPane, bottomBar);
 
-        Scene scene = new Scene(root);
+        // ---------- Start Game ----------
+        screens.onShow(Screen.GAME, () -> {
+            nameLabel.setText("Player: " + playerName);
+            stage.setTitle("Playing as " + playerName);
+            initializeGame();
+            startGameLoop();
+        });
+        return root;
+    }
 
-        // ---------- Input Handling ----------
-        scene.setOnKeyPressed(evt -> {
-            KeyCode c = evt.getCode();
-            if (!gameOver) {
-                switch (c) {
-                    case W, UP -> {
-                        if (direction != Direction.DOWN) direction = Direction.UP;
-                    }
-                    case S, DOWN -> {
-                        if (direction != Direction.UP) direction = Direction.DOWN;
-                    }
-                    case A, LEFT -> {
-                        if (direction != Direction.RIGHT) direction = Direction.LEFT;
-                    }
-                    case D, RIGHT -> {
-                        if (direction != Direction.LEFT) direction = Direction.RIGHT;
-                    }
+    // ---------- Input Handling ----------
+    private void handleGameKey(KeyCode c) {
+        if (c == KeyCode.F3) {
+            showStats = !showStats;
+            gameView.setOverlay(showStats ? loopStats.summaryLines() : null);
+            return;
+        }
+        if (playback != null) {
+            // LEFT/RIGHT scrub through the recording, SPACE plays it again from the start
+            switch (c) {
+                case A, LEFT -> playback.seek(engine.tick() - REPLAY_SEEK_TICKS);
+                case D, RIGHT -> playback.seek(engine.tick() + REPLAY_SEEK_TICKS);
+                case SPACE -> spacePressed = true;
+                default -> {
                 }
-            } else if (c == KeyCode.SPACE) {
-                spacePressed = true;
             }
-        });
-
-        // ---------- Start Game ----------
-        stage.setTitle("Playing as " + playerName);
-        initializeGame();
-        startGameLoop();
-        return scene;
+            return;
+        }
+        if (!engine.isGameOver()) {
+            switch (c) {
+                case W, UP -> inputs.offer(Direction.UP, System.nanoTime());
+                case S, DOWN -> inputs.offer(Direction.DOWN, System.nanoTime());
+                case A, LEFT -> inputs.offer(Direction.LEFT, System.nanoTime());
+                case D, RIGHT -> inputs.offer(Direction.RIGHT, System.nanoTime());
+                default -> {
+                }
+            }
+        } else if (c == KeyCode.SPACE) {
+            spacePressed = true;
+        }
     }
 
+    /** Starts a game on the existing engine (or replay player); only the first game, or a new level, creates one. */
     private void initializeGame() {
-        snake = new SnakeLinkedList(WIDTH / 2, HEIGHT / 2);
-        direction = Direction.RIGHT;
-        score = 0;
-        gameOver = false;
-        spacePressed = false; // Reset spacePressed
-        generateFood();
-
-        hasBonusFood = false;
-        bonusFoodX = -1;
-        bonusFoodY = -1;
-        segmentsToAdd = 0;
-        lastBonusSpawnAttemptTime = System.nanoTime();
-        bonusFoodActiveStartTime = 0;
-    }
-
-    private void generateFood() {
-        do {
-            foodX = random.nextInt(WIDTH);
-            foodY = random.nextInt(HEIGHT);
-        } while (snake.checkCollision(foodX, foodY) || (hasBonusFood && foodX == bonusFoodX && foodY == bonusFoodY));
-    }
-
-    private void generateBonusFood() {
-        int newBonusX, newBonusY;
-        int attempts = 0;
-        do {
-            newBonusX = random.nextInt(WIDTH);
-            newBonusY = random.nextInt(HEIGHT);
-            attempts++;
-            if (attempts > WIDTH * HEIGHT * 2) {
-                return;
+        if (replayToPlay != null) {
+            if (playback == null) {
+                playback = new ReplayPlayer(replayToPlay);
+                playback.setListener(gameView);
+                engine = playback.engine();
+            } else {
+                playback.seek(0);
             }
-        } while (snake.checkCollision(newBonusX, newBonusY) ||
-                (newBonusX == foodX && newBonusY == foodY) ||
-                (hasBonusFood && newBonusX == bonusFoodX && newBonusY == bonusFoodY));
-
-        bonusFoodX = newBonusX;
-        bonusFoodY = newBonusY;
-        hasBonusFood = true;
-        bonusFoodActiveStartTime = System.nanoTime();
+        } else if (engine == null || engine.level() != level) {
+            engine = level == null
+                    ? new GameEngine(boardWidth, boardHeight, difficulty, System.nanoTime())
+                    : new GameEngine(level, difficulty, System.nanoTime());
+            recorder = new ReplayRecorder(engine);
+            GameListener listener = GameListener.both(gameView, recorder);
+            if (telemetry != null) {
+                telemetryRecorder = telemetry.recorder(engine, ++telemetrySessions);
+                listener = GameListener.both(listener, telemetryRecorder);
+            }
+            engine.setListener(listener);
+        } else {
+            engine.reset(difficulty);
+        }
+        gameView.setLevel(engine.level());
+        gameView.invalidate();
+        inputs.reset(engine.direction());
+        spacePressed = false; // Reset spacePressed
     }
 
     private void updateGame() {
         // Handle game over state and restart
-        if (gameOver) {
+        if (engine.isGameOver() || playback != null && playback.isFinished()) {
             if (spacePressed) {
                 initializeGame();
                 spacePressed = false;
@@ -480,138 +900,187 @@ private Scene startGameScene(Stage stage) {
             return;
         }
 
-        // All the game logic below this line will only execute if gameOver is false
-        if (score >= BONUS_SCORE_THRESHOLD && !hasBonusFood) {
-            if (System.nanoTime() - lastBonusSpawnAttemptTime >= BONUS_SPAWN_COOLDOWN) {
-                if (random.nextDouble() < 0.4) {
-                    generateBonusFood();
-                }
-                lastBonusSpawnAttemptTime = System.nanoTime();
+        StepResult result;
+        if (playback != null) {
+            result = playback.step();
+        } else {
+            // at most one queued turn per tick; the rest wait for the following ticks
+            Direction turn = inputs.poll();
+            result = engine.step(turn);
+            if (turn != null) loopStats.input(System.nanoTime() - inputs.polledAt());
+        }
+        switch (result) {
+            case ATE_FOOD, ATE_BONUS -> playSound(SoundEffects.Effect.EAT);
+            case HIT_WALL, HIT_SELF, BOARD_FULL -> gameOver();
+            default -> {
             }
         }
+    }
 
-        if (hasBonusFood && System.nanoTime() - bonusFoodActiveStartTime >= BONUS_LIFETIME) {
-            hasBonusFood = false;
-            bonusFoodX = -1;
-            bonusFoodY = -1;
+    private void gameOver() {
+        if (playback == null) {
+            // replays don't record the level, so one played back would run on an open board
+            saveScore(engine.level() == null ? recorder.toReplay() : null);
         }
+        // a won game ends on a bite, not on the losing jingle
+        playSound(engine.isVictory() ? SoundEffects.Effect.EAT : SoundEffects.Effect.GAME_OVER);
+    }
 
-        SnakeNode head = snake.getHead();
-        int nx = head.x + (direction == Direction.LEFT ? -1 : direction == Direction.RIGHT ? 1 : 0);
-        int ny = head.y + (direction == Direction.UP ? -1 : direction == Direction.DOWN ? 1 : 0);
-
-        if ("Hard".equals(difficulty) && (nx < 0 || nx >= WIDTH || ny < 0 || ny >= HEIGHT)) {
-            gameOver();
+    private void renderGame(double alpha) {
+        gameView.follow(engine.snake());
+        if (incrementalRender && !gameView.isFullRepaintNeeded()) {
+            gameView.renderChanges(engine.snake(), engine.direction(), engine.foodX(), engine.foodY(), difficulty,
+                    engine.bonusFoodX(), engine.bonusFoodY(), engine.hasBonusFood(),
+                    interpolate && !engine.isGameOver() ? alpha : -1);
+            updateScoreLabel();
             return;
         }
 
-        nx = (nx + WIDTH) % WIDTH;
-        ny = (ny + HEIGHT) % HEIGHT;
+        gameView.render(engine.snake(), engine.direction(), engine.foodX(), engine.foodY(), difficulty,
+                engine.bonusFoodX(), engine.bonusFoodY(), engine.hasBonusFood());
 
-        if (snake.checkCollision(nx, ny)) {
-            gameOver();
-            return;
+        if (engine.isGameOver()) {
+            double cx = gc.getCanvas().getWidth() / 2, cy = gc.getCanvas().getHeight() / 2;
+            gc.setFont(OVERLAY_TITLE_FONT);
+            gc.setFill(engine.isVictory() ? Color.GOLD : Color.RED);
+            gc.fillText(engine.isVictory() ? "You Win!" : "Game Over!", cx - 120, cy);
+            gc.setFont(OVERLAY_HINT_FONT);
+            gc.setFill(Color.WHITE);
+            gc.fillText("Press SPACE to Restart", cx - 140, cy + 40);
         }
 
-        snake.addFirst(nx, ny);
+        updateScoreLabel();
+    }
 
-        if (nx == foodX && ny == foodY) {
-            score++;
-            generateFood();
-            if (eatSound != null) {
-                eatSound.stop();
-                eatSound.play();
-            }
-        } else if (hasBonusFood && nx == bonusFoodX && ny == bonusFoodY) {
-            score += 5;
-            segmentsToAdd = random.nextInt(2) + 2;
-            hasBonusFood = false;
-            bonusFoodX = -1;
-            bonusFoodY = -1;
-
-            if (eatSound != null) {
-                eatSound.stop();
-                eatSound.play();
-            }
-        } else if (segmentsToAdd > 0) {
-            segmentsToAdd--;
-        } else {
-            snake.removeLast();
+    private void updateScoreLabel() {
+        if (scoreLabel != null && shownScore != engine.score()) {
+            shownScore = engine.score();
+            scoreLabel.setText("Score: " + shownScore);
         }
     }
 
-    private void gameOver() {
-        gameOver = true;
-        saveScore();
-
-        if (gameOverSound != null) {
-            gameOverSound.stop();
-            gameOverSound.play();
+    /**
+     * (Re)starts the one loop timer for the game about to be played. The
+     * timing stats are kept per difficulty and cleared for each visit to the
+     * game screen; only the small fixed-step clock is new.
+     */
+    private void startGameLoop() {
+        // ticks run at the exact difficulty rate; frames render at the display rate in between
+        long tickNanos = difficulty.tickNanos();
+        if (replayToPlay != null) {
+            tickNanos = Math.max(1, (long) (tickNanos / readReplaySpeed()));
+        }
+        clock = new FixedTimestep(tickNanos, MAX_CATCH_UP_TICKS);
+        long statsTickNanos = tickNanos;
+        loopStats = loopStatsByDifficulty.computeIfAbsent(difficulty, d -> new LoopStats(statsTickNanos));
+        loopStats.reset();
+        lastOverlay = 0;
+        lastDump = System.nanoTime();
+        if (gameLoopTimer == null) {
+            gameLoopTimer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    runFrame(now);
+                }
+            };
         }
+        gameLoopTimer.start();
     }
 
-    private void renderGame() {
-        for (int y = 0; y < HEIGHT; y++) {
-            for (int x = 0; x < WIDTH; x++) {
-                grid[y][x] = '.';
-            }
+    private void runFrame(long now) {
+        LoopStats stats = loopStats;
+        stats.frame(now);
+        for (int ticks = clock.advance(now); ticks > 0; ticks--) {
+            boolean stepping = !engine.isGameOver() && playback == null;
+            long t0 = System.nanoTime();
+            updateGame();
+            long took = System.nanoTime() - t0;
+            stats.update(took);
+            if (stepping && telemetryRecorder != null) telemetryRecorder.tickTook(took);
+            stats.tick(now);
         }
+        stats.droppedTicks(clock.droppedTicks());
 
-        snake.markOnGrid(grid);
-        gameView.render(grid, foodX, foodY, difficulty, bonusFoodX, bonusFoodY, hasBonusFood);
+        if (showStats && now - lastOverlay >= OVERLAY_REFRESH_NANOS) {
+            gameView.setOverlay(stats.summaryLines());
+            lastOverlay = now;
+        }
+        long t1 = System.nanoTime();
+        renderGame(clock.alpha());
+        stats.render(System.nanoTime() - t1);
 
-        if (gameOver) {
-            gc.setFont(Font.font("Consolas", FontWeight.EXTRA_BOLD, 36));
-            gc.setFill(Color.RED);
-            gc.fillText("Game Over!", WIDTH * CELL_SIZE / 2.0 - 120, HEIGHT * CELL_SIZE / 2.0);
-            gc.setFont(Font.font("Arial", FontWeight.BOLD, 20));
-            gc.setFill(Color.WHITE);
-            gc.fillText("Press SPACE to Restart", WIDTH * CELL_SIZE / 2.0 - 140, HEIGHT * CELL_SIZE / 2.0 + 40);
+        if (statsLog != null && now - lastDump >= statsDumpIntervalNanos) {
+            statsLog.append(stats.toLogLine(System.currentTimeMillis(), difficulty.displayName()));
+            lastDump = now;
         }
+    }
 
-        if (scoreLabel != null) {
-            scoreLabel.setText("Score: " + score);
+    private PlayerRegistry.SignUp savePlayerData(String code, String name) {
+        PlayerRegistry players = AssetPreloader.get(playersLoad);
+        if (players == null) return PlayerRegistry.SignUp.INVALID;
+        try {
+            return players.register(code, name);
+        } catch (IllegalStateException e) {
+            System.err.println("Error saving player: " + e.getMessage());
+            return PlayerRegistry.SignUp.INVALID;
         }
     }
 
-    private void startGameLoop() {
-        long[] last = {0};
-        gameLoopTimer = new AnimationTimer() { // Assign to the instance variable
-            @Override
-            public void handle(long now) {
-                if (now - last[0] >= speed) {
-                    updateGame();
-                    renderGame();
-                    last[0] = now;
+    /**
+     * Appends the finished game to the score store on the writer thread, then
+     * saves {@code replay} (if any) under the new record's index, for
+     * {@link com.example.snakegame.core.replay.ScoreVerifier}, and records the
+     * game on the leaderboard back on the FX thread.
+     */
+    private void saveScore(Replay replay) {
+        String code = playerCode, name = playerName;
+        DifficultyLevel level = difficulty;
+        int score = engine.score(), length = engine.snake().length();
+        long finishedAt = System.currentTimeMillis(), durationMillis = engine.tick() * level.tickNanos() / 1_000_000;
+        scoreWriter.execute(() -> {
+            // the leaderboard first: until it is built it is still scanning the store
+            Leaderboard leaderboard = AssetPreloader.get(leaderboardLoad);
+            ScoreStore scores = AssetPreloader.get(scoresLoad);
+            if (scores != null) {
+                try {
+                    long record = scores.append(code, name, finishedAt, level, score, length, durationMillis);
+                    if (replay != null) saveReplay(replay, record, code);
+                } catch (IOException | IllegalStateException e) {
+                    System.err.println("Error saving score: " + e.getMessage());
                 }
             }
-        };
-        gameLoopTimer.start();
-    }
-
-    private void savePlayerData(String code, String name) {
-        safeWrite("players.txt", code + "," + name + "\n");
+            if (leaderboard != null) Platform.runLater(() -> leaderboard.record(name, code, score, level));
+        });
     }
 
-    private void saveScore() {
-        safeWrite("scores.txt", playerName + " (" + playerCode + "): " + score + "\n");
+    /** Writes a finished game's replay as {@code <record>.<code>.snkr}; on the score writer thread. */
+    private void saveReplay(Replay replay, long record, String code) {
+        Path file = replayDir.resolve(record + "." + fileSafe(code) + ".snkr");
+        try {
+            Files.createDirectories(replayDir);
+            replay.save(file);
+        } catch (IOException e) {
+            System.err.println("Error saving replay " + file + ": " + e.getMessage());
+        }
     }
 
-    private void safeWrite(String file, String text) {
-        try (FileWriter fw = new FileWriter(file, true)) {
-            fw.write(text);
-        } catch (IOException ignored) {
+    /**
+     * {@code text} with anything but ASCII letters, digits, {@code _} and
+     * {@code -} replaced by {@code _}, so a login code can't leave the replay
+     * directory or hold characters some file systems refuse.
+     */
+    private static String fileSafe(String text) {
+        StringBuilder safe = new StringBuilder(Math.min(text.length(), 32));
+        for (int i = 0; i < text.length() && safe.length() < 32; i++) {
+            char c = text.charAt(i);
+            boolean ok = c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_' || c == '-';
+            safe.append(ok ? c : '_');
         }
+        return safe.isEmpty() ? "_" : safe.toString();
     }
 
     private boolean verifyPlayerData(String code, String name) {
-        try (Scanner sc = new Scanner(new File("players.txt"))) {
-            while (sc.hasNextLine()) {
-                String[] parts = sc.nextLine().split(",");
-                if (parts.length == 2 && parts[0].equals(code) && parts[1].equalsIgnoreCase(name)) return true;
-            }
-        } catch (IOException ignored) {
-        }
-        return false;
+        PlayerRegistry players = AssetPreloader.get(playersLoad);
+        return players != null && players.verify(code, name);
     }
 }
\ No newline at end of file
@@ -0,0 +1,87 @@
+package com.example.snakegame;
+
+import javafx.scene.media.AudioClip;
+
+import java.io.FileNotFoundException;
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Short in-game sounds as fully decoded {@link AudioClip}s. Each effect gets a
+ * few voices that are used in turn, so a second bite while the first chomp is
+ * still playing overlaps it instead of cutting it off, and a trigger never
+ * waits for a media pipeline to start.
+ * <p>
+ * Decoding happens on the {@link AssetPreloader}'s threads; an effect
+ * triggered before its clips are ready is simply not heard. Trigger from the
+ * FX thread only.
+ */
+final class SoundEffects {
+
+    enum Effect {
+        EAT("/Chomp.wav"),
+        GAME_OVER("/game-over-arcade-6435.mp3");
+
+        private final String resource;
+
+        Effect(String resource) {
+            this.resource = resource;
+        }
+    }
+
+    // enough for a bite every tick on Hard while the earlier chomps are still audible
+    private static final int VOICES = 4;
+
+    // filled in by the preloader threads, read by the FX thread
+    private final AtomicReferenceArray<AudioClip[]> voices = new AtomicReferenceArray<>(Effect.values().length);
+    private final int[] next = new int[Effect.values().length];
+
+    private SoundEffects() {
+    }
+
+    /** Queues every effect on {@code assets}, one load each, and returns at once. */
+    static SoundEffects loadAsync(AssetPreloader assets) {
+        SoundEffects sounds = new SoundEffects();
+        for (Effect effect : Effect.values()) {
+            assets.submit(effect.resource.substring(1), () -> sounds.load(effect));
+        }
+        return sounds;
+    }
+
+    private AudioClip[] load(Effect effect) throws FileNotFoundException {
+        URL url = SoundEffects.class.getResource(effect.resource);
+        if (url == null) throw new FileNotFoundException(effect.resource + " not found");
+        AudioClip[] pool = new AudioClip[VOICES];
+        for (int i = 0; i < VOICES; i++) {
+            pool[i] = new AudioClip(url.toExternalForm());
+        }
+        voices.set(effect.ordinal(), pool);
+        return pool;
+    }
+
+    /**
+     * Plays {@code effect} on its least recently used voice, stopping that
+     * voice first if it is somehow still going. Returns how long the call took,
+     * i.e. the delay between the trigger and the clip being handed to the
+     * mixer, or -1 if the effect isn't loaded.
+     */
+    long play(Effect effect) {
+        long start = System.nanoTime();
+        AudioClip[] pool = voices.get(effect.ordinal());
+        if (pool == null) return -1;
+        int i = next[effect.ordinal()];
+        next[effect.ordinal()] = (i + 1) % pool.length;
+        AudioClip voice = pool[i];
+        if (voice.isPlaying()) voice.stop();
+        voice.play();
+        return System.nanoTime() - start;
+    }
+
+    void stopAll() {
+        for (int e = 0; e < voices.length(); e++) {
+            AudioClip[] pool = voices.get(e);
+            if (pool == null) continue;
+            for (AudioClip voice : pool) voice.stop();
+        }
+    }
+}
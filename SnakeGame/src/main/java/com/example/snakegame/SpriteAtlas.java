@@ -0,0 +1,215 @@
+package com.example.snakegame;
+
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.Level;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+/**
+ * Every sprite the board needs, rasterized once for one cell size into a
+ * single image strip: the head in the four directions, a body segment, the
+ * food, the bonus gem and a wall block. Drawing a sprite is then one {@code drawImage} blit.
+ * Must be created on the FX thread.
+ */
+final class SpriteAtlas {
+    static final Color GRASS_A = Color.web("#1e272e");
+    static final Color GRASS_B = Color.web("#2f3640");
+    static final Color SNAKE = Color.GREEN;
+    static final Color BORDER = Color.rgb(173, 7, 7);
+    static final Color WALL = Color.web("#8c6d46");
+    static final Color WALL_EDGE = Color.web("#5a4328");
+
+    private static final int HEAD = 0;                  // 4 tiles, Direction order
+    private static final int BODY = 4, FOOD = 5, BONUS = 6, WALL_TILE = 7, TILE_COUNT = 8;
+    // largest level background we rasterize in one piece; bigger levels blit wall tiles per cell instead
+    static final int MAX_BACKGROUND_SIDE = 8192;
+
+    private final int cellSize;
+    private final Image atlas;
+
+    SpriteAtlas(int cellSize) {
+        this.cellSize = cellSize;
+        Canvas canvas = new Canvas(TILE_COUNT * cellSize, cellSize);
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        for (Direction d : Direction.values()) {
+            drawHeadTile(g, HEAD + d.ordinal(), d);
+        }
+        drawBodyTile(g);
+        drawFoodTile(g);
+        drawBonusTile(g);
+        paintWall(g, WALL_TILE * cellSize, 0, cellSize);
+
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        this.atlas = canvas.snapshot(params, null);
+    }
+
+    void drawHead(GraphicsContext gc, Direction facing, int x, int y) {
+        blit(gc, HEAD + facing.ordinal(), x, y);
+    }
+
+    void drawBody(GraphicsContext gc, int x, int y) {
+        blit(gc, BODY, x, y);
+    }
+
+    void drawFood(GraphicsContext gc, int x, int y) {
+        blit(gc, FOOD, x, y);
+    }
+
+    void drawBonus(GraphicsContext gc, int x, int y) {
+        blit(gc, BONUS, x, y);
+    }
+
+    void drawWall(GraphicsContext gc, int x, int y) {
+        blit(gc, WALL_TILE, x, y);
+    }
+
+    /** Draws the head at a pixel position, for sprites caught between two cells. */
+    void drawHeadAt(GraphicsContext gc, Direction facing, double px, double py) {
+        blitAt(gc, HEAD + facing.ordinal(), px, py);
+    }
+
+    void drawBodyAt(GraphicsContext gc, double px, double py) {
+        blitAt(gc, BODY, px, py);
+    }
+
+    private void blit(GraphicsContext gc, int tile, int x, int y) {
+        blitAt(gc, tile, x * cellSize, y * cellSize);
+    }
+
+    private void blitAt(GraphicsContext gc, int tile, double px, double py) {
+        gc.drawImage(atlas, tile * cellSize, 0, cellSize, cellSize,
+                px, py, cellSize, cellSize);
+    }
+
+    /**
+     * Pre-renders the checkerboard. Dirty cells are restored by blitting their
+     * rectangle from it.
+     */
+    static Image background(int cols, int rows, int cellSize) {
+        Canvas canvas = new Canvas(cols * cellSize, rows * cellSize);
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                g.setFill((x + y) % 2 == 0 ? GRASS_A : GRASS_B);
+                g.fillRect(x * cellSize, y * cellSize, cellSize, cellSize);
+            }
+        }
+        return canvas.snapshot(null, null);
+    }
+
+    /**
+     * Pre-renders a whole level: the checkerboard with its walls on it, board
+     * cell (x, y) at pixel (x, y) times the cell size. Null when the level is
+     * too big for one image.
+     */
+    static Image background(Level level, int cellSize) {
+        int w = level.width(), h = level.height();
+        if ((long) w * cellSize > MAX_BACKGROUND_SIDE || (long) h * cellSize > MAX_BACKGROUND_SIDE) return null;
+        Canvas canvas = new Canvas(w * cellSize, h * cellSize);
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                if (level.isWall(x, y)) {
+                    paintWall(g, x * cellSize, y * cellSize, cellSize);
+                } else {
+                    g.setFill((x + y) % 2 == 0 ? GRASS_A : GRASS_B);
+                    g.fillRect(x * cellSize, y * cellSize, cellSize, cellSize);
+                }
+            }
+        }
+        return canvas.snapshot(null, null);
+    }
+
+    /* ----------  tile painters (run once per cell size)  ---------- */
+
+    /**
+     * The head is painted facing down (eyes up top, tongue at the bottom) and
+     * rotated for the other directions. The tongue stops at the tile edge so
+     * the sprite never spills into the next cell.
+     */
+    private void drawHeadTile(GraphicsContext g, int tile, Direction facing) {
+        double angle = switch (facing) {
+            case DOWN -> 0;
+            case LEFT -> 90;
+            case UP -> 180;
+            case RIGHT -> 270;
+        };
+        double cs = cellSize;
+        g.save();
+        g.translate(tile * cs + cs / 2, cs / 2);
+        g.rotate(angle);
+
+        g.setFill(SNAKE);
+        g.fillOval(-cs / 2, -cs / 2, cs, cs);
+
+        double eyeR   = cs * 0.10;
+        double eyeOff = cs * 0.22;
+        g.setFill(Color.WHITE);
+        g.fillOval(-eyeOff - eyeR, -eyeOff - eyeR, eyeR * 2, eyeR * 2); // left eye white
+        g.fillOval(eyeOff - eyeR, -eyeOff - eyeR, eyeR * 2, eyeR * 2);  // right eye white
+
+        g.setFill(Color.BLACK);
+        double pupilR = eyeR * 0.5;
+        g.fillOval(-eyeOff - pupilR, -eyeOff - pupilR, pupilR * 2, pupilR * 2);
+        g.fillOval(eyeOff - pupilR, -eyeOff - pupilR, pupilR * 2, pupilR * 2);
+
+        // tongue (small red triangle)
+        g.setFill(Color.RED);
+        g.fillPolygon(
+                new double[]{0,         -cs * 0.05, cs * 0.05},
+                new double[]{cs * 0.30, cs * 0.50,  cs * 0.50},
+                3
+        );
+        g.restore();
+    }
+
+    /** A sandstone block with a darker rim, filling the whole cell. */
+    private static void paintWall(GraphicsContext g, double px, double py, double cs) {
+        double rim = Math.max(1, cs / 10.0);
+        g.setFill(WALL_EDGE);
+        g.fillRect(px, py, cs, cs);
+        g.setFill(WALL);
+        g.fillRect(px + rim, py + rim, cs - 2 * rim, cs - 2 * rim);
+    }
+
+    private void drawBodyTile(GraphicsContext g) {
+        double segSize   = cellSize * 0.9;         // body diameter
+        double segOffset = (cellSize - segSize) / 2;
+        g.setFill(SNAKE);
+        g.fillOval(BODY * cellSize + segOffset, segOffset, segSize, segSize);
+    }
+
+    private void drawFoodTile(GraphicsContext g) {
+        double foodSize   = cellSize * 0.8;
+        double foodOffset = (cellSize - foodSize) / 2;
+        g.setFill(Color.RED);
+        g.fillOval(FOOD * cellSize + foodOffset, foodOffset, foodSize, foodSize);
+    }
+
+    /** A faceted blue gem, drawn as polygons so it looks the same without an emoji font. */
+    private void drawBonusTile(GraphicsContext g) {
+        double cs = cellSize, x0 = BONUS * cs;
+        double top = cs * 0.20, girdle = cs * 0.40, bottom = cs * 0.85;
+        double left = x0 + cs * 0.12, right = x0 + cs * 0.88, mid = x0 + cs / 2;
+
+        g.setFill(Color.DEEPSKYBLUE);
+        g.fillPolygon(
+                new double[]{x0 + cs * 0.30, x0 + cs * 0.70, right, mid, left},
+                new double[]{top, top, girdle, bottom, girdle},
+                5
+        );
+        g.setFill(Color.LIGHTCYAN);
+        g.fillPolygon(
+                new double[]{x0 + cs * 0.30, x0 + cs * 0.70, mid},
+                new double[]{top, top, girdle},
+                3
+        );
+        g.setStroke(Color.WHITE);
+        g.setLineWidth(Math.max(1, cs / 30.0));
+        g.strokeLine(left, girdle, right, girdle);
+    }
+}
@@ -1,7 +1,8 @@
 module com.example.snakegame {
-    requires javafx.controls;
+    requires transitive javafx.controls;
     requires javafx.fxml;
     requires javafx.media;
+    requires transitive com.example.snakegame.core;
 
     opens com.example.snakegame to javafx.fxml;
     exports com.example.snakegame;
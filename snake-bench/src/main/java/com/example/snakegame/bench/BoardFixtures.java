@@ -0,0 +1,42 @@
+package com.example.snakegame.bench;
+
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.SnakeBody;
+import com.example.snakegame.core.bot.HamiltonianCycle;
+
+/**
+ * Board set-ups shared by the benchmarks. Snakes are laid along a
+ * Hamiltonian cycle of the board, so a benchmark can keep moving them along
+ * the cycle forever without a collision, at any length up to a full board.
+ */
+public final class BoardFixtures {
+    private BoardFixtures() {
+    }
+
+    /** Packed cells of the board's {@link HamiltonianCycle}, in path order. */
+    public static int[] cycle(int width, int height) {
+        return new HamiltonianCycle(width, height).order();
+    }
+
+    /** For every cell, the direction that leads to the next cell of {@code cycle}. */
+    public static Direction[] cycleDirections(int[] cycle, int width) {
+        Direction[] next = new Direction[cycle.length];
+        for (int i = 0; i < cycle.length; i++) {
+            int from = cycle[i], to = cycle[(i + 1) % cycle.length];
+            int dx = to % width - from % width, dy = to / width - from / width;
+            for (Direction d : Direction.values()) {
+                if (d.dx == dx && d.dy == dy) next[from] = d;
+            }
+        }
+        return next;
+    }
+
+    /** A body of {@code length} segments whose head sits on {@code cycle[length - 1]}. */
+    public static SnakeBody bodyAlong(int[] cycle, int width, int height, int length) {
+        SnakeBody body = new SnakeBody(width, height, cycle[0] % width, cycle[0] / width);
+        for (int i = 1; i < length; i++) {
+            body.addFirst(cycle[i] % width, cycle[i] / width);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.snakegame.bench;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.StepResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full game tick (the old {@code updateGame()}): bonus timers, movement,
+ * collision, eating and respawning. The snake follows a Hamiltonian cycle so
+ * it grows all the way to a full board; a finished game is reset in place.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameEngineBenchmark {
+
+    @Param({"EASY", "MEDIUM", "HARD"})
+    public DifficultyLevel difficulty;
+
+    private GameEngine engine;
+    private Direction[] route;
+
+    @Setup
+    public void setUp() {
+        engine = new GameEngine(difficulty, 42);
+        route = BoardFixtures.cycleDirections(
+                BoardFixtures.cycle(engine.width(), engine.height()), engine.width());
+    }
+
+    @Benchmark
+    public StepResult step() {
+        StepResult result = engine.step(route[engine.snake().headCell()]);
+        if (result.endsGame()) {
+            engine.reset();
+        }
+        return result;
+    }
+}
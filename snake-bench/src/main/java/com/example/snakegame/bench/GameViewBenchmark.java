@@ -0,0 +1,124 @@
+package com.example.snakegame.bench;
+
+import com.example.snakegame.GameView;
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.bot.Strategy;
+import com.example.snakegame.core.bot.StrategyType;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frame cost of {@link GameView} drawing into an offscreen canvas. The canvas
+ * is never attached to a scene, so its GraphicsContext only records the draw
+ * commands; that is exactly the per-frame work the FX thread does before the
+ * pulse hands the buffer to the renderer. The board parameter checks that a
+ * frame on a 2000x2000 endurance board costs the same as on the default one.
+ * <p>
+ * Needs a JavaFX toolkit, so run it on a machine with a display (or under xvfb).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameViewBenchmark {
+    private static final int CELL_SIZE = 30;
+    // an unattached canvas keeps every recorded command; clearing it periodically drops the buffer
+    private static final int FRAMES_PER_CLEAR = 1024;
+    private static final int VIEW_COLS = GameEngine.DEFAULT_WIDTH, VIEW_ROWS = GameEngine.DEFAULT_HEIGHT;
+
+    @Param({"EASY", "HARD"})
+    public DifficultyLevel difficulty;
+
+    @Param({"30x18", "2000x2000"})
+    public String board;
+
+    private GameEngine engine;
+    private Strategy bot;
+    private GameView view;
+    private GraphicsContext gc;
+    private int frames;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException alreadyRunning) {
+            started.countDown();
+        }
+        started.await();
+
+        String[] size = board.split("x");
+        engine = new GameEngine(Integer.parseInt(size[0]), Integer.parseInt(size[1]), difficulty, 42);
+        // the cycle never dies but needs ~area/2 ticks per food; on a huge board head for the food instead
+        boolean fits = engine.width() <= VIEW_COLS && engine.height() <= VIEW_ROWS;
+        bot = (fits ? StrategyType.HAMILTONIAN : StrategyType.GREEDY).create(engine.width(), engine.height());
+
+        // the sprite atlas is rasterized with snapshot(), which must run on the FX thread
+        CountDownLatch built = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            Canvas canvas = new Canvas(Math.min(VIEW_COLS, engine.width()) * CELL_SIZE,
+                    Math.min(VIEW_ROWS, engine.height()) * CELL_SIZE);
+            gc = canvas.getGraphicsContext2D();
+            view = new GameView(gc, CELL_SIZE);
+            built.countDown();
+        });
+        built.await();
+        engine.setListener(view);
+
+        // grow the snake to about half a screen so the full repaint has real work
+        while (engine.snake().length() < VIEW_COLS * VIEW_ROWS / 2) {
+            tick();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Platform.exit();
+    }
+
+    private void tick() {
+        if (engine.step(bot.nextMove(engine)).endsGame()) {
+            engine.reset();
+        }
+    }
+
+    private void recycleBuffer() {
+        if (++frames % FRAMES_PER_CLEAR == 0) {
+            gc.clearRect(0, 0, gc.getCanvas().getWidth(), gc.getCanvas().getHeight());
+            view.invalidate();
+        }
+    }
+
+    /** The fallback path: repaint every cell of the viewport. */
+    @Benchmark
+    public void fullRepaint() {
+        tick();
+        view.follow(engine.snake());
+        view.render(engine.snake(), engine.direction(), engine.foodX(), engine.foodY(), difficulty,
+                engine.bonusFoodX(), engine.bonusFoodY(), engine.hasBonusFood());
+        recycleBuffer();
+    }
+
+    /** One tick plus an incremental frame with the sliding head and tail. */
+    @Benchmark
+    public void incrementalFrame() {
+        tick();
+        view.follow(engine.snake());
+        if (view.isFullRepaintNeeded()) {
+            view.render(engine.snake(), engine.direction(), engine.foodX(), engine.foodY(), difficulty,
+                    engine.bonusFoodX(), engine.bonusFoodY(), engine.hasBonusFood());
+        }
+        view.renderChanges(engine.snake(), engine.direction(), engine.foodX(), engine.foodY(), difficulty,
+                engine.bonusFoodX(), engine.bonusFoodY(), engine.hasBonusFood(), 0.5);
+        recycleBuffer();
+    }
+}
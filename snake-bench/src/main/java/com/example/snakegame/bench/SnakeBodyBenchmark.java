@@ -0,0 +1,71 @@
+package com.example.snakegame.bench;
+
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.SnakeBody;
+import com.example.snakegame.core.SnakeView;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick body operations at lengths from a single segment to a full
+ * 30x18 board. All of them should stay flat as the snake grows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnakeBodyBenchmark {
+    private static final int W = GameEngine.DEFAULT_WIDTH, H = GameEngine.DEFAULT_HEIGHT;
+
+    @Param({"1", "30", "135", "270", "540"})
+    public int length;
+
+    private int[] cycle;
+    private SnakeBody body;
+    private int next;          // cycle index the head moves to next
+
+    @Setup
+    public void setUp() {
+        cycle = BoardFixtures.cycle(W, H);
+        body = BoardFixtures.bodyAlong(cycle, W, H, length);
+        next = length % cycle.length;
+    }
+
+    /** One plain move: pop the tail, push the new head. */
+    @Benchmark
+    public int removeLastAddFirst() {
+        int tail = body.removeLast();
+        int cell = cycle[next];
+        next = next + 1 == cycle.length ? 0 : next + 1;
+        body.addFirst(cell % W, cell / W);
+        return tail;
+    }
+
+    /** Collision probe on the cell the tail occupies, the worst case for a list walk. */
+    @Benchmark
+    public boolean checkCollisionTail() {
+        int tail = body.tailCell();
+        return body.checkCollision(tail % W, tail / W);
+    }
+
+    /** Collision probe on a free cell (or the tail on a full board). */
+    @Benchmark
+    public boolean checkCollisionMiss() {
+        int cell = cycle[next];
+        return body.checkCollision(cell % W, cell / W);
+    }
+
+    /** Walks the segments head to tail through the read-only view, as a renderer would. */
+    @Benchmark
+    public int walkSegments() {
+        SnakeView view = body;
+        int sum = 0;
+        for (int i = 0, n = view.length(); i < n; i++) {
+            sum += view.cellAt(i);
+        }
+        return sum;
+    }
+}
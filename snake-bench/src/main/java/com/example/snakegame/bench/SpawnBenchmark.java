@@ -0,0 +1,63 @@
+package com.example.snakegame.bench;
+
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.SnakeBody;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Food and bonus placement at different board fill ratios, through
+ * {@link SnakeBody#pickFree}. The engine draws from its own SplitMix64
+ * generator; {@link SplittableRandom} is the same algorithm behind the public
+ * API. The old rejection loop is kept here as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpawnBenchmark {
+    private static final int W = GameEngine.DEFAULT_WIDTH, H = GameEngine.DEFAULT_HEIGHT;
+
+    @Param({"0.0", "0.25", "0.5", "0.9", "0.99"})
+    public double fill;
+
+    private SnakeBody body;
+    private SplittableRandom random;
+    private int food, bonus;
+
+    @Setup
+    public void setUp() {
+        int length = Math.max(1, (int) (fill * W * H));
+        body = BoardFixtures.bodyAlong(BoardFixtures.cycle(W, H), W, H, length);
+        random = new SplittableRandom(42);
+        food = body.pickFree(random, -1, -1);
+        bonus = body.pickFree(random, food, -1);
+    }
+
+    /** What generateFood() does: one pick that skips the bonus cell. */
+    @Benchmark
+    public int generateFood() {
+        return body.pickFree(random, bonus, -1);
+    }
+
+    /** What generateBonusFood() does: one pick that skips the food cell. */
+    @Benchmark
+    public int generateBonusFood() {
+        return body.pickFree(random, food, -1);
+    }
+
+    /** The pre-index generateFood(): draw random cells until one is free. */
+    @Benchmark
+    public int rejectionLoopBaseline() {
+        int x, y;
+        do {
+            x = random.nextInt(W);
+            y = random.nextInt(H);
+        } while (body.checkCollision(x, y) || y * W + x == bonus);
+        return y * W + x;
+    }
+}
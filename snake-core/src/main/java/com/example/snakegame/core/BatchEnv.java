@@ -0,0 +1,484 @@
+package com.example.snakegame.core;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Many independent games stepped together, for training move-selection
+ * models. Board {@code i} plays exactly the game {@code new GameEngine(width,
+ * height, difficulty, firstSeed + i)} would given the same moves, and a board
+ * whose game ends starts its next one at once, as {@link GameEngine#reset()}
+ * does, continuing its random stream.
+ * <p>
+ * All state lives in flat primitive arrays indexed by board (struct of
+ * arrays): the snake of board {@code i} is a ring of packed cells at
+ * {@code i * ringSize} in one int[], its occupied cells a bitboard at
+ * {@code i * words} in one long[], and head, length, food, score and so on
+ * one int or long per board. {@link #step} allocates nothing. With more
+ * than one thread the boards are cut into fixed slices, one per worker
+ * thread plus one for the caller, started and joined with park/unpark.
+ * <p>
+ * Moves are {@link Direction} ordinals; any other value keeps the current
+ * direction, like {@code step(null)}. Observations are {@link #OBS_FIELDS}
+ * ints per board, written into a buffer the caller reuses. {@link #RESULT}
+ * and {@link #SCORE} describe the step just played (the final score when the
+ * result ends the game); the other fields describe the board as the next
+ * move will find it, i.e. the new game after an automatic reset.
+ * <p>
+ * Not thread-safe: one thread calls {@link #step}; {@link #close()} stops the
+ * workers. If a worker throws, that step rethrows it and the env is dead:
+ * its slice was left half-stepped, so every later step is refused.
+ * <p>
+ * Run from the command line for a throughput figure:
+ * {@code java -cp snake-core.jar com.example.snakegame.core.BatchEnv [boards] [threads] [seconds]}
+ */
+public final class BatchEnv implements AutoCloseable {
+    /** {@link StepResult} ordinal of the step; -1 from {@link #observe}. */
+    public static final int RESULT = 0;
+    public static final int SCORE = 1;
+    /** Packed cell {@code y * width + x}. */
+    public static final int HEAD = 2;
+    public static final int FOOD = 3;
+    /** Packed cell of the bonus food, or -1. */
+    public static final int BONUS = 4;
+    /** {@link Direction} ordinal. */
+    public static final int DIRECTION = 5;
+    public static final int LENGTH = 6;
+    /** Ticks played in the current game. */
+    public static final int TICK = 7;
+    public static final int OBS_FIELDS = 8;
+
+    // Direction ordinals: UP, DOWN, LEFT, RIGHT; the opposite of d is d ^ 1
+    private static final int[] DX = {0, 0, -1, 1};
+    private static final int[] DY = {-1, 1, 0, 0};
+    private static final int RIGHT = Direction.RIGHT.ordinal();
+    private static final StepResult[] RESULTS = StepResult.values();
+
+    // slices start on multiples of this many boards, so workers don't share cache lines of the int arrays
+    private static final int SLICE_ALIGN = 16;
+    private static final int SPINS = 1 << 10;
+
+    private final int boards, width, height, cells, words, ringMask;
+    private final long tickNanos;
+    private final boolean wallsKill;
+
+    private final int[] ring;
+    private final long[] occupied;
+    // per board, a Fenwick tree of occupied counts per Occupancy page; null when a board fits in one page
+    private final int pages;
+    private final int[] pageTaken;
+    private final int[] head;          // ring index of the head
+    private final int[] length;
+    private final byte[] direction;
+    private final int[] food;
+    private final int[] bonus;
+    private final int[] score;
+    private final int[] segmentsToAdd;
+    private final long[] tick;
+    private final long[] lastBonusSpawnAttempt;
+    private final long[] bonusStart;
+    private final long[] rng;
+    private final long[] seed;
+
+    // slice s is boards [bounds[s], bounds[s + 1]); slice 0 runs on the caller
+    private final int[] bounds;
+    private final int[] ended;
+    private final Worker[] workers;
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile int generation;
+    private volatile boolean closed;
+    private volatile Thread caller;
+    private volatile Throwable failure;     // set once by a failed worker; never cleared
+    // written by the caller before the volatile generation bump, read by the workers after it
+    private int[] actions;
+    private int[] obs;
+
+    public BatchEnv(int boards, int width, int height, DifficultyLevel difficulty, long firstSeed, int threads) {
+        if (width < 2 || height < 2 || width > GameEngine.MAX_SIDE || height > GameEngine.MAX_SIDE) {
+            throw new IllegalArgumentException("Board must be between 2x2 and " + GameEngine.MAX_SIDE + "x"
+                    + GameEngine.MAX_SIDE + ": " + width + "x" + height);
+        }
+        if (boards < 1 || threads < 1) {
+            throw new IllegalArgumentException("Need at least one board and one thread");
+        }
+        this.boards = boards;
+        this.width = width;
+        this.height = height;
+        this.cells = width * height;
+        this.words = (cells + 63) >>> 6;
+        int ringSize = Integer.highestOneBit(cells - 1) << 1;
+        this.ringMask = ringSize - 1;
+        this.tickNanos = difficulty.tickNanos();
+        this.wallsKill = difficulty.wallsKill();
+        if ((long) boards * ringSize > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException(boards + " boards of " + width + "x" + height + " don't fit in one array");
+        }
+
+        ring = new int[boards * ringSize];
+        occupied = new long[boards * words];
+        pages = (cells + Occupancy.PAGE_CELLS - 1) >>> Occupancy.PAGE_BITS;
+        pageTaken = pages > 1 ? new int[boards * (pages + 1)] : null;
+        head = new int[boards];
+        length = new int[boards];
+        direction = new byte[boards];
+        food = new int[boards];
+        bonus = new int[boards];
+        score = new int[boards];
+        segmentsToAdd = new int[boards];
+        tick = new long[boards];
+        lastBonusSpawnAttempt = new long[boards];
+        bonusStart = new long[boards];
+        rng = new long[boards];
+        seed = new long[boards];
+        for (int i = 0; i < boards; i++) {
+            rng[i] = firstSeed + i;
+            reset(i);
+        }
+
+        int slices = Math.max(1, Math.min(threads, (boards + SLICE_ALIGN - 1) / SLICE_ALIGN));
+        bounds = new int[slices + 1];
+        for (int s = 1; s < slices; s++) {
+            bounds[s] = (int) ((long) boards * s / slices) / SLICE_ALIGN * SLICE_ALIGN;
+        }
+        bounds[slices] = boards;
+        ended = new int[slices];
+        workers = new Worker[slices - 1];
+        for (int s = 1; s < slices; s++) {
+            workers[s - 1] = new Worker(s);
+        }
+    }
+
+    /**
+     * Plays one tick on every board: board {@code i} moves {@code actions[i]}
+     * and its observation goes to {@code obs[i * OBS_FIELDS ...]}. Returns the
+     * number of games that ended (and were restarted) on this tick.
+     */
+    public int step(int[] actions, int[] obs) {
+        if (closed) throw new IllegalStateException("BatchEnv is closed");
+        if (failure != null) throw new IllegalStateException("BatchEnv is dead after a worker failed", failure);
+        if (actions.length < boards || obs.length < boards * OBS_FIELDS) {
+            throw new IllegalArgumentException("Need " + boards + " actions and " + boards * OBS_FIELDS
+                    + " observation slots, got " + actions.length + " and " + obs.length);
+        }
+        this.actions = actions;
+        this.obs = obs;
+        if (workers.length > 0) {
+            caller = Thread.currentThread();
+            running.set(workers.length);
+            generation++;
+            for (Worker w : workers) LockSupport.unpark(w.thread);
+        }
+        ended[0] = stepSlice(bounds[0], bounds[1], actions, obs);
+        if (workers.length > 0) {
+            for (int spin = 0; running.get() != 0; spin++) {
+                if (spin < SPINS) Thread.onSpinWait();
+                else LockSupport.park(this);
+            }
+            Throwable t = failure;
+            if (t != null) throw new IllegalStateException("Worker failed", t);
+        }
+        int total = 0;
+        for (int e : ended) total += e;
+        return total;
+    }
+
+    /** Writes the current observation of every board, with {@link #RESULT} -1. */
+    public void observe(int[] obs) {
+        if (obs.length < boards * OBS_FIELDS) {
+            throw new IllegalArgumentException("Need " + boards * OBS_FIELDS + " observation slots, got " + obs.length);
+        }
+        for (int i = 0; i < boards; i++) {
+            obs[i * OBS_FIELDS + RESULT] = -1;
+            obs[i * OBS_FIELDS + SCORE] = score[i];
+            observe(i, obs);
+        }
+    }
+
+    private int stepSlice(int from, int to, int[] actions, int[] obs) {
+        int ended = 0;
+        for (int i = from; i < to; i++) {
+            int result = stepBoard(i, actions[i]);
+            int o = i * OBS_FIELDS;
+            obs[o + RESULT] = result;
+            obs[o + SCORE] = score[i];
+            if (RESULTS[result].endsGame()) {
+                ended++;
+                reset(i);
+            }
+            observe(i, obs);
+        }
+        return ended;
+    }
+
+    private void observe(int i, int[] obs) {
+        int o = i * OBS_FIELDS;
+        obs[o + HEAD] = ring[ringBase(i) + head[i]];
+        obs[o + FOOD] = food[i];
+        obs[o + BONUS] = bonus[i];
+        obs[o + DIRECTION] = direction[i];
+        obs[o + LENGTH] = length[i];
+        obs[o + TICK] = (int) Math.min(tick[i], Integer.MAX_VALUE);
+    }
+
+    /** {@link GameEngine#step} on board {@code i}, returning the StepResult ordinal. */
+    private int stepBoard(int i, int action) {
+        int d = direction[i];
+        if (action >= 0 && action < DX.length && action != (d ^ 1)) {
+            d = action;
+            direction[i] = (byte) d;
+        }
+        long now = ++tick[i] * tickNanos;
+
+        if (score[i] >= GameEngine.BONUS_SCORE_THRESHOLD && bonus[i] < 0
+                && now - lastBonusSpawnAttempt[i] >= GameEngine.BONUS_SPAWN_COOLDOWN) {
+            if (Rng.unit(nextLong(i)) < GameEngine.BONUS_SPAWN_CHANCE) {
+                int cell = pickFree(i, food[i], -1);
+                if (cell >= 0) {
+                    bonus[i] = cell;
+                    bonusStart[i] = now;
+                }
+            }
+            lastBonusSpawnAttempt[i] = now;
+        }
+        if (bonus[i] >= 0 && now - bonusStart[i] >= GameEngine.BONUS_LIFETIME) {
+            bonus[i] = -1;
+        }
+
+        int base = ringBase(i);
+        int h = ring[base + head[i]];
+        int nx = h % width + DX[d];
+        int ny = h / width + DY[d];
+        if (wallsKill && (nx < 0 || nx >= width || ny < 0 || ny >= height)) {
+            return StepResult.HIT_WALL.ordinal();
+        }
+        if (nx < 0) nx += width;
+        else if (nx == width) nx = 0;
+        if (ny < 0) ny += height;
+        else if (ny == height) ny = 0;
+        int cell = ny * width + nx;
+        int w = i * words + (cell >>> 6);
+        if ((occupied[w] & (1L << cell)) != 0) {
+            return StepResult.HIT_SELF.ordinal();
+        }
+
+        head[i] = (head[i] + 1) & ringMask;
+        ring[base + head[i]] = cell;
+        occupied[w] |= 1L << cell;
+        if (pageTaken != null) Occupancy.fenwickAdd(pageTaken, i * (pages + 1), pages, cell >>> Occupancy.PAGE_BITS, 1);
+        length[i]++;
+
+        if (cell == food[i]) {
+            score[i]++;
+            if (!placeFood(i)) return StepResult.BOARD_FULL.ordinal();
+            return StepResult.ATE_FOOD.ordinal();
+        }
+        if (cell == bonus[i]) {
+            score[i] += 5;
+            segmentsToAdd[i] = Rng.bounded(nextLong(i), 2) + 2;
+            bonus[i] = -1;
+            return StepResult.ATE_BONUS.ordinal();
+        }
+        if (segmentsToAdd[i] > 0) {
+            segmentsToAdd[i]--;
+        } else {
+            int tail = ring[base + ((head[i] - length[i] + 1) & ringMask)];
+            occupied[i * words + (tail >>> 6)] &= ~(1L << tail);
+            if (pageTaken != null) Occupancy.fenwickAdd(pageTaken, i * (pages + 1), pages, tail >>> Occupancy.PAGE_BITS, -1);
+            length[i]--;
+        }
+        return StepResult.MOVED.ordinal();
+    }
+
+    /** {@link GameEngine#reset()} on board {@code i}. */
+    private void reset(int i) {
+        seed[i] = rng[i];
+        Arrays.fill(occupied, i * words, (i + 1) * words, 0L);
+        int start = height / 2 * width + width / 2;
+        head[i] = 0;
+        ring[ringBase(i)] = start;
+        occupied[i * words + (start >>> 6)] |= 1L << start;
+        if (pageTaken != null) {
+            Arrays.fill(pageTaken, i * (pages + 1), (i + 1) * (pages + 1), 0);
+            Occupancy.fenwickAdd(pageTaken, i * (pages + 1), pages, start >>> Occupancy.PAGE_BITS, 1);
+        }
+        length[i] = 1;
+        direction[i] = (byte) RIGHT;
+        score[i] = 0;
+        tick[i] = 0;
+        bonus[i] = -1;
+        segmentsToAdd[i] = 0;
+        lastBonusSpawnAttempt[i] = 0;
+        bonusStart[i] = 0;
+        placeFood(i);
+    }
+
+    /** GameEngine's generateFood: the bonus gives way if it holds the last free cell. */
+    private boolean placeFood(int i) {
+        int cell = pickFree(i, bonus[i], -1);
+        if (cell < 0 && bonus[i] >= 0) {
+            bonus[i] = -1;
+            cell = pickFree(i, -1, -1);
+        }
+        food[i] = cell;
+        return cell >= 0;
+    }
+
+    private long nextLong(int i) {
+        return Rng.mix(rng[i] += Rng.GAMMA);
+    }
+
+    private int ringBase(int i) {
+        return i * (ringMask + 1);
+    }
+
+    private boolean isSet(int i, int cell) {
+        return (occupied[i * words + (cell >>> 6)] & (1L << cell)) != 0;
+    }
+
+    /** {@link Occupancy#pickFree} over board {@code i}'s bitboard, drawing the same numbers. */
+    private int pickFree(int i, int exclude1, int exclude2) {
+        int lo = exclude1 >= 0 && !isSet(i, exclude1) ? exclude1 : -1;
+        int hi = exclude2 >= 0 && exclude2 != exclude1 && !isSet(i, exclude2) ? exclude2 : -1;
+        if (lo > hi) {
+            int t = lo;
+            lo = hi;
+            hi = t;
+        }
+        int limit = cells - length[i] - (lo >= 0 ? 1 : 0) - (hi >= 0 ? 1 : 0);
+        if (limit <= 0) {
+            return -1;
+        }
+        int rank = Rng.bounded(nextLong(i), limit);
+        if (lo >= 0 && freeBefore(i, lo) <= rank) rank++;
+        if (hi >= 0 && freeBefore(i, hi) <= rank) rank++;
+        return selectFree(i, rank);
+    }
+
+    private int freeBefore(int i, int cell) {
+        int p = cell >>> Occupancy.PAGE_BITS;
+        int taken = pageTaken == null ? 0 : Occupancy.fenwickSum(pageTaken, i * (pages + 1), p);
+        int from = p * Occupancy.PAGE_WORDS;
+        taken += Occupancy.takenBefore(occupied, i * words + from, cell - (from << 6));
+        return cell - taken;
+    }
+
+    private int selectFree(int i, int rank) {
+        int p = 0;
+        if (pageTaken != null) {
+            long found = Occupancy.fenwickSelectFree(pageTaken, i * (pages + 1), pages, Occupancy.PAGE_CELLS, rank);
+            p = (int) (found >>> 32);
+            rank = (int) found;
+        }
+        int from = p * Occupancy.PAGE_WORDS;
+        return (from << 6) + Occupancy.selectFree(occupied, i * words + from, rank);
+    }
+
+    public int boards() {
+        return boards;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    /** Seed that replays board {@code i}'s current game on a {@link GameEngine}. */
+    public long seed(int i) {
+        return seed[i];
+    }
+
+    /** Restarts board {@code i} now, e.g. to cut off a game that runs too long. Not during {@link #step}. */
+    public void restart(int i) {
+        reset(i);
+    }
+
+    /**
+     * Copies board {@code i}'s occupied cells into {@code dst} at {@code offset}:
+     * {@code (width * height + 63) / 64} words, cell {@code c} at bit
+     * {@code c % 64} of word {@code c / 64}. For agents that look at the whole body.
+     */
+    public void copyOccupancy(int i, long[] dst, int offset) {
+        System.arraycopy(occupied, i * words, dst, offset, words);
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        for (Worker w : workers) {
+            LockSupport.unpark(w.thread);
+            try {
+                w.thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final int slice;
+        private final Thread thread;
+
+        Worker(int slice) {
+            this.slice = slice;
+            thread = new Thread(this, "batch-env-" + slice);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public void run() {
+            int seen = 0;
+            while (true) {
+                int g;
+                for (int spin = 0; (g = generation) == seen; spin++) {
+                    if (closed) return;
+                    if (spin < SPINS) Thread.onSpinWait();
+                    else LockSupport.park(this);
+                }
+                seen = g;
+                try {
+                    ended[slice] = stepSlice(bounds[slice], bounds[slice + 1], actions, obs);
+                } catch (Throwable t) {
+                    failure = t;
+                } finally {
+                    if (running.decrementAndGet() == 0) LockSupport.unpark(caller);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int boards = args.length > 0 ? Integer.parseInt(args[0]) : 4096;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        double seconds = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+
+        // random moves from a fixed table, so the caller's own work stays out of the figure
+        int[][] moves = new int[64][boards];
+        Rng random = new Rng(42);
+        for (int[] m : moves) {
+            for (int i = 0; i < boards; i++) m[i] = random.nextInt(Direction.values().length);
+        }
+        int[] obs = new int[boards * OBS_FIELDS];
+        try (BatchEnv env = new BatchEnv(boards, GameEngine.DEFAULT_WIDTH, GameEngine.DEFAULT_HEIGHT,
+                DifficultyLevel.MEDIUM, 1, threads)) {
+            for (int t = 0; t < 2_000; t++) env.step(moves[t & 63], obs);   // warm-up
+
+            long steps = 0, games = 0, start = System.nanoTime(), end = start + (long) (seconds * 1e9);
+            long now;
+            do {
+                for (int t = 0; t < 64; t++) games += env.step(moves[t], obs);
+                steps += 64;
+            } while ((now = System.nanoTime()) < end);
+            double elapsed = (now - start) / 1e9;
+            System.out.printf("%d boards of %dx%d on %d thread(s): %d steps in %.2f s%n",
+                    boards, env.width(), env.height(), env.workers.length + 1, steps, elapsed);
+            System.out.printf("%.1fM board-steps/s, %.0f games/s, %.1f us per step%n",
+                    steps * boards / elapsed / 1e6, games / elapsed, elapsed * 1e6 / steps);
+        }
+    }
+}
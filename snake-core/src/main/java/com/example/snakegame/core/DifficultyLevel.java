@@ -0,0 +1,31 @@
+package com.example.snakegame.core;
+
+public enum DifficultyLevel {
+    EASY("Easy", 200_000_000, false),
+    MEDIUM("Medium", 120_000_000, false),
+    HARD("Hard", 80_000_000, true);
+
+    private final String displayName;
+    private final long tickNanos;
+    private final boolean wallsKill;
+
+    DifficultyLevel(String displayName, long tickNanos, boolean wallsKill) {
+        this.displayName = displayName;
+        this.tickNanos = tickNanos;
+        this.wallsKill = wallsKill;
+    }
+
+    public String displayName() {
+        return displayName;
+    }
+
+    /** Time between two simulation ticks. */
+    public long tickNanos() {
+        return tickNanos;
+    }
+
+    /** On Hard the border is solid, on the other levels the snake wraps around. */
+    public boolean wallsKill() {
+        return wallsKill;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.snakegame.core;
+
+/**
+ * Accumulator for running a fixed-rate simulation from a variable-rate frame
+ * clock. Each frame reports its timestamp to {@link #advance(long)} and gets
+ * back how many ticks are due; the remainder carries over to the next frame,
+ * so the average tick rate is exact whatever the display refresh rate.
+ * {@link #alpha()} is how far the clock is into the next tick, for
+ * interpolating the picture between two ticks.
+ */
+public final class FixedTimestep {
+    private final long stepNanos;
+    private final int maxTicksPerFrame;
+
+    private long last = -1;
+    private long accumulator;
+    private long droppedTicks;
+
+    /**
+     * @param maxTicksPerFrame catch-up limit; after a longer stall the extra
+     *                         ticks are dropped rather than run in one burst
+     */
+    public FixedTimestep(long stepNanos, int maxTicksPerFrame) {
+        if (stepNanos <= 0 || maxTicksPerFrame < 1) {
+            throw new IllegalArgumentException("stepNanos and maxTicksPerFrame must be positive");
+        }
+        this.stepNanos = stepNanos;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    /** Returns the number of ticks to run for a frame at time {@code now}. */
+    public int advance(long now) {
+        if (last < 0) {
+            last = now;
+            return 0;
+        }
+        accumulator += Math.max(0, now - last);
+        last = now;
+
+        long due = accumulator / stepNanos;
+        int ticks = (int) Math.min(due, maxTicksPerFrame);
+        accumulator -= ticks * stepNanos;
+        if (due > ticks) {
+            droppedTicks += due - ticks;
+            accumulator %= stepNanos;
+        }
+        return ticks;
+    }
+
+    /** Fraction of the next tick already elapsed, in {@code [0, 1)}. */
+    public double alpha() {
+        return (double) accumulator / stepNanos;
+    }
+
+    public long stepNanos() {
+        return stepNanos;
+    }
+
+    /** Ticks skipped because a frame was later than the catch-up limit allows. */
+    public long droppedTicks() {
+        return droppedTicks;
+    }
+
+    /** Forgets the last frame time, e.g. after the loop was paused. */
+    public void reset() {
+        last = -1;
+        accumulator = 0;
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.snakegame.core;
+
+/**
+ * Headless game rules. One call to {@link #step(Direction)} is one tick of the
+ * game loop; all timing (bonus cooldown and lifetime) is measured in simulated
+ * time, so a game is fully determined by its seed and the directions fed in.
+ * <p>
+ * An engine is either an open board or a {@link Level}. A level's walls live
+ * in the snake's occupancy bitmap, so running into one is the same single
+ * lookup as running into the body, and food never lands on one. Hitting a
+ * wall ends the game with {@link StepResult#HIT_WALL} on every difficulty.
+ */
+public final class GameEngine {
+    public static final int DEFAULT_WIDTH = 30, DEFAULT_HEIGHT = 18;
+    /** Largest board side; endurance boards go up to 2000x2000. */
+    public static final int MAX_SIDE = 2000;
+
+    static final long BONUS_SPAWN_COOLDOWN = 8_000_000_000L;
+    static final long BONUS_LIFETIME = 4_000_000_000L;
+    static final int BONUS_SCORE_THRESHOLD = 10;
+    static final double BONUS_SPAWN_CHANCE = 0.4;
+
+    private final int width, height;
+    private final Level level;         // null on an open board
+    private DifficultyLevel difficulty;
+    private final Rng random;
+    private GameListener listener = GameListener.NONE;
+
+    private SnakeBody snake;
+    private Direction direction;
+    private int foodX, foodY;
+    private int bonusFoodX, bonusFoodY;
+    private boolean hasBonusFood;
+    private long lastBonusSpawnAttemptTime;
+    private long bonusFoodActiveStartTime;
+    private int segmentsToAdd;
+    private int score;
+    private boolean gameOver;
+    private boolean victory;
+    private long tick;
+    private long seed;
+
+    public GameEngine(DifficultyLevel difficulty, long seed) {
+        this(DEFAULT_WIDTH, DEFAULT_HEIGHT, difficulty, seed);
+    }
+
+    public GameEngine(int width, int height, DifficultyLevel difficulty, long seed) {
+        this(null, width, height, difficulty, seed);
+    }
+
+    /** A game on {@code level}'s board, starting where the level says. */
+    public GameEngine(Level level, DifficultyLevel difficulty, long seed) {
+        this(level, level.width(), level.height(), difficulty, seed);
+    }
+
+    private GameEngine(Level level, int width, int height, DifficultyLevel difficulty, long seed) {
+        if (width < 2 || height < 2 || width > MAX_SIDE || height > MAX_SIDE) {
+            throw new IllegalArgumentException("Board must be between 2x2 and " + MAX_SIDE + "x" + MAX_SIDE
+                    + ": " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.level = level;
+        this.difficulty = difficulty;
+        this.random = new Rng(seed);
+        reset();
+    }
+
+    /**
+     * Starts a new game on the same board at another difficulty, continuing
+     * the random stream; the board's memory is reused.
+     */
+    public void reset(DifficultyLevel difficulty) {
+        this.difficulty = difficulty;
+        reset();
+    }
+
+    /** Starts a new game on the same board, continuing the random stream. */
+    public void reset() {
+        seed = random.state;
+        if (snake == null) {
+            snake = level == null ? new SnakeBody(width, height, width / 2, height / 2) : new SnakeBody(level);
+        } else if (level == null) {
+            snake.reset(width / 2, height / 2);
+        } else {
+            snake.reset(level.startX(), level.startY());
+        }
+        direction = level == null ? Direction.RIGHT : level.startDirection();
+        score = 0;
+        gameOver = false;
+        victory = false;
+        tick = 0;
+        hasBonusFood = false;
+        bonusFoodX = -1;
+        bonusFoodY = -1;
+        segmentsToAdd = 0;
+        lastBonusSpawnAttemptTime = 0;
+        bonusFoodActiveStartTime = 0;
+        listener.onReset();
+        generateFood();
+    }
+
+    /**
+     * Captures the complete game state, including the random stream, so
+     * {@link #restore(Snapshot)} can later continue from exactly this tick.
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Puts the game back into a state captured by {@link #snapshot()} on an
+     * engine with the same board and difficulty. The listener gets
+     * {@link GameListener#onReset()}, since the whole board may have changed.
+     */
+    public void restore(Snapshot s) {
+        if (s.level != level || s.width != width || s.height != height || s.difficulty != difficulty) {
+            throw new IllegalArgumentException("Snapshot is from a different board or difficulty");
+        }
+        random.state = s.rngState;
+        seed = s.seed;
+        snake.restore(s.body);
+        direction = s.direction;
+        foodX = s.foodX;
+        foodY = s.foodY;
+        bonusFoodX = s.bonusFoodX;
+        bonusFoodY = s.bonusFoodY;
+        hasBonusFood = s.hasBonusFood;
+        lastBonusSpawnAttemptTime = s.lastBonusSpawnAttemptTime;
+        bonusFoodActiveStartTime = s.bonusFoodActiveStartTime;
+        segmentsToAdd = s.segmentsToAdd;
+        score = s.score;
+        gameOver = s.gameOver;
+        victory = s.victory;
+        tick = s.tick;
+        listener.onReset();
+    }
+
+    public void setListener(GameListener listener) {
+        this.listener = listener == null ? GameListener.NONE : listener;
+    }
+
+    /**
+     * Advances the game by one tick. A turn that would reverse the snake onto
+     * itself is ignored; {@code null} keeps the current direction.
+     */
+    public StepResult step(Direction turn) {
+        if (gameOver) {
+            return StepResult.FINISHED;
+        }
+        if (turn != null && !turn.isOpposite(direction)) {
+            direction = turn;
+        }
+        long now = ++tick * difficulty.tickNanos();
+
+        if (score >= BONUS_SCORE_THRESHOLD && !hasBonusFood) {
+            if (now - lastBonusSpawnAttemptTime >= BONUS_SPAWN_COOLDOWN) {
+                if (random.nextDouble() < BONUS_SPAWN_CHANCE) {
+                    generateBonusFood(now);
+                }
+                lastBonusSpawnAttemptTime = now;
+            }
+        }
+
+        if (hasBonusFood && now - bonusFoodActiveStartTime >= BONUS_LIFETIME) {
+            clearBonusFood(false);
+        }
+
+        int nx = snake.headX() + direction.dx;
+        int ny = snake.headY() + direction.dy;
+
+        if (difficulty.wallsKill() && (nx < 0 || nx >= width || ny < 0 || ny >= height)) {
+            return end(StepResult.HIT_WALL);
+        }
+
+        nx = (nx + width) % width;
+        ny = (ny + height) % height;
+
+        if (snake.checkCollision(nx, ny)) {
+            return end(level != null && level.isWall(nx, ny) ? StepResult.HIT_WALL : StepResult.HIT_SELF);
+        }
+
+        int oldHead = snake.headCell();
+        snake.addFirst(nx, ny);
+
+        StepResult result = StepResult.MOVED;
+        int tail = -1;
+        if (nx == foodX && ny == foodY) {
+            score++;
+            result = StepResult.ATE_FOOD;
+        } else if (hasBonusFood && nx == bonusFoodX && ny == bonusFoodY) {
+            score += 5;
+            segmentsToAdd = random.nextInt(2) + 2;
+            clearBonusFood(true);
+            result = StepResult.ATE_BONUS;
+        } else if (segmentsToAdd > 0) {
+            segmentsToAdd--;
+        } else {
+            tail = snake.removeLast();
+        }
+        listener.onSnakeMoved(snake.headCell(), oldHead, tail);
+
+        if (result == StepResult.ATE_FOOD && !generateFood()) {
+            victory = true;
+            return end(StepResult.BOARD_FULL);
+        }
+        return result;
+    }
+
+    private StepResult end(StepResult result) {
+        gameOver = true;
+        listener.onGameEnded(result);
+        return result;
+    }
+
+    /** Places food on a random free cell; returns false when the board is full. */
+    private boolean generateFood() {
+        int cell = snake.pickFree(random, bonusCell(), -1);
+        if (cell < 0 && hasBonusFood) {
+            // the bonus is sitting on the last free cell: regular food takes it over
+            clearBonusFood(false);
+            cell = snake.pickFree(random, -1, -1);
+        }
+        if (cell < 0) {
+            foodX = -1;
+            foodY = -1;
+            return false;
+        }
+        foodX = cell % width;
+        foodY = cell / width;
+        listener.onFoodPlaced(cell);
+        return true;
+    }
+
+    private void generateBonusFood(long now) {
+        int cell = snake.pickFree(random, foodY * width + foodX, -1);
+        if (cell < 0) {
+            return;
+        }
+        bonusFoodX = cell % width;
+        bonusFoodY = cell / width;
+        hasBonusFood = true;
+        bonusFoodActiveStartTime = now;
+        listener.onBonusPlaced(cell);
+    }
+
+    private int bonusCell() {
+        return hasBonusFood ? bonusFoodY * width + bonusFoodX : -1;
+    }
+
+    private void clearBonusFood(boolean eaten) {
+        if (hasBonusFood) {
+            listener.onBonusRemoved(bonusCell(), eaten);
+        }
+        hasBonusFood = false;
+        bonusFoodX = -1;
+        bonusFoodY = -1;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public DifficultyLevel difficulty() {
+        return difficulty;
+    }
+
+    /** The level being played, or null on an open board. */
+    public Level level() {
+        return level;
+    }
+
+    /** The snake, read-only; it reflects every step as it happens. */
+    public SnakeView snake() {
+        return snake;
+    }
+
+    public Direction direction() {
+        return direction;
+    }
+
+    public int foodX() {
+        return foodX;
+    }
+
+    public int foodY() {
+        return foodY;
+    }
+
+    public boolean hasBonusFood() {
+        return hasBonusFood;
+    }
+
+    public int bonusFoodX() {
+        return bonusFoodX;
+    }
+
+    public int bonusFoodY() {
+        return bonusFoodY;
+    }
+
+    public int score() {
+        return score;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /** True when the game ended because the snake filled the board. */
+    public boolean isVictory() {
+        return victory;
+    }
+
+    /** Number of ticks played since the last reset. */
+    public long tick() {
+        return tick;
+    }
+
+    /**
+     * Seed that replays the current game: a new engine with the same board,
+     * difficulty and this seed starts exactly where this game started.
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /** Opaque copy of an engine's state; see {@link GameEngine#snapshot()}. */
+    public static final class Snapshot {
+        private final int width, height;
+        private final Level level;
+        private final DifficultyLevel difficulty;
+        private final long rngState, seed;
+        private final int[] body;
+        private final Direction direction;
+        private final int foodX, foodY, bonusFoodX, bonusFoodY;
+        private final boolean hasBonusFood;
+        private final long lastBonusSpawnAttemptTime, bonusFoodActiveStartTime;
+        private final int segmentsToAdd, score;
+        private final boolean gameOver, victory;
+        private final long tick;
+
+        private Snapshot(GameEngine e) {
+            width = e.width;
+            height = e.height;
+            level = e.level;
+            difficulty = e.difficulty;
+            rngState = e.random.state;
+            seed = e.seed;
+            body = e.snake.copyCells();
+            direction = e.direction;
+            foodX = e.foodX;
+            foodY = e.foodY;
+            bonusFoodX = e.bonusFoodX;
+            bonusFoodY = e.bonusFoodY;
+            hasBonusFood = e.hasBonusFood;
+            lastBonusSpawnAttemptTime = e.lastBonusSpawnAttemptTime;
+            bonusFoodActiveStartTime = e.bonusFoodActiveStartTime;
+            segmentsToAdd = e.segmentsToAdd;
+            score = e.score;
+            gameOver = e.gameOver;
+            victory = e.victory;
+            tick = e.tick;
+        }
+
+        public long tick() {
+            return tick;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.snakegame.core;
+
+/**
+ * Callbacks fired by {@link GameEngine} from inside {@code step()} and
+ * {@code reset()}. Cells are packed indices ({@code y * width + x}).
+ * All methods default to no-ops so listeners only override what they need.
+ */
+public interface GameListener {
+    GameListener NONE = new GameListener() {
+    };
+
+    /** The board was reset for a new game. */
+    default void onReset() {
+    }
+
+    /** The head moved onto {@code headCell}; {@code tailCell} is the freed tail, or -1 if the snake grew. */
+    default void onSnakeMoved(int headCell, int oldHeadCell, int tailCell) {
+    }
+
+    default void onFoodPlaced(int cell) {
+    }
+
+    default void onBonusPlaced(int cell) {
+    }
+
+    /** The bonus left the board, either eaten by the snake or expired. */
+    default void onBonusRemoved(int cell, boolean eaten) {
+    }
+
+    /** The game ended with {@code result} (a fatal result or {@link StepResult#BOARD_FULL}). */
+    default void onGameEnded(StepResult result) {
+    }
+
+    /** A listener that forwards every event to {@code first}, then to {@code second}. */
+    static GameListener both(GameListener first, GameListener second) {
+        return new GameListener() {
+            @Override
+            public void onReset() {
+                first.onReset();
+                second.onReset();
+            }
+
+            @Override
+            public void onSnakeMoved(int headCell, int oldHeadCell, int tailCell) {
+                first.onSnakeMoved(headCell, oldHeadCell, tailCell);
+                second.onSnakeMoved(headCell, oldHeadCell, tailCell);
+            }
+
+            @Override
+            public void onFoodPlaced(int cell) {
+                first.onFoodPlaced(cell);
+                second.onFoodPlaced(cell);
+            }
+
+            @Override
+            public void onBonusPlaced(int cell) {
+                first.onBonusPlaced(cell);
+                second.onBonusPlaced(cell);
+            }
+
+            @Override
+            public void onBonusRemoved(int cell, boolean eaten) {
+                first.onBonusRemoved(cell, eaten);
+                second.onBonusRemoved(cell, eaten);
+            }
+
+            @Override
+            public void onGameEnded(StepResult result) {
+                first.onGameEnded(result);
+                second.onGameEnded(result);
+            }
+        };
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.snakegame.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free queue of turns between the thread that reads the keyboard
+ * (the single producer) and the thread that runs the ticks (the single
+ * consumer). Each tick takes at most one turn, so two quick presses inside one
+ * tick become two consecutive moves instead of the second overwriting the
+ * first.
+ * <p>
+ * A turn is checked on the way in against the last turn queued (or the
+ * direction the game started with), so UP then LEFT while moving RIGHT queues
+ * both, and a press that would reverse onto the previous queued turn is
+ * refused. Each entry carries the time it was offered, so the consumer can
+ * measure input-to-move latency.
+ */
+public final class InputQueue {
+    private final Direction[] turns;
+    private final long[] stamps;
+    private final int mask;
+    // producer writes tail, consumer writes head; each reads the other's with acquire semantics
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    private Direction lastQueued;      // producer only
+    private long polledStamp;          // consumer only
+
+    /** @param capacity turns that can wait at once, rounded up to a power of two */
+    public InputQueue(int capacity, Direction initial) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.turns = new Direction[size];
+        this.stamps = new long[size];
+        this.mask = size - 1;
+        this.lastQueued = initial;
+    }
+
+    /**
+     * Producer side. Queues {@code turn} unless it repeats or reverses the last
+     * queued turn, or the queue is full; returns whether it was queued.
+     */
+    public boolean offer(Direction turn, long nanos) {
+        if (turn == lastQueued || turn.isOpposite(lastQueued)) {
+            return false;
+        }
+        long t = tail.get();
+        if (t - head.getAcquire() == turns.length) {
+            return false;
+        }
+        int slot = (int) t & mask;
+        turns[slot] = turn;
+        stamps[slot] = nanos;
+        tail.setRelease(t + 1);
+        lastQueued = turn;
+        return true;
+    }
+
+    /** Consumer side: the next turn, or null when none is waiting. */
+    public Direction poll() {
+        long h = head.get();
+        if (h == tail.getAcquire()) {
+            return null;
+        }
+        int slot = (int) h & mask;
+        Direction turn = turns[slot];
+        polledStamp = stamps[slot];
+        head.setRelease(h + 1);
+        return turn;
+    }
+
+    /** When the turn last returned by {@link #poll()} was offered. */
+    public long polledAt() {
+        return polledStamp;
+    }
+
+    public int size() {
+        return (int) (tail.getAcquire() - head.getAcquire());
+    }
+
+    /**
+     * Drops all waiting turns and starts validating against {@code initial}.
+     * Only call while neither side is running, e.g. between games from the
+     * thread that drives both.
+     */
+    public void reset(Direction initial) {
+        head.set(tail.get());
+        lastQueued = initial;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.snakegame.core;
+
+/**
+ * A board with walls in it: its size, where the snake starts and which cells
+ * are solid, decoded once into a bitmap with one bit per packed cell
+ * ({@code y * width + x}). The engine seeds the snake's occupancy with this
+ * bitmap on every reset, so a wall is just an occupied cell to movement, food
+ * placement and the bots, and costs nothing extra per tick.
+ * <p>
+ * Immutable; one instance can back any number of engines.
+ */
+public final class Level {
+    private final String name;
+    private final int width, height;
+    private final long[] walls;
+    private final int wallCount;
+    private final int startX, startY;
+    private final Direction startDirection;
+
+    /**
+     * @param walls one bit per cell, cell {@code c} at bit {@code c % 64} of
+     *              word {@code c / 64}; copied, so later changes to it don't reach the level
+     */
+    public Level(String name, int width, int height, long[] walls, int startX, int startY, Direction startDirection) {
+        if (width < 2 || height < 2 || width > GameEngine.MAX_SIDE || height > GameEngine.MAX_SIDE) {
+            throw new IllegalArgumentException("Level '" + name + "' must be between 2x2 and "
+                    + GameEngine.MAX_SIDE + "x" + GameEngine.MAX_SIDE + ": " + width + "x" + height);
+        }
+        int cells = width * height;
+        walls = walls.clone();
+        if (walls.length != (cells + 63) >>> 6) {
+            throw new IllegalArgumentException("Level '" + name + "': wall bitmap has " + walls.length
+                    + " words, a " + width + "x" + height + " board needs " + ((cells + 63) >>> 6));
+        }
+        if ((cells & 63) != 0 && walls[walls.length - 1] >>> (cells & 63) != 0) {
+            throw new IllegalArgumentException("Level '" + name + "': walls set past the last cell");
+        }
+        this.name = name;
+        this.width = width;
+        this.height = height;
+        this.walls = walls;
+        int count = 0;
+        for (long w : walls) count += Long.bitCount(w);
+        this.wallCount = count;
+        this.startX = startX;
+        this.startY = startY;
+        this.startDirection = startDirection;
+        if (startX < 0 || startX >= width || startY < 0 || startY >= height || isWall(startX, startY)) {
+            throw new IllegalArgumentException("Level '" + name + "': start (" + startX + ", " + startY
+                    + ") is not a free cell");
+        }
+        // the first tick must not run into a wall
+        int aheadX = Math.floorMod(startX + startDirection.dx, width);
+        int aheadY = Math.floorMod(startY + startDirection.dy, height);
+        if (isWall(aheadX, aheadY)) {
+            throw new IllegalArgumentException("Level '" + name + "': the snake starts facing a wall");
+        }
+        if (cells - wallCount < 2) {
+            throw new IllegalArgumentException("Level '" + name + "' has no room for food");
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public int startX() {
+        return startX;
+    }
+
+    public int startY() {
+        return startY;
+    }
+
+    public Direction startDirection() {
+        return startDirection;
+    }
+
+    public int wallCount() {
+        return wallCount;
+    }
+
+    public boolean isWall(int cell) {
+        return (walls[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    public boolean isWall(int x, int y) {
+        return isWall(y * width + x);
+    }
+
+    /** The bitmap itself, shared with every engine on this level. */
+    long[] walls() {
+        return walls;
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.snakegame.core;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * The cells covered by the snake, one bit per cell, in pages of 4096 cells.
+ * A page is only allocated once the snake first enters it, so a small snake on
+ * a 2000x2000 board touches a few KB instead of the whole bitmap, and even a
+ * full board costs half a megabyte.
+ * <p>
+ * Each page also keeps its occupied count, summed in a Fenwick tree, which
+ * makes "the n-th free cell" a descent of the tree (log of the page count)
+ * plus a popcount walk over at most one page's 64 words. Spawning uses that
+ * to pick a uniformly random free cell without any per-cell index, in the
+ * same bounded time on a 2000x2000 board as on the default one.
+ */
+final class Occupancy {
+    static final int PAGE_BITS = 12;
+    static final int PAGE_CELLS = 1 << PAGE_BITS;
+    static final int PAGE_WORDS = PAGE_CELLS >>> 6;
+
+    private final int cellCount;
+    private final long[][] pages;
+    private final int[] taken;      // occupied cells per page
+    private final int[] takenTree;  // Fenwick tree over taken, 1-based
+    private int occupied;
+
+    Occupancy(int cellCount) {
+        this.cellCount = cellCount;
+        int pageCount = (cellCount + PAGE_CELLS - 1) >>> PAGE_BITS;
+        this.pages = new long[pageCount][];
+        this.taken = new int[pageCount];
+        this.takenTree = new int[pageCount + 1];
+    }
+
+    boolean get(int cell) {
+        long[] page = pages[cell >>> PAGE_BITS];
+        return page != null && (page[(cell >>> 6) & (PAGE_WORDS - 1)] & (1L << cell)) != 0;
+    }
+
+    void set(int cell) {
+        int p = cell >>> PAGE_BITS;
+        long[] page = pages[p];
+        if (page == null) {
+            page = pages[p] = new long[PAGE_WORDS];
+        }
+        int w = (cell >>> 6) & (PAGE_WORDS - 1);
+        long bit = 1L << cell;
+        if ((page[w] & bit) == 0) {
+            page[w] |= bit;
+            taken[p]++;
+            fenwickAdd(takenTree, 0, pages.length, p, 1);
+            occupied++;
+        }
+    }
+
+    void clear(int cell) {
+        int p = cell >>> PAGE_BITS;
+        long[] page = pages[p];
+        if (page == null) return;
+        int w = (cell >>> 6) & (PAGE_WORDS - 1);
+        long bit = 1L << cell;
+        if ((page[w] & bit) != 0) {
+            page[w] &= ~bit;
+            taken[p]--;
+            fenwickAdd(takenTree, 0, pages.length, p, -1);
+            occupied--;
+        }
+    }
+
+    /** Frees every cell; allocated pages are kept for reuse. */
+    void clearAll() {
+        for (int p = 0; p < pages.length; p++) {
+            if (taken[p] != 0) {
+                Arrays.fill(pages[p], 0L);
+                taken[p] = 0;
+            }
+        }
+        Arrays.fill(takenTree, 0);
+        occupied = 0;
+    }
+
+    /**
+     * Marks every cell set in {@code bits} (one bit per cell, 64 to a word) as
+     * occupied, a page at a time; pages with nothing set stay unallocated.
+     */
+    void setAll(long[] bits) {
+        for (int p = 0; p < pages.length; p++) {
+            int from = p * PAGE_WORDS, to = Math.min(bits.length, from + PAGE_WORDS);
+            for (int i = from; i < to; i++) {
+                if (bits[i] == 0) continue;
+                if (pages[p] == null) pages[p] = new long[PAGE_WORDS];
+                long added = bits[i] & ~pages[p][i - from];
+                pages[p][i - from] |= added;
+                taken[p] += Long.bitCount(added);
+                occupied += Long.bitCount(added);
+            }
+        }
+        fenwickBuild(takenTree, taken);
+    }
+
+    int freeCount() {
+        return cellCount - occupied;
+    }
+
+    /** Number of free cells with a lower index than {@code cell}. */
+    int freeBefore(int cell) {
+        int p = cell >>> PAGE_BITS;
+        // every page before p is a whole one
+        int free = (p << PAGE_BITS) - fenwickSum(takenTree, 0, p);
+        int offset = cell & (PAGE_CELLS - 1);
+        long[] page = pages[p];
+        if (page == null) {
+            return free + offset;
+        }
+        return free + offset - takenBefore(page, 0, offset);
+    }
+
+    /** The free cell with {@code rank} free cells before it; {@code rank < freeCount()}. */
+    int selectFree(int rank) {
+        long found = fenwickSelectFree(takenTree, 0, pages.length, PAGE_CELLS, rank);
+        int p = (int) (found >>> 32);
+        rank = (int) found;
+        long[] page = pages[p];
+        if (page == null) {
+            return (p << PAGE_BITS) + rank;
+        }
+        return (p << PAGE_BITS) + selectFree(page, 0, rank);
+    }
+
+    /** Set bits among the first {@code count} bits of {@code bits[from..]}. */
+    static int takenBefore(long[] bits, int from, int count) {
+        int w = count >>> 6;
+        int taken = 0;
+        for (int i = 0; i < w; i++) {
+            taken += Long.bitCount(bits[from + i]);
+        }
+        if ((count & 63) != 0) {
+            taken += Long.bitCount(bits[from + w] & ((1L << count) - 1));
+        }
+        return taken;
+    }
+
+    /**
+     * Offset from {@code bits[from]} of the clear bit with {@code rank} clear
+     * bits before it. Bits past the end of a board read as clear, but they sit
+     * above every real cell of the last word, so a rank below the block's free
+     * count never reaches them.
+     */
+    static int selectFree(long[] bits, int from, int rank) {
+        for (int w = 0; ; w++) {
+            long freeBits = ~bits[from + w];
+            int free = Long.bitCount(freeBits);
+            if (rank < free) {
+                for (; rank > 0; rank--) {
+                    freeBits &= freeBits - 1;
+                }
+                return (w << 6) + Long.numberOfTrailingZeros(freeBits);
+            }
+            rank -= free;
+        }
+    }
+
+    // Fenwick trees over per-page occupied counts, kept at tree[base + 1 .. base + n]
+
+    static void fenwickAdd(int[] tree, int base, int n, int index, int delta) {
+        for (int k = index + 1; k <= n; k += k & -k) {
+            tree[base + k] += delta;
+        }
+    }
+
+    /** Sum of entries {@code [0, index)}. */
+    static int fenwickSum(int[] tree, int base, int index) {
+        int sum = 0;
+        for (int k = index; k > 0; k -= k & -k) {
+            sum += tree[base + k];
+        }
+        return sum;
+    }
+
+    /** Rebuilds {@code tree} (at base 0) from {@code counts} in linear time. */
+    static void fenwickBuild(int[] tree, int[] counts) {
+        System.arraycopy(counts, 0, tree, 1, counts.length);
+        for (int k = 1; k <= counts.length; k++) {
+            int parent = k + (k & -k);
+            if (parent <= counts.length) tree[parent] += tree[k];
+        }
+    }
+
+    /**
+     * The entry holding free cell {@code rank} when each entry covers
+     * {@code entryCells} cells, in the high int, and the rank left within that
+     * entry in the low int. Counts the last entry as whole; that only
+     * overstates entries that a rank below the free count can't skip anyway.
+     */
+    static long fenwickSelectFree(int[] tree, int base, int n, int entryCells, int rank) {
+        int pos = 0;
+        for (int step = Integer.highestOneBit(n); step > 0; step >>>= 1) {
+            int next = pos + step;
+            if (next <= n) {
+                int free = step * entryCells - tree[base + next];
+                if (free <= rank) {
+                    pos = next;
+                    rank -= free;
+                }
+            }
+        }
+        return (long) pos << 32 | rank;
+    }
+
+    /**
+     * Picks a uniformly random free cell other than {@code exclude1} and
+     * {@code exclude2} (pass -1 for none), or returns -1 when there is none.
+     */
+    int pickFree(RandomGenerator random, int exclude1, int exclude2) {
+        int lo = exclude1 >= 0 && !get(exclude1) ? exclude1 : -1;
+        int hi = exclude2 >= 0 && exclude2 != exclude1 && !get(exclude2) ? exclude2 : -1;
+        if (lo > hi) {
+            int t = lo;
+            lo = hi;
+            hi = t;
+        }
+        int limit = freeCount() - (lo >= 0 ? 1 : 0) - (hi >= 0 ? 1 : 0);
+        if (limit <= 0) {
+            return -1;
+        }
+        // rank among the free cells minus the excluded ones, shifted past each excluded cell in order
+        int rank = random.nextInt(limit);
+        if (lo >= 0 && freeBefore(lo) <= rank) rank++;
+        if (hi >= 0 && freeBefore(hi) <= rank) rank++;
+        return selectFree(rank);
+    }
+}
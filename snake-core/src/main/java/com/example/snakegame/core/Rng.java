@@ -0,0 +1,54 @@
+package com.example.snakegame.core;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Small SplitMix64 generator. Unlike java.util.Random its whole state is one
+ * long, so a game is reproducible from its seed on any JVM. It is a
+ * {@link RandomGenerator} only so spawning can take one; the bounded and
+ * floating-point draws below replace the interface's own and are what
+ * replays depend on.
+ * <p>
+ * The static helpers are the same steps on a bare state word, for
+ * {@link BatchEnv}, which keeps one such word per board in a long[].
+ */
+final class Rng implements RandomGenerator {
+    static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    long state;
+
+    Rng(long seed) {
+        this.state = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        return mix(state += GAMMA);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return bounded(nextLong(), bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return unit(nextLong());
+    }
+
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** {@code r} mapped onto {@code [0, bound)}. */
+    static int bounded(long r, int bound) {
+        return (int) (((r >>> 32) * bound) >>> 32);
+    }
+
+    /** {@code r} mapped onto {@code [0, 1)}. */
+    static double unit(long r) {
+        return (r >>> 11) * 0x1.0p-53;
+    }
+}
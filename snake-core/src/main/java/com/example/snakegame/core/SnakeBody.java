@@ -0,0 +1,182 @@
+package com.example.snakegame.core;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * The snake's body as packed cell indices ({@code y * width + x}) in a circular
+ * array, head first, plus an {@link Occupancy} bitmap of the covered cells.
+ * Pushing a head, popping the tail and collision lookups are all O(1). The
+ * ring starts small and doubles as the snake grows, so a short snake on a
+ * huge board does not pay for the board's area.
+ * <p>
+ * On a {@link Level} the bitmap also holds the level's walls, put back on
+ * every reset, so one lookup answers "can the head go here" for both.
+ * <p>
+ * The engine hands this out as a {@link SnakeView}; the mutators are for the
+ * engine (and benchmarks) only.
+ */
+public final class SnakeBody implements SnakeView {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final int width, height;
+    private final int maxCapacity;
+    private int[] cells;
+    private int mask;
+    private final Occupancy occupied;
+    private final long[] walls;     // null on an open board
+    private int head;   // ring index of the head segment
+    private int length;
+
+    public SnakeBody(int width, int height, int startX, int startY) {
+        this(width, height, startX, startY, null);
+    }
+
+    /** A snake on {@code level}'s board, with its walls already in place. */
+    public SnakeBody(Level level) {
+        this(level.width(), level.height(), level.startX(), level.startY(), level.walls());
+    }
+
+    private SnakeBody(int width, int height, int startX, int startY, long[] walls) {
+        this.width = width;
+        this.height = height;
+        this.maxCapacity = Integer.highestOneBit(Math.max(1, width * height - 1)) << 1;
+        this.cells = new int[Math.min(INITIAL_CAPACITY, maxCapacity)];
+        this.mask = cells.length - 1;
+        this.occupied = new Occupancy(width * height);
+        this.walls = walls;
+        if (walls != null) occupied.setAll(walls);
+        addFirst(startX, startY);
+    }
+
+    /** Shrinks the snake back to a single segment, keeping the grown buffers. */
+    public void reset(int startX, int startY) {
+        clearToWalls();
+        head = 0;
+        length = 0;
+        addFirst(startX, startY);
+    }
+
+    @Override
+    public int width() {
+        return width;
+    }
+
+    @Override
+    public int height() {
+        return height;
+    }
+
+    /** Segments head first, as a fresh array. */
+    int[] copyCells() {
+        int[] copy = new int[length];
+        for (int i = 0; i < length; i++) {
+            copy[i] = cells[(head + i) & mask];
+        }
+        return copy;
+    }
+
+    /** Replaces the whole body with one saved by {@link #copyCells()}. */
+    void restore(int[] body) {
+        clearToWalls();
+        while (cells.length < body.length) grow();
+        head = 0;
+        length = body.length;
+        for (int i = 0; i < length; i++) {
+            cells[i] = body[i];
+            occupied.set(body[i]);
+        }
+    }
+
+    private void clearToWalls() {
+        occupied.clearAll();
+        if (walls != null) occupied.setAll(walls);
+    }
+
+    @Override
+    public int headX() {
+        return cells[head] % width;
+    }
+
+    @Override
+    public int headY() {
+        return cells[head] / width;
+    }
+
+    @Override
+    public int headCell() {
+        return cells[head];
+    }
+
+    @Override
+    public int tailCell() {
+        return cells[(head + length - 1) & mask];
+    }
+
+    @Override
+    public int cellAt(int i) {
+        return cells[(head + i) & mask];
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    public void addFirst(int x, int y) {
+        if (length == cells.length) grow();
+        int cell = y * width + x;
+        head = (head - 1) & mask;
+        cells[head] = cell;
+        occupied.set(cell);
+        length++;
+    }
+
+    /** Doubles the ring, unrolling it so the head is at index 0. */
+    private void grow() {
+        if (cells.length >= maxCapacity) {
+            throw new IllegalStateException("Snake longer than the board: " + length);
+        }
+        int[] bigger = new int[cells.length * 2];
+        for (int i = 0; i < length; i++) {
+            bigger[i] = cells[(head + i) & mask];
+        }
+        cells = bigger;
+        mask = bigger.length - 1;
+        head = 0;
+    }
+
+    /** Removes the tail segment and returns its packed cell, or -1 if the body is empty. */
+    public int removeLast() {
+        if (length == 0) {
+            return -1;
+        }
+        int cell = cells[(head + --length) & mask];
+        occupied.clear(cell);
+        return cell;
+    }
+
+    /** Number of cells neither the snake nor a wall covers. */
+    public int freeCount() {
+        return occupied.freeCount();
+    }
+
+    /**
+     * Picks a uniformly random free cell other than {@code exclude1} and
+     * {@code exclude2} (-1 for none), or returns -1 when there is none.
+     * Draws exactly one {@code nextInt} from {@code random} unless it returns -1.
+     */
+    public int pickFree(RandomGenerator random, int exclude1, int exclude2) {
+        return occupied.pickFree(random, exclude1, exclude2);
+    }
+
+    @Override
+    public boolean checkCollision(int x, int y) {
+        if (x < 0 || x >= width || y < 0 || y >= height) return false;
+        return isOccupied(y * width + x);
+    }
+
+    @Override
+    public boolean isOccupied(int cell) {
+        return occupied.get(cell);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.snakegame.core;
+
+/**
+ * Read-only view of the snake: its segments in order, head first, as packed
+ * cells ({@code y * width + x}), and the occupancy bitmap the engine's
+ * collision checks use. Renderers and bots read the board through this, so
+ * they see the same model the rules do without copying it, and only the
+ * engine can move the snake.
+ * <p>
+ * On a {@link Level} the walls count as occupied too, exactly as the engine
+ * sees them; renderers that draw walls separately check
+ * {@link Level#isWall(int)} first.
+ */
+public interface SnakeView {
+
+    int width();
+
+    int height();
+
+    int length();
+
+    /** Packed index of segment {@code i}, counted from the head. */
+    int cellAt(int i);
+
+    /** Packed index of the head cell. */
+    int headCell();
+
+    /** Packed index of the tail cell. */
+    int tailCell();
+
+    int headX();
+
+    int headY();
+
+    /** Whether the snake, or a wall, covers {@code cell}. */
+    boolean isOccupied(int cell);
+
+    /** Whether the snake or a wall covers ({@code x}, {@code y}); false off the board. */
+    boolean checkCollision(int x, int y);
+}
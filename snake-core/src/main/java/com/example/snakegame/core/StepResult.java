@@ -0,0 +1,18 @@
+package com.example.snakegame.core;
+
+public enum StepResult {
+    MOVED, ATE_FOOD, ATE_BONUS, HIT_WALL, HIT_SELF,
+    /** The snake ate the last food and now covers the whole board: the game is won. */
+    BOARD_FULL,
+    /** step() was called after the game had already ended. */
+    FINISHED;
+
+    public boolean isFatal() {
+        return this == HIT_WALL || this == HIT_SELF;
+    }
+
+    /** True for every result that ends the game, won or lost. */
+    public boolean endsGame() {
+        return isFatal() || this == BOARD_FULL;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.snakegame.core.bot;
+
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first search from the head to the food, treating the current body
+ * as walls. Falls back to the greedy rule when the food is cut off. The
+ * search buffers are allocated once per instance.
+ */
+final class BfsStrategy implements Strategy {
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final int[] queue;
+    private final byte[] firstMove;     // direction index taken from the head, -1 = unvisited
+    private final GreedyStrategy fallback;
+
+    BfsStrategy(int width, int height) {
+        this.queue = new int[width * height];
+        this.firstMove = new byte[width * height];
+        this.fallback = new GreedyStrategy(width, height);
+    }
+
+    @Override
+    public Direction nextMove(GameEngine game) {
+        int start = game.snake().headCell();
+        int goal = game.foodY() * game.width() + game.foodX();
+        Arrays.fill(firstMove, (byte) -1);
+        int read = 0, write = 0;
+
+        for (Direction d : DIRECTIONS) {
+            if (!Moves.isSafe(game, d)) continue;
+            int cell = Moves.target(game, start, d);
+            if (firstMove[cell] >= 0) continue;
+            if (cell == goal) return d;
+            firstMove[cell] = (byte) d.ordinal();
+            queue[write++] = cell;
+        }
+        while (read < write) {
+            int cell = queue[read++];
+            for (Direction d : DIRECTIONS) {
+                int next = Moves.target(game, cell, d);
+                if (next < 0 || next == start || firstMove[next] >= 0 || game.snake().isOccupied(next)) continue;
+                if (next == goal) return DIRECTIONS[firstMove[cell]];
+                firstMove[next] = firstMove[cell];
+                queue[write++] = next;
+            }
+        }
+        return fallback.nextMove(game);
+    }
+}
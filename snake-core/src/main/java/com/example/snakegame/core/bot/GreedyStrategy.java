@@ -0,0 +1,48 @@
+package com.example.snakegame.core.bot;
+
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+
+final class GreedyStrategy implements Strategy {
+    private final int width, height;
+
+    GreedyStrategy(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public Direction nextMove(GameEngine game) {
+        int hx = game.snake().headX(), hy = game.snake().headY();
+        boolean wrap = !game.difficulty().wallsKill();
+        int dx = delta(game.foodX() - hx, width, wrap);
+        int dy = delta(game.foodY() - hy, height, wrap);
+
+        // try the longer axis first, then the other one, then anything that survives
+        Direction primary = Math.abs(dx) >= Math.abs(dy) ? horizontal(dx) : vertical(dy);
+        Direction secondary = Math.abs(dx) >= Math.abs(dy) ? vertical(dy) : horizontal(dx);
+        if (primary != null && Moves.isSafe(game, primary)) return primary;
+        if (secondary != null && Moves.isSafe(game, secondary)) return secondary;
+        for (Direction d : Direction.values()) {
+            if (Moves.isSafe(game, d)) return d;
+        }
+        return game.direction();
+    }
+
+    /** Signed distance along one axis, going round the edge when that is shorter. */
+    private static int delta(int d, int size, boolean wrap) {
+        if (wrap) {
+            if (d > size / 2) d -= size;
+            else if (d < -size / 2) d += size;
+        }
+        return d;
+    }
+
+    private static Direction horizontal(int dx) {
+        return dx > 0 ? Direction.RIGHT : dx < 0 ? Direction.LEFT : null;
+    }
+
+    private static Direction vertical(int dy) {
+        return dy > 0 ? Direction.DOWN : dy < 0 ? Direction.UP : null;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.snakegame.core.bot;
+
+import com.example.snakegame.core.Direction;
+
+/**
+ * A closed path through every cell of a board: row 0 left to right from
+ * x = 1, then snaking through the rows, then back up column 0. A snake that
+ * only ever follows it can never run into itself, on any difficulty.
+ * Needs an even height; boards with an odd height and an even width use the
+ * same path turned on its side.
+ */
+public final class HamiltonianCycle {
+    private final int width;
+    private final int[] order;
+    private final Direction[] next;
+
+    public HamiltonianCycle(int width, int height) {
+        if (height % 2 != 0 && width % 2 != 0) {
+            throw new IllegalArgumentException("No Hamiltonian cycle on an odd x odd board: " + width + "x" + height);
+        }
+        this.width = width;
+        this.order = height % 2 == 0 ? rows(width, height) : transpose(rows(height, width), height, width);
+        this.next = new Direction[order.length];
+        for (int i = 0; i < order.length; i++) {
+            int from = order[i], to = order[(i + 1) % order.length];
+            next[from] = step(to % width - from % width, to / width - from / width);
+        }
+    }
+
+    private static int[] rows(int width, int height) {
+        int[] order = new int[width * height];
+        int n = 0;
+        for (int y = 0; y < height; y++) {
+            if (y % 2 == 0) {
+                for (int x = 1; x < width; x++) order[n++] = y * width + x;
+            } else {
+                for (int x = width - 1; x >= 1; x--) order[n++] = y * width + x;
+            }
+        }
+        for (int y = height - 1; y >= 0; y--) order[n++] = y * width;
+        return order;
+    }
+
+    /** Maps cells of a {@code w x h} path onto the {@code h x w} board by swapping x and y. */
+    private static int[] transpose(int[] order, int w, int h) {
+        int[] out = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            int x = order[i] % w, y = order[i] / w;
+            out[i] = x * h + y;
+        }
+        return out;
+    }
+
+    private static Direction step(int dx, int dy) {
+        for (Direction d : Direction.values()) {
+            if (d.dx == dx && d.dy == dy) return d;
+        }
+        throw new IllegalStateException("cells are not adjacent: " + dx + "," + dy);
+    }
+
+    /** Packed cells in path order. */
+    public int[] order() {
+        return order.clone();
+    }
+
+    /** Direction from {@code cell} to the next cell on the path. */
+    public Direction next(int cell) {
+        return next[cell];
+    }
+
+    public int width() {
+        return width;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.snakegame.core.bot;
+
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+
+final class HamiltonianStrategy implements Strategy {
+    private final HamiltonianCycle cycle;
+
+    HamiltonianStrategy(HamiltonianCycle cycle) {
+        this.cycle = cycle;
+    }
+
+    @Override
+    public Direction nextMove(GameEngine game) {
+        Direction next = cycle.next(game.snake().headCell());
+        if (!next.isOpposite(game.direction())) {
+            return next;
+        }
+        // Only at the very start: the path runs against the initial heading, which
+        // the engine would ignore. Step sideways onto a neighbouring row instead.
+        for (Direction d : Direction.values()) {
+            if (Moves.isSafe(game, d)) return d;
+        }
+        return next;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.snakegame.core.bot;
+
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+
+/** Move checks shared by the strategies, mirroring the engine's own rules. */
+final class Moves {
+    private Moves() {
+    }
+
+    /** Packed target cell of moving {@code d} from {@code cell}, or -1 if that hits a solid wall. */
+    static int target(GameEngine game, int cell, Direction d) {
+        int w = game.width(), h = game.height();
+        int nx = cell % w + d.dx, ny = cell / w + d.dy;
+        if (nx < 0 || nx >= w || ny < 0 || ny >= h) {
+            if (game.difficulty().wallsKill()) return -1;
+            nx = (nx + w) % w;
+            ny = (ny + h) % h;
+        }
+        return ny * w + nx;
+    }
+
+    /** True when moving {@code d} next tick is legal (not a reversal) and does not end the game. */
+    static boolean isSafe(GameEngine game, Direction d) {
+        if (d.isOpposite(game.direction())) return false;
+        int cell = target(game, game.snake().headCell(), d);
+        return cell >= 0 && !game.snake().isOccupied(cell);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.snakegame.core.bot;
+
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+
+/**
+ * An autopilot: picks the direction for the next tick from the current game
+ * state. Instances may keep scratch buffers, so each game gets its own.
+ */
+public interface Strategy {
+    Direction nextMove(GameEngine game);
+}
@@ -0,0 +1,22 @@
+package com.example.snakegame.core.bot;
+
+import java.util.function.BiFunction;
+
+public enum StrategyType {
+    /** Heads straight for the food, only dodging moves that kill on the spot. */
+    GREEDY(GreedyStrategy::new),
+    /** Shortest path to the food around the current body. */
+    BFS(BfsStrategy::new),
+    /** Follows a fixed cycle through every cell; slow but never dies. */
+    HAMILTONIAN((w, h) -> new HamiltonianStrategy(new HamiltonianCycle(w, h)));
+
+    private final BiFunction<Integer, Integer, Strategy> factory;
+
+    StrategyType(BiFunction<Integer, Integer, Strategy> factory) {
+        this.factory = factory;
+    }
+
+    public Strategy create(int width, int height) {
+        return factory.apply(width, height);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.snakegame.core.bot;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.StepResult;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Plays every strategy against every difficulty on the same run of seeds,
+ * headless, spread over a {@link ForkJoinPool}. Game {@code i} of a pairing
+ * uses seed {@code firstSeed + i}, so strategies are compared on identical
+ * food sequences (until their moves make the games diverge) and a run is
+ * reproducible whatever the parallelism.
+ * <p>
+ * The work is the flat range {@code [0, pairings x games)}, halved until a
+ * range is small enough to play in one go. Each leaf keeps its own
+ * {@link TournamentStats} per pairing and the halves are merged as the tasks
+ * join, so workers never write to shared state.
+ * <p>
+ * Run from the command line:
+ * {@code java -cp snake-core.jar com.example.snakegame.core.bot.Tournament [games] [threads] [maxTicks]}
+ */
+public final class Tournament {
+    /** Caps a game that neither wins nor dies (a Hamiltonian run on a big board, a bot stuck in a loop). */
+    public static final long DEFAULT_MAX_TICKS = 200_000;
+    private static final int LEAF_GAMES = 4;
+
+    private final List<StrategyType> strategies;
+    private final List<DifficultyLevel> difficulties;
+    private final int width, height;
+    private final long firstSeed;
+    private final int gamesPerPairing;
+    private final long maxTicks;
+
+    public Tournament(List<StrategyType> strategies, List<DifficultyLevel> difficulties,
+                      int width, int height, long firstSeed, int gamesPerPairing, long maxTicks) {
+        if (strategies.isEmpty() || difficulties.isEmpty() || gamesPerPairing < 1 || maxTicks < 1) {
+            throw new IllegalArgumentException("Need at least one strategy, difficulty, game and tick");
+        }
+        this.strategies = List.copyOf(strategies);
+        this.difficulties = List.copyOf(difficulties);
+        this.width = width;
+        this.height = height;
+        this.firstSeed = firstSeed;
+        this.gamesPerPairing = gamesPerPairing;
+        this.maxTicks = maxTicks;
+    }
+
+    /** Every strategy on every difficulty, on the default board. */
+    public static Tournament standard(int gamesPerPairing, long maxTicks) {
+        return new Tournament(List.of(StrategyType.values()), List.of(DifficultyLevel.values()),
+                GameEngine.DEFAULT_WIDTH, GameEngine.DEFAULT_HEIGHT, 1, gamesPerPairing, maxTicks);
+    }
+
+    /** Plays all games on {@code pool} and returns stats indexed by {@link #pairing}. */
+    public TournamentStats[] run(ForkJoinPool pool) {
+        return pool.invoke(new Slice(0, (long) pairings() * gamesPerPairing));
+    }
+
+    public int pairings() {
+        return strategies.size() * difficulties.size();
+    }
+
+    /** Index of a strategy/difficulty pairing in the array returned by {@link #run}. */
+    public int pairing(StrategyType strategy, DifficultyLevel difficulty) {
+        return strategies.indexOf(strategy) * difficulties.size() + difficulties.indexOf(difficulty);
+    }
+
+    public List<StrategyType> strategies() {
+        return strategies;
+    }
+
+    public List<DifficultyLevel> difficulties() {
+        return difficulties;
+    }
+
+    private TournamentStats[] newStats() {
+        TournamentStats[] stats = new TournamentStats[pairings()];
+        for (int i = 0; i < stats.length; i++) stats[i] = new TournamentStats();
+        return stats;
+    }
+
+    @SuppressWarnings("serial") // never serialized; only forked
+    private final class Slice extends RecursiveTask<TournamentStats[]> {
+        private final long from, to;
+
+        Slice(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected TournamentStats[] compute() {
+            if (to - from <= LEAF_GAMES) {
+                return play();
+            }
+            long mid = (from + to) >>> 1;
+            Slice left = new Slice(from, mid);
+            left.fork();
+            TournamentStats[] right = new Slice(mid, to).compute();
+            TournamentStats[] merged = left.join();
+            for (int i = 0; i < merged.length; i++) merged[i].merge(right[i]);
+            return merged;
+        }
+
+        private TournamentStats[] play() {
+            TournamentStats[] stats = newStats();
+            for (long i = from; i < to; i++) {
+                int pairing = (int) (i / gamesPerPairing);
+                long game = i % gamesPerPairing;
+                StrategyType type = strategies.get(pairing / difficulties.size());
+                DifficultyLevel difficulty = difficulties.get(pairing % difficulties.size());
+                playOne(type.create(width, height), difficulty, firstSeed + game, stats[pairing]);
+            }
+            return stats;
+        }
+    }
+
+    /** One headless game: the same engine rules the UI runs, one bot move per tick. */
+    private void playOne(Strategy bot, DifficultyLevel difficulty, long seed, TournamentStats into) {
+        GameEngine game = new GameEngine(width, height, difficulty, seed);
+        StepResult result = StepResult.MOVED;
+        while (!result.endsGame() && game.tick() < maxTicks) {
+            result = game.step(bot.nextMove(game));
+        }
+        into.record(result, game.score(), game.snake().length(), game.tick());
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long maxTicks = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_MAX_TICKS;
+
+        Tournament tournament = standard(games, maxTicks);
+        TournamentStats[] stats;
+        long start = System.nanoTime();
+        try (ForkJoinPool pool = new ForkJoinPool(threads)) {
+            stats = tournament.run(pool);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games per pairing on %d thread(s), %dx%d board, tick limit %d%n",
+                games, threads, GameEngine.DEFAULT_WIDTH, GameEngine.DEFAULT_HEIGHT, maxTicks);
+        System.out.printf("%-12s %-7s %9s %8s %6s %6s %5s %5s %5s %8s %7s%n",
+                "strategy", "level", "score", "sd", "max", "len", "win", "wall", "self", "ticks", "t/o");
+        long totalTicks = 0, totalGames = 0;
+        for (StrategyType type : tournament.strategies()) {
+            for (DifficultyLevel level : tournament.difficulties()) {
+                TournamentStats s = stats[tournament.pairing(type, level)];
+                System.out.printf("%-12s %-7s %9.2f %8.2f %6d %6.1f %5d %5d %5d %8.0f %7d%n",
+                        type, level.displayName(), s.meanScore(), s.scoreStdDev(), s.maxScore(),
+                        s.meanLength(), s.wins(), s.wallDeaths(), s.selfDeaths(), s.meanTicks(), s.timeouts());
+                totalTicks += s.totalTicks();
+                totalGames += s.games();
+            }
+        }
+        System.out.printf("%d games, %d ticks in %.2f s: %.0f games/s, %.1fM ticks/s%n",
+                totalGames, totalTicks, seconds, totalGames / seconds, totalTicks / seconds / 1e6);
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.snakegame.core.bot;
+
+import com.example.snakegame.core.StepResult;
+
+/**
+ * Results of many games of one strategy on one difficulty. Each fork-join leaf
+ * fills its own instances and the parents {@link #merge} them on the way up,
+ * so no counter is ever shared between threads.
+ */
+public final class TournamentStats {
+    private long games;
+    private long wins;
+    private long wallDeaths;
+    private long selfDeaths;
+    private long timeouts;
+    private long scoreSum, scoreMax, scoreSquares;
+    private long lengthSum, lengthMax;
+    private long tickSum, tickMax;
+
+    TournamentStats() {
+    }
+
+    void record(StepResult outcome, int score, int length, long ticks) {
+        games++;
+        switch (outcome) {
+            case BOARD_FULL -> wins++;
+            case HIT_WALL -> wallDeaths++;
+            case HIT_SELF -> selfDeaths++;
+            default -> timeouts++;
+        }
+        scoreSum += score;
+        scoreSquares += (long) score * score;
+        scoreMax = Math.max(scoreMax, score);
+        lengthSum += length;
+        lengthMax = Math.max(lengthMax, length);
+        tickSum += ticks;
+        tickMax = Math.max(tickMax, ticks);
+    }
+
+    void merge(TournamentStats other) {
+        games += other.games;
+        wins += other.wins;
+        wallDeaths += other.wallDeaths;
+        selfDeaths += other.selfDeaths;
+        timeouts += other.timeouts;
+        scoreSum += other.scoreSum;
+        scoreSquares += other.scoreSquares;
+        scoreMax = Math.max(scoreMax, other.scoreMax);
+        lengthSum += other.lengthSum;
+        lengthMax = Math.max(lengthMax, other.lengthMax);
+        tickSum += other.tickSum;
+        tickMax = Math.max(tickMax, other.tickMax);
+    }
+
+    public long games() {
+        return games;
+    }
+
+    /** Games that filled the board. */
+    public long wins() {
+        return wins;
+    }
+
+    public long wallDeaths() {
+        return wallDeaths;
+    }
+
+    public long selfDeaths() {
+        return selfDeaths;
+    }
+
+    /** Games still running when the tick limit was reached. */
+    public long timeouts() {
+        return timeouts;
+    }
+
+    public double meanScore() {
+        return games == 0 ? 0 : (double) scoreSum / games;
+    }
+
+    public double scoreStdDev() {
+        if (games == 0) return 0;
+        double mean = meanScore();
+        return Math.sqrt(Math.max(0, (double) scoreSquares / games - mean * mean));
+    }
+
+    public long maxScore() {
+        return scoreMax;
+    }
+
+    public double meanLength() {
+        return games == 0 ? 0 : (double) lengthSum / games;
+    }
+
+    public long maxLength() {
+        return lengthMax;
+    }
+
+    public double meanTicks() {
+        return games == 0 ? 0 : (double) tickSum / games;
+    }
+
+    public long maxTicks() {
+        return tickMax;
+    }
+
+    /** Ticks simulated across all games, for throughput figures. */
+    public long totalTicks() {
+        return tickSum;
+    }
+}
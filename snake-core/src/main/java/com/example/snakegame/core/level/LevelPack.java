@@ -0,0 +1,395 @@
+package com.example.snakegame.core.level;
+
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.Level;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A file of {@link Level}s. Opening one reads only the index (names and
+ * record sizes); a level is read and decoded the first time it is asked for
+ * and kept in a small LRU cache, so a pack of hundreds of big levels costs the
+ * memory of the few last played.
+ * <p>
+ * File layout: the magic {@code SNKL}, a version byte and the index size as
+ * an int; the index is the level count as a varint, then per level its name
+ * ({@code writeUTF}) and record size as a varint. The records follow in index
+ * order: width, height, start x and y as varints, the start {@link Direction}
+ * ordinal as a byte, then the walls as run lengths over the cells in row
+ * order, alternating free and wall and starting with free, as a varint count
+ * and one varint per run. Open space is one run, so a bordered 30x18 level
+ * with a few obstacles is a few dozen bytes.
+ * <p>
+ * Packs are written from a text source by {@link #compile}: {@code level
+ * <name>} starts a level, the lines after it up to a blank line are its rows,
+ * {@code #} is a wall, {@code .} or a space is open, and one of
+ * {@code > < ^ v} (or {@code S}, facing right) marks the start. Lines
+ * starting with {@code ;} are comments. Without a start the snake starts in
+ * the middle facing right.
+ * <p>
+ * Run from the command line:
+ * {@code java -cp snake-core.jar com.example.snakegame.core.level.LevelPack compile <levels.txt> <pack.snkl>}
+ * or {@code ... list <pack.snkl>}
+ */
+public final class LevelPack implements AutoCloseable {
+    public static final int DEFAULT_CACHE_SIZE = 8;
+    private static final int MAGIC = 0x534E4B4C;   // "SNKL"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 9;
+
+    private final FileChannel channel;
+    private final List<String> names;
+    private final Map<String, Integer> byName = new HashMap<>();
+    private final long[] offsets;
+    private final int[] sizes;
+    private final LinkedHashMap<Integer, Level> cache;
+    private long hits, misses;
+
+    private LevelPack(FileChannel channel, List<String> names, long[] offsets, int[] sizes, int cacheSize) {
+        this.channel = channel;
+        this.names = List.copyOf(names);
+        this.offsets = offsets;
+        this.sizes = sizes;
+        for (int i = 0; i < names.size(); i++) byName.putIfAbsent(names.get(i), i);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Level> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    public static LevelPack open(Path file) throws IOException {
+        return open(file, DEFAULT_CACHE_SIZE);
+    }
+
+    /** Reads the index of {@code file}; at most {@code cacheSize} decoded levels are kept. */
+    public static LevelPack open(Path file, int cacheSize) throws IOException {
+        if (cacheSize < 1) throw new IllegalArgumentException("cacheSize must be positive: " + cacheSize);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, 0);
+            if (header.getInt(0) != MAGIC) throw new IOException("Not a level pack: " + file);
+            int version = header.get(4) & 0xFF;
+            if (version != VERSION) throw new IOException("Unsupported level pack version " + version);
+            int indexBytes = header.getInt(5);
+            if (indexBytes < 0 || HEADER_BYTES + (long) indexBytes > channel.size()) {
+                throw new IOException("Truncated level pack: " + file);
+            }
+            ByteBuffer index = ByteBuffer.allocate(indexBytes);
+            readFully(channel, index, HEADER_BYTES);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(index.array()));
+            long entries = readVarint(in);
+            // every entry takes at least three bytes of the index
+            if (entries < 0 || entries > indexBytes / 3) throw new IOException("Bad level count in " + file);
+            int count = (int) entries;
+            List<String> names = new ArrayList<>(count);
+            long[] offsets = new long[count];
+            int[] sizes = new int[count];
+            long offset = HEADER_BYTES + (long) indexBytes;
+            for (int i = 0; i < count; i++) {
+                names.add(in.readUTF());
+                long size = readVarint(in);
+                if (size < 0 || size > channel.size()) throw new IOException("Bad level record size in " + file);
+                sizes[i] = (int) size;
+                offsets[i] = offset;
+                offset += sizes[i];
+            }
+            if (offset > channel.size()) throw new IOException("Truncated level pack: " + file);
+            return new LevelPack(channel, names, offsets, sizes, cacheSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    /** Level names in pack order. */
+    public List<String> names() {
+        return names;
+    }
+
+    /** Index of the first level called {@code name}, or -1. */
+    public int indexOf(String name) {
+        return byName.getOrDefault(name, -1);
+    }
+
+    /** Level {@code i}, from the cache or read and decoded now. */
+    public synchronized Level level(int i) throws IOException {
+        Level level = cache.get(i);
+        if (level != null) {
+            hits++;
+            return level;
+        }
+        misses++;
+        ByteBuffer record = ByteBuffer.allocate(sizes[i]);
+        readFully(channel, record, offsets[i]);
+        try {
+            level = decode(names.get(i), new DataInputStream(new ByteArrayInputStream(record.array())));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Bad level '" + names.get(i) + "': " + e.getMessage(), e);
+        }
+        cache.put(i, level);
+        return level;
+    }
+
+    public Level level(String name) throws IOException {
+        int i = indexOf(name);
+        if (i < 0) throw new IllegalArgumentException("No level called '" + name + "'");
+        return level(i);
+    }
+
+    /** Decoded levels held right now. */
+    public synchronized int cached() {
+        return cache.size();
+    }
+
+    public synchronized long hits() {
+        return hits;
+    }
+
+    public synchronized long misses() {
+        return misses;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer into, long position) throws IOException {
+        while (into.hasRemaining()) {
+            if (channel.read(into, position + into.position()) < 0) throw new EOFException("Truncated level pack");
+        }
+    }
+
+    /* ----------  encoding  ---------- */
+
+    private static Level decode(String name, DataInputStream in) throws IOException {
+        long width = readVarint(in), height = readVarint(in);
+        // before anything is sized from them: a corrupt record must not ask for a huge bitmap
+        if (width < 2 || height < 2 || width > GameEngine.MAX_SIDE || height > GameEngine.MAX_SIDE) {
+            throw new IOException("Bad level size " + Long.toUnsignedString(width) + "x"
+                    + Long.toUnsignedString(height));
+        }
+        long startX = readVarint(in), startY = readVarint(in);
+        if (startX >= width || startY >= height || startX < 0 || startY < 0) {
+            throw new IOException("Start off the board: (" + startX + ", " + startY + ")");
+        }
+        int dir = in.readUnsignedByte();
+        if (dir >= Direction.values().length) throw new IOException("Bad start direction " + dir);
+        int cells = (int) (width * height);
+        long[] walls = new long[(cells + 63) >>> 6];
+        int runs = (int) readVarint(in);
+        long cell = 0;
+        for (int r = 0; r < runs; r++) {
+            long run = readVarint(in);
+            if (run < 0 || cell + run > cells) throw new IOException("Wall runs go past the last cell");
+            if ((r & 1) == 1) setRange(walls, (int) cell, (int) (cell + run));
+            cell += run;
+        }
+        return new Level(name, (int) width, (int) height, walls, (int) startX, (int) startY, Direction.values()[dir]);
+    }
+
+    private static void setRange(long[] bits, int from, int to) {
+        for (int c = from; c < to; ) {
+            int w = c >>> 6, end = Math.min(to, (w + 1) << 6);
+            long mask = (end - c == 64 ? -1L : ((1L << (end - c)) - 1)) << c;
+            bits[w] |= mask;
+            c = end;
+        }
+    }
+
+    private static byte[] encode(Level level) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeVarint(out, level.width());
+        writeVarint(out, level.height());
+        writeVarint(out, level.startX());
+        writeVarint(out, level.startY());
+        out.writeByte(level.startDirection().ordinal());
+        List<Integer> runs = new ArrayList<>();
+        int cells = level.width() * level.height();
+        boolean wall = false;
+        int run = 0;
+        for (int c = 0; c < cells; c++) {
+            if (level.isWall(c) != wall) {
+                runs.add(run);
+                wall = !wall;
+                run = 0;
+            }
+            run++;
+        }
+        if (wall) runs.add(run);    // a trailing open run is implied
+        writeVarint(out, runs.size());
+        for (int r : runs) writeVarint(out, r);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /** Writes {@code levels} as a pack, replacing {@code file}. */
+    public static void write(List<Level> levels, Path file) throws IOException {
+        ByteArrayOutputStream index = new ByteArrayOutputStream();
+        DataOutputStream idx = new DataOutputStream(index);
+        List<byte[]> records = new ArrayList<>(levels.size());
+        writeVarint(idx, levels.size());
+        for (Level level : levels) {
+            byte[] record = encode(level);
+            records.add(record);
+            idx.writeUTF(level.name());
+            writeVarint(idx, record.length);
+        }
+        idx.flush();
+        try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(file))) {
+            DataOutputStream out = new DataOutputStream(os);
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(index.size());
+            index.writeTo(out);
+            for (byte[] record : records) out.write(record);
+            out.flush();
+        }
+    }
+
+    /** Reads the text level format described above. */
+    public static List<Level> parse(BufferedReader in) throws IOException {
+        List<Level> levels = new ArrayList<>();
+        String name = null;
+        List<String> rows = new ArrayList<>();
+        int lineNo = 0;
+        for (String line; ; ) {
+            line = in.readLine();
+            lineNo++;
+            boolean end = line == null || line.isBlank() || line.startsWith("level ");
+            if (end && name != null) {
+                if (rows.isEmpty()) throw new IOException("Level '" + name + "' has no rows (line " + lineNo + ")");
+                levels.add(fromRows(name, rows));
+                name = null;
+                rows.clear();
+            }
+            if (line == null) break;
+            if (line.startsWith(";")) continue;
+            if (line.startsWith("level ")) {
+                name = line.substring(6).trim();
+            } else if (!line.isBlank()) {
+                if (name == null) throw new IOException("Row outside a level at line " + lineNo + ": " + line);
+                rows.add(line);
+            }
+        }
+        return levels;
+    }
+
+    private static Level fromRows(String name, List<String> rows) {
+        int width = 0;
+        for (String row : rows) width = Math.max(width, row.length());
+        int height = rows.size();
+        if (width < 2 || height < 2 || width > GameEngine.MAX_SIDE || height > GameEngine.MAX_SIDE) {
+            throw new IllegalArgumentException("Level '" + name + "' must be between 2x2 and "
+                    + GameEngine.MAX_SIDE + "x" + GameEngine.MAX_SIDE + ": " + width + "x" + height);
+        }
+        long[] walls = new long[(width * height + 63) >>> 6];
+        int startX = width / 2, startY = height / 2;
+        Direction start = Direction.RIGHT;
+        boolean started = false;
+        for (int y = 0; y < height; y++) {
+            String row = rows.get(y);
+            for (int x = 0; x < row.length(); x++) {
+                char ch = row.charAt(x);
+                Direction facing = switch (ch) {
+                    case '>', 'S' -> Direction.RIGHT;
+                    case '<' -> Direction.LEFT;
+                    case '^' -> Direction.UP;
+                    case 'v' -> Direction.DOWN;
+                    default -> null;
+                };
+                if (facing != null) {
+                    if (started) throw new IllegalArgumentException("Level '" + name + "' has two starts");
+                    started = true;
+                    startX = x;
+                    startY = y;
+                    start = facing;
+                } else if (ch == '#') {
+                    int cell = y * width + x;
+                    walls[cell >>> 6] |= 1L << cell;
+                } else if (ch != '.' && ch != ' ') {
+                    throw new IllegalArgumentException("Level '" + name + "': unknown tile '" + ch + "' at ("
+                            + x + ", " + y + ")");
+                }
+            }
+        }
+        return new Level(name, width, height, walls, startX, startY, start);
+    }
+
+    /** Parses the text levels in {@code source} and writes them to {@code pack}. */
+    public static List<Level> compile(Path source, Path pack) throws IOException {
+        List<Level> levels;
+        try (BufferedReader in = Files.newBufferedReader(source, StandardCharsets.UTF_8)) {
+            levels = parse(in);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(source + ": " + e.getMessage(), e);
+        }
+        write(levels, pack);
+        return levels;
+    }
+
+    private static void writeVarint(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new EOFException("Malformed varint");
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("compile")) {
+            List<Level> levels = compile(Path.of(args[1]), Path.of(args[2]));
+            System.out.printf("%d levels, %d bytes%n", levels.size(), Files.size(Path.of(args[2])));
+        } else if (args.length == 2 && args[0].equals("list")) {
+            try (LevelPack pack = open(Path.of(args[1]))) {
+                for (int i = 0; i < pack.size(); i++) {
+                    Level level = pack.level(i);
+                    System.out.printf("%-20s %4dx%-4d %6d walls, start (%d, %d) %s%n", level.name(),
+                            level.width(), level.height(), level.wallCount(), level.startX(), level.startY(),
+                            level.startDirection());
+                }
+            }
+        } else {
+            System.err.println("Usage: LevelPack compile <levels.txt> <pack.snkl> | list <pack.snkl>");
+            System.exit(2);
+        }
+    }
+}
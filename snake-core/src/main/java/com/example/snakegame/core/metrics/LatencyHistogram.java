@@ -0,0 +1,121 @@
+package com.example.snakegame.core.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size log-linear histogram of nanosecond durations, in the style of
+ * HdrHistogram: values below 64 get a bucket each, and every power of two
+ * above that is split into 32 equal sub-buckets, so any recorded value is
+ * reported within about 3%. Recording is a few shifts and one array
+ * increment; nothing is allocated after construction.
+ * <p>
+ * Not thread-safe: one thread records, and readers on other threads should
+ * go through {@link #copyInto(LatencyHistogram)} under their own locking.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;      // 64
+    private static final int HALF = SUB_COUNT / 2;           // 32
+    private static final int MAGNITUDES = 64 - SUB_BITS + 1;
+    private static final int BUCKETS = (MAGNITUDES + 1) * HALF;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    private long sum;
+
+    /** An empty histogram. */
+    public LatencyHistogram() {
+    }
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[indexOf(value)]++;
+        count++;
+        sum += value;
+        if (value < min) min = value;
+        if (value > max) max = value;
+    }
+
+    private static int indexOf(long value) {
+        int magnitude = Math.max(0, (63 - Long.numberOfLeadingZeros(value)) - (SUB_BITS - 1));
+        return magnitude * HALF + (int) (value >>> magnitude);
+    }
+
+    /** Upper bound of the values that land in bucket {@code index}. */
+    private static long highestValueAt(int index) {
+        if (index < SUB_COUNT) return index;
+        int magnitude = index / HALF - 1;
+        long sub = index - (long) magnitude * HALF;
+        return ((sub + 1) << magnitude) - 1;
+    }
+
+    /**
+     * Value at the given percentile (0..100), reported as the upper bound of
+     * its bucket and never above the largest recorded value; 0 when empty.
+     */
+    public long percentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestValueAt(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public long min() {
+        return count == 0 ? 0 : min;
+    }
+
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /** Count of recorded values above {@code threshold}, to bucket precision. */
+    public long countAbove(long threshold) {
+        long above = 0;
+        for (int i = indexOf(Math.max(0, threshold)) + 1; i < BUCKETS; i++) {
+            above += counts[i];
+        }
+        return above;
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public void copyInto(LatencyHistogram target) {
+        System.arraycopy(counts, 0, target.counts, 0, BUCKETS);
+        target.count = count;
+        target.sum = sum;
+        target.min = min;
+        target.max = max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+}
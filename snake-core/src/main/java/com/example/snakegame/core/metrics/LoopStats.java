@@ -0,0 +1,160 @@
+package com.example.snakegame.core.metrics;
+
+import java.util.Locale;
+
+/**
+ * Timing of a frame-driven game loop: how long updates and renders take, how
+ * far apart frames arrive, how far apart ticks actually run compared with
+ * the configured tick interval, how long a key press waits before the
+ * snake turns, and how long triggering a sound effect takes. Every sample
+ * goes into a {@link LatencyHistogram}, so recording never allocates. Meant
+ * to be fed and read from the loop's own thread.
+ */
+public final class LoopStats {
+    private final long tickNanos;
+    private final LatencyHistogram frameInterval = new LatencyHistogram();
+    private final LatencyHistogram update = new LatencyHistogram();
+    private final LatencyHistogram render = new LatencyHistogram();
+    private final LatencyHistogram tickInterval = new LatencyHistogram();
+    private final LatencyHistogram input = new LatencyHistogram();
+    private final LatencyHistogram sound = new LatencyHistogram();
+    private long lastFrame = -1;
+    private long lastTick = -1;
+    private long lateTicks;
+    private long droppedTicks;
+
+    public LoopStats(long tickNanos) {
+        this.tickNanos = tickNanos;
+    }
+
+    public void frame(long now) {
+        if (lastFrame >= 0) frameInterval.record(now - lastFrame);
+        lastFrame = now;
+    }
+
+    /**
+     * A tick ran in the frame stamped {@code now}. It counts as late when it
+     * came more than half an interval after it was due.
+     */
+    public void tick(long now) {
+        if (lastTick >= 0) {
+            long interval = now - lastTick;
+            tickInterval.record(interval);
+            if (interval > tickNanos + tickNanos / 2) lateTicks++;
+        }
+        lastTick = now;
+    }
+
+    public void update(long nanos) {
+        update.record(nanos);
+    }
+
+    public void render(long nanos) {
+        render.record(nanos);
+    }
+
+    /** A queued turn was applied {@code nanos} after its key press. */
+    public void input(long nanos) {
+        input.record(nanos);
+    }
+
+    /** A sound effect took {@code nanos} from its trigger to starting playback. */
+    public void sound(long nanos) {
+        sound.record(nanos);
+    }
+
+    /** Total ticks the scheduler skipped so far (it keeps its own running count). */
+    public void droppedTicks(long total) {
+        droppedTicks = total;
+    }
+
+    public long tickNanos() {
+        return tickNanos;
+    }
+
+    public LatencyHistogram frameInterval() {
+        return frameInterval;
+    }
+
+    public LatencyHistogram updateTime() {
+        return update;
+    }
+
+    public LatencyHistogram renderTime() {
+        return render;
+    }
+
+    public LatencyHistogram tickInterval() {
+        return tickInterval;
+    }
+
+    public LatencyHistogram inputLatency() {
+        return input;
+    }
+
+    public LatencyHistogram soundLatency() {
+        return sound;
+    }
+
+    public long lateTicks() {
+        return lateTicks;
+    }
+
+    public long droppedTicks() {
+        return droppedTicks;
+    }
+
+    public void reset() {
+        frameInterval.reset();
+        update.reset();
+        render.reset();
+        tickInterval.reset();
+        input.reset();
+        sound.reset();
+        lastFrame = -1;
+        lastTick = -1;
+        lateTicks = 0;
+        droppedTicks = 0;
+    }
+
+    /** Overlay text: one line per histogram plus the tick counters. */
+    public String[] summaryLines() {
+        return new String[]{
+                line("frame ", frameInterval),
+                line("update", update),
+                line("render", render),
+                line("tick  ", tickInterval),
+                line("input ", input),
+                line("sound ", sound),
+                String.format(Locale.ROOT, "target %.1fms  late %d  dropped %d",
+                        tickNanos / 1e6, lateTicks, droppedTicks)
+        };
+    }
+
+    private static String line(String label, LatencyHistogram h) {
+        return String.format(Locale.ROOT, "%s p50 %7.2f  p99 %7.2f  max %7.2f ms", label,
+                h.percentile(50) / 1e6, h.percentile(99) / 1e6, h.max() / 1e6);
+    }
+
+    /** One tab-separated record for the stats dump, times in microseconds. */
+    public String toLogLine(long timestampMillis, String label) {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append(timestampMillis).append('\t').append(label)
+                .append("\ttarget_us=").append(tickNanos / 1000);
+        append(sb, "frame", frameInterval);
+        append(sb, "update", update);
+        append(sb, "render", render);
+        append(sb, "tick", tickInterval);
+        append(sb, "input", input);
+        append(sb, "sound", sound);
+        sb.append("\tlate=").append(lateTicks).append("\tdropped=").append(droppedTicks);
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String name, LatencyHistogram h) {
+        sb.append('\t').append(name).append("_n=").append(h.count())
+                .append('\t').append(name).append("_p50_us=").append(h.percentile(50) / 1000)
+                .append('\t').append(name).append("_p99_us=").append(h.percentile(99) / 1000)
+                .append('\t').append(name).append("_max_us=").append(h.max() / 1000);
+    }
+}
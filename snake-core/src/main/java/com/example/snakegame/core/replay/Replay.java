@@ -0,0 +1,236 @@
+package com.example.snakegame.core.replay;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.StepResult;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A recorded game: the board, difficulty and seed, plus the few things that
+ * happened which the rules can't work out on their own — the ticks where the
+ * snake turned — and the bonus spawns and final result as checkpoints that
+ * playback verifies. Everything else follows from the deterministic engine.
+ * <p>
+ * File layout: the magic {@code SNKR}, a version byte, the board size as
+ * varints, the difficulty ordinal, the 8-byte seed and the event count, then
+ * one varint per event holding {@code tickDelta << 3 | kind}. Kinds 0..3 are a
+ * turn to that {@link Direction} ordinal, 4 is a bonus spawn followed by its
+ * cell, 5 is the end followed by the result ordinal and score, and 6 marks
+ * where a recording of an abandoned game stopped. A turn usually
+ * costs one or two bytes, so a whole game is a few hundred.
+ */
+public final class Replay {
+    private static final int MAGIC = 0x534E4B52;   // "SNKR"
+    private static final int VERSION = 2;   // 2: free cells picked by rank, not by index order
+    static final int BONUS = 4, END = 5, STOP = 6;
+    private static final int KIND_BITS = 3;
+    /** At most one turn per tick: room for any game {@link ScoreVerifier#DEFAULT_MAX_TICKS} lets through. */
+    static final int MAX_EVENTS = 1 << 25;
+
+    private final int width, height;
+    private final DifficultyLevel difficulty;
+    private final long seed;
+    private final long[] ticks;
+    private final byte[] kinds;
+    private final int[] cells;
+    private final int count;
+    private final StepResult result;   // null when the recording stopped mid-game
+    private final int score;
+    private final long lastTick;
+
+    Replay(int width, int height, DifficultyLevel difficulty, long seed,
+           long[] ticks, byte[] kinds, int[] cells, int count,
+           StepResult result, int score, long lastTick) {
+        this.width = width;
+        this.height = height;
+        this.difficulty = difficulty;
+        this.seed = seed;
+        this.ticks = ticks;
+        this.kinds = kinds;
+        this.cells = cells;
+        this.count = count;
+        this.result = result;
+        this.score = score;
+        this.lastTick = lastTick;
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    public DifficultyLevel difficulty() {
+        return difficulty;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    /** How the game ended, or null if it was abandoned before the end. */
+    public StepResult result() {
+        return result;
+    }
+
+    /** Final score as recorded; only meaningful when {@link #result()} is set. */
+    public int score() {
+        return score;
+    }
+
+    /** Tick of the last recorded event: the end of the game, or where recording stopped. */
+    public long lastTick() {
+        return lastTick;
+    }
+
+    int eventCount() {
+        return count;
+    }
+
+    long tickAt(int i) {
+        return ticks[i];
+    }
+
+    int kindAt(int i) {
+        return kinds[i];
+    }
+
+    int cellAt(int i) {
+        return cells[i];
+    }
+
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        writeVarint(data, width);
+        writeVarint(data, height);
+        data.writeByte(difficulty.ordinal());
+        data.writeLong(seed);
+        writeVarint(data, count + 1);
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            writeVarint(data, (ticks[i] - previous) << KIND_BITS | kinds[i]);
+            if (kinds[i] == BONUS) writeVarint(data, cells[i]);
+            previous = ticks[i];
+        }
+        if (result != null) {
+            writeVarint(data, (lastTick - previous) << KIND_BITS | END);
+            data.writeByte(result.ordinal());
+            writeVarint(data, score);
+        } else {
+            writeVarint(data, (lastTick - previous) << KIND_BITS | STOP);
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a replay written by {@link #write}. Anything that isn't one, from a
+     * truncated file to out-of-range fields, is an {@link IOException}; the
+     * event arrays grow with what is actually read rather than trusting the
+     * count in the header.
+     */
+    public static Replay read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) throw new IOException("Not a replay file");
+        int version = data.readUnsignedByte();
+        if (version != VERSION) throw new IOException("Unsupported replay version " + version);
+        long width = readVarint(data), height = readVarint(data);
+        if (width < 2 || height < 2 || width > GameEngine.MAX_SIDE || height > GameEngine.MAX_SIDE) {
+            throw new IOException("Bad board size " + width + "x" + height);
+        }
+        DifficultyLevel difficulty = ordinal(DifficultyLevel.values(), data.readUnsignedByte(), "difficulty");
+        long seed = data.readLong();
+        long events = readVarint(data);
+        if (events < 1 || events > MAX_EVENTS) throw new IOException("Bad event count " + events);
+
+        int capacity = (int) Math.min(events, 64);
+        long[] ticks = new long[capacity];
+        byte[] kinds = new byte[capacity];
+        int[] cells = new int[capacity];
+        int count = 0;
+        StepResult result = null;
+        int score = 0;
+        long tick = 0;
+        for (long i = 0; i < events; i++) {
+            long v = readVarint(data);
+            tick += v >>> KIND_BITS;
+            if (tick < 0) throw new IOException("Tick overflow after event " + i);
+            int kind = (int) (v & ((1 << KIND_BITS) - 1));
+            if (kind == END) {
+                result = ordinal(StepResult.values(), data.readUnsignedByte(), "result");
+                long s = readVarint(data);
+                if (s > Integer.MAX_VALUE) throw new IOException("Bad score " + s);
+                score = (int) s;
+                break;
+            }
+            if (kind == STOP) break;
+            if (kind > BONUS) throw new IOException("Bad event kind " + kind + " at tick " + tick);
+            int cell = -1;
+            if (kind == BONUS) {
+                long c = readVarint(data);
+                if (c >= width * height) throw new IOException("Bonus off the board at tick " + tick);
+                cell = (int) c;
+            }
+            if (count == ticks.length) {
+                ticks = Arrays.copyOf(ticks, count * 2);
+                kinds = Arrays.copyOf(kinds, count * 2);
+                cells = Arrays.copyOf(cells, count * 2);
+            }
+            ticks[count] = tick;
+            kinds[count] = (byte) kind;
+            cells[count] = cell;
+            count++;
+        }
+        return new Replay((int) width, (int) height, difficulty, seed, ticks, kinds, cells, count, result, score, tick);
+    }
+
+    private static <E extends Enum<E>> E ordinal(E[] values, int ordinal, String what) throws IOException {
+        if (ordinal >= values.length) throw new IOException("Bad " + what + " " + ordinal);
+        return values[ordinal];
+    }
+
+    public void save(Path file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(out);
+        }
+    }
+
+    public static Replay load(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return read(in);
+        }
+    }
+
+    private static void writeVarint(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static long readVarint(DataInputStream in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new EOFException("Malformed varint");
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.snakegame.core.replay;
+
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.GameListener;
+import com.example.snakegame.core.StepResult;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feeds a {@link Replay} back through a fresh {@link GameEngine}, one tick per
+ * {@link #step()}, so the caller sets the speed (or none: {@link #playToEnd()}).
+ * Each bonus spawn and the final result are checked against the recording;
+ * a mismatch throws {@link IllegalStateException}.
+ * <p>
+ * Every {@link #KEYFRAME_INTERVAL} ticks the engine state is snapshotted the
+ * first time playback passes, so {@link #seek(long)} restores the nearest
+ * keyframe and replays at most one interval instead of starting from tick 0.
+ */
+public final class ReplayPlayer {
+    public static final int KEYFRAME_INTERVAL = 256;
+
+    private final Replay replay;
+    private final GameEngine engine;
+    private final List<Keyframe> keyframes = new ArrayList<>();
+    private GameListener listener = GameListener.NONE;
+    private int nextEvent;
+    private int placedBonus;
+
+    private record Keyframe(GameEngine.Snapshot state, int nextEvent) {
+    }
+
+    public ReplayPlayer(Replay replay) {
+        this.replay = replay;
+        this.engine = new GameEngine(replay.width(), replay.height(), replay.difficulty(), replay.seed());
+        engine.setListener(new Checker());
+        keyframes.add(new Keyframe(engine.snapshot(), 0));
+    }
+
+    /** The engine being driven; read it for rendering, but don't step it directly. */
+    public GameEngine engine() {
+        return engine;
+    }
+
+    public Replay replay() {
+        return replay;
+    }
+
+    /** Receives the engine's events during playback, e.g. a view. */
+    public void setListener(GameListener listener) {
+        this.listener = listener == null ? GameListener.NONE : listener;
+        engine.setListener(GameListener.both(new Checker(), this.listener));
+    }
+
+    public boolean isFinished() {
+        return engine.isGameOver() || engine.tick() >= replay.lastTick();
+    }
+
+    /** Plays one tick; returns {@link StepResult#FINISHED} once the recording is used up. */
+    public StepResult step() {
+        if (isFinished()) {
+            return StepResult.FINISHED;
+        }
+        long tick = engine.tick() + 1;
+        Direction turn = null;
+        int expectedBonus = -1;
+        int i = nextEvent;
+        for (; i < replay.eventCount() && replay.tickAt(i) == tick; i++) {
+            if (replay.kindAt(i) == Replay.BONUS) expectedBonus = replay.cellAt(i);
+            else turn = Direction.values()[replay.kindAt(i)];
+        }
+        nextEvent = i;
+        placedBonus = -1;
+
+        StepResult result = engine.step(turn);
+
+        if (placedBonus != expectedBonus) {
+            throw diverged("bonus at cell " + placedBonus + ", recorded " + expectedBonus);
+        }
+        if (result.endsGame() && replay.result() != null
+                && (result != replay.result() || engine.score() != replay.score() || tick != replay.lastTick())) {
+            throw diverged(result + " with score " + engine.score() + ", recorded "
+                    + replay.result() + " with score " + replay.score() + " at tick " + replay.lastTick());
+        }
+        if (tick % KEYFRAME_INTERVAL == 0 && tick / KEYFRAME_INTERVAL == keyframes.size()) {
+            keyframes.add(new Keyframe(engine.snapshot(), nextEvent));
+        }
+        return result;
+    }
+
+    /** Plays to the end as fast as possible and returns the final result. */
+    public StepResult playToEnd() {
+        StepResult last = StepResult.FINISHED;
+        while (!isFinished()) {
+            last = step();
+        }
+        return last;
+    }
+
+    /** Moves playback to {@code tick}, backwards or forwards (clamped to the recording). */
+    public void seek(long tick) {
+        tick = Math.max(0, Math.min(tick, replay.lastTick()));
+        int k = (int) Math.min(tick / KEYFRAME_INTERVAL, keyframes.size() - 1);
+        Keyframe keyframe = keyframes.get(k);
+        if (tick < engine.tick() || keyframe.state().tick() > engine.tick()) {
+            engine.restore(keyframe.state());
+            nextEvent = keyframe.nextEvent();
+        }
+        while (engine.tick() < tick && !isFinished()) {
+            step();
+        }
+    }
+
+    private IllegalStateException diverged(String what) {
+        return new IllegalStateException("Replay diverged at tick " + engine.tick() + ": " + what);
+    }
+
+    private final class Checker implements GameListener {
+        @Override
+        public void onBonusPlaced(int cell) {
+            placedBonus = cell;
+        }
+    }
+
+    /**
+     * Replays files headless at full speed and prints how each game ended:
+     * {@code java -cp snake-core.jar com.example.snakegame.core.replay.ReplayPlayer file...}
+     */
+    public static void main(String[] args) throws IOException {
+        for (String name : args) {
+            Replay replay = Replay.load(Path.of(name));
+            ReplayPlayer player = new ReplayPlayer(replay);
+            long start = System.nanoTime();
+            StepResult result = player.playToEnd();
+            long nanos = System.nanoTime() - start;
+            System.out.printf("%s: %s %s, score %d after %d ticks (%.2f ms, %.1fM ticks/s)%n",
+                    name, replay.difficulty().displayName(), result, player.engine().score(),
+                    player.engine().tick(), nanos / 1e6, player.engine().tick() * 1e3 / nanos);
+        }
+    }
+}
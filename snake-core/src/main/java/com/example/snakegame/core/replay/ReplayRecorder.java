@@ -0,0 +1,81 @@
+package com.example.snakegame.core.replay;
+
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.GameListener;
+import com.example.snakegame.core.StepResult;
+
+import java.util.Arrays;
+
+/**
+ * Records a game as it is played. Attach it as (one of) the engine's
+ * listeners before the first step; it notes every tick where the direction
+ * actually changed, every bonus spawn and the end. A reset of the engine
+ * starts a fresh recording.
+ */
+public final class ReplayRecorder implements GameListener {
+    private final GameEngine engine;
+    private long seed;
+    private Direction lastDirection;
+    private long[] ticks = new long[64];
+    private byte[] kinds = new byte[64];
+    private int[] cells = new int[64];
+    private int count;
+    private StepResult result;
+
+    public ReplayRecorder(GameEngine engine) {
+        this.engine = engine;
+        onReset();
+    }
+
+    @Override
+    public void onReset() {
+        seed = engine.seed();
+        lastDirection = engine.direction();
+        count = 0;
+        result = null;
+    }
+
+    @Override
+    public void onSnakeMoved(int headCell, int oldHeadCell, int tailCell) {
+        noteTurn();
+    }
+
+    @Override
+    public void onBonusPlaced(int cell) {
+        add(Replay.BONUS, cell);
+    }
+
+    @Override
+    public void onGameEnded(StepResult result) {
+        noteTurn();   // the turn that killed the snake never reached onSnakeMoved
+        this.result = result;
+    }
+
+    private void noteTurn() {
+        Direction d = engine.direction();
+        if (d != lastDirection) {
+            lastDirection = d;
+            add(d.ordinal(), -1);
+        }
+    }
+
+    private void add(int kind, int cell) {
+        if (count == ticks.length) {
+            ticks = Arrays.copyOf(ticks, count * 2);
+            kinds = Arrays.copyOf(kinds, count * 2);
+            cells = Arrays.copyOf(cells, count * 2);
+        }
+        ticks[count] = engine.tick();
+        kinds[count] = (byte) kind;
+        cells[count] = cell;
+        count++;
+    }
+
+    /** The recording so far; complete once the game has ended. */
+    public Replay toReplay() {
+        return new Replay(engine.width(), engine.height(), engine.difficulty(), seed,
+                Arrays.copyOf(ticks, count), Arrays.copyOf(kinds, count), Arrays.copyOf(cells, count), count,
+                result, engine.score(), engine.tick());
+    }
+}
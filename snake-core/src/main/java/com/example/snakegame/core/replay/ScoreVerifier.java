@@ -0,0 +1,244 @@
+package com.example.snakegame.core.replay;
+
+import com.example.snakegame.core.StepResult;
+import com.example.snakegame.core.store.ScoreStore;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Checks a claimed score by re-running its replay through the game rules,
+ * headless, and accepting the entry only if the recomputed score matches.
+ * <p>
+ * This is an offline check, run over a {@link ScoreStore} and its replay
+ * directory ({@link #verifyStore}, or {@link #main} from the command line);
+ * the game does not wait for it before a score goes on the leaderboard. The
+ * game names each replay {@code <record>.<code>.snkr}, {@code record} being
+ * the index of its game in the store, and the claim checked is that record's
+ * score, not the one the replay file carries.
+ * <p>
+ * {@link #verifyAll} works through a backlog of replay files on a fixed pool.
+ * Files are read by the workers and the pool's queue is bounded, so however
+ * long the backlog, only a few replays per thread are ever in memory; when
+ * the queue is full the thread listing the files verifies one itself.
+ */
+public final class ScoreVerifier {
+
+    public enum Verdict {
+        ACCEPTED,
+        /** The rules give a different score than the one claimed. */
+        SCORE_MISMATCH,
+        /** Playback disagreed with the recording (bonus spawns, result or length): edited or from other rules. */
+        DIVERGED,
+        /** The recording stops before the game ended. */
+        INCOMPLETE,
+        /** Claims more ticks than any verifier should be asked to run. */
+        TOO_LONG,
+        /** Not a readable replay file. */
+        UNREADABLE,
+        /** The file name points at no game in the score store. */
+        NO_RECORD
+    }
+
+    // claims that aren't a score: check the replay against itself, or there is no record to check against
+    private static final int FROM_REPLAY = -1, NO_CLAIM = -2;
+
+    /** About 15 days of play on Hard; a full-board game on the default board is ~60k. */
+    public static final long DEFAULT_MAX_TICKS = 16_000_000;
+
+    private final long maxTicks;
+
+    public ScoreVerifier(long maxTicks) {
+        this.maxTicks = maxTicks;
+    }
+
+    /**
+     * The largest file a game within {@code maxTicks} can need: a turn costs a
+     * byte per tick at most, and bonus spawns (one per 8 s of game time) far
+     * less than another byte per tick.
+     */
+    private long maxBytes() {
+        return 64 + 2 * maxTicks;
+    }
+
+    public Verdict verify(Replay replay, int claimedScore) {
+        return verify(replay, claimedScore, null);
+    }
+
+    private Verdict verify(Replay replay, int claimedScore, Report report) {
+        if (replay.result() == null) return Verdict.INCOMPLETE;
+        if (replay.lastTick() > maxTicks) return Verdict.TOO_LONG;
+
+        ReplayPlayer player = new ReplayPlayer(replay);
+        Verdict verdict;
+        try {
+            StepResult result = player.playToEnd();
+            verdict = !result.endsGame() ? Verdict.DIVERGED
+                    : player.engine().score() == claimedScore ? Verdict.ACCEPTED
+                    : Verdict.SCORE_MISMATCH;
+        } catch (IllegalStateException e) {
+            // the end check failed: a wrong score is reported as such, anything else diverged
+            verdict = player.engine().isGameOver() && player.engine().score() != claimedScore
+                    ? Verdict.SCORE_MISMATCH : Verdict.DIVERGED;
+        }
+        if (report != null) report.ticks.add(player.engine().tick());
+        return verdict;
+    }
+
+    /**
+     * Verifies every file against the score recorded in it, on {@code threads}
+     * workers, calling {@code onVerdict} (from the worker threads) for each.
+     * This only shows that a replay is consistent with itself; see
+     * {@link #verifyStore} for checking leaderboard entries.
+     */
+    public Report verifyAll(Iterable<Path> files, int threads, BiConsumer<Path, Verdict> onVerdict) {
+        return run(files, file -> FROM_REPLAY, threads, onVerdict);
+    }
+
+    /**
+     * Verifies every file against the game in {@code store} that its name
+     * points at, on {@code threads} workers, calling {@code onVerdict} (from
+     * the worker threads) for each. The store is only read on the calling
+     * thread.
+     */
+    public Report verifyStore(ScoreStore store, Iterable<Path> files, int threads,
+                              BiConsumer<Path, Verdict> onVerdict) {
+        return run(files, file -> {
+            long record = recordIndex(file);
+            return record < 0 || record >= store.size() ? NO_CLAIM : store.get(record).score();
+        }, threads, onVerdict);
+    }
+
+    /** The score store record a replay file is named after, or -1 if its name doesn't give one. */
+    public static long recordIndex(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.indexOf('.');
+        if (dot <= 0 || dot > 18 || !name.endsWith(".snkr")) return -1;
+        long record = 0;
+        for (int i = 0; i < dot; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            record = record * 10 + (c - '0');
+        }
+        return record;
+    }
+
+    /** {@code claims} runs on the calling thread, as the files are listed. */
+    private Report run(Iterable<Path> files, ToIntFunction<Path> claims, int threads,
+                       BiConsumer<Path, Verdict> onVerdict) {
+        Report report = new Report();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 4), new ThreadPoolExecutor.CallerRunsPolicy());
+        long start = System.nanoTime();
+        try {
+            for (Path file : files) {
+                int claimed = claims.applyAsInt(file);
+                pool.execute(() -> {
+                    Verdict verdict;
+                    try {
+                        if (claimed == NO_CLAIM) {
+                            verdict = Verdict.NO_RECORD;
+                        } else if (Files.size(file) > maxBytes()) {
+                            verdict = Verdict.TOO_LONG;
+                        } else {
+                            Replay replay = Replay.load(file);
+                            verdict = verify(replay, claimed == FROM_REPLAY ? replay.score() : claimed, report);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        verdict = Verdict.UNREADABLE;
+                    }
+                    report.counts[verdict.ordinal()].increment();
+                    onVerdict.accept(file, verdict);
+                });
+            }
+        } finally {
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            report.nanos = System.nanoTime() - start;
+        }
+        return report;
+    }
+
+    /** Totals of a {@link #verifyAll} run. */
+    public static final class Report {
+        private final LongAdder[] counts = new LongAdder[Verdict.values().length];
+        private final LongAdder ticks = new LongAdder();
+        private long nanos;
+
+        private Report() {
+            for (int i = 0; i < counts.length; i++) counts[i] = new LongAdder();
+        }
+
+        public long count(Verdict verdict) {
+            return counts[verdict.ordinal()].sum();
+        }
+
+        public long games() {
+            long games = 0;
+            for (LongAdder c : counts) games += c.sum();
+            return games;
+        }
+
+        public long ticks() {
+            return ticks.sum();
+        }
+
+        public double seconds() {
+            return nanos / 1e9;
+        }
+
+        public double gamesPerSecond() {
+            return nanos == 0 ? 0 : games() / seconds();
+        }
+
+        public List<String> summaryLines() {
+            List<String> lines = new ArrayList<>();
+            for (Verdict v : Verdict.values()) {
+                lines.add(String.format("%-15s %d", v, count(v)));
+            }
+            lines.add(String.format("%d games, %d ticks in %.2f s: %.0f games/s, %.1fM ticks/s",
+                    games(), ticks(), seconds(), gamesPerSecond(), ticks() / Math.max(seconds(), 1e-9) / 1e6));
+            return lines;
+        }
+    }
+
+    /**
+     * Verifies a directory (or one file) of replays against the games in a
+     * score store and prints the rejects and a throughput summary:
+     * {@code java -cp snake-core.jar com.example.snakegame.core.replay.ScoreVerifier scores.bin replays/ [threads]}
+     */
+    public static void main(String[] args) throws IOException {
+        Path storeFile = Path.of(args.length > 0 ? args[0] : "scores.bin");
+        Path target = Path.of(args.length > 1 ? args[1] : "replays");
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        ScoreVerifier verifier = new ScoreVerifier(DEFAULT_MAX_TICKS);
+        BiConsumer<Path, Verdict> printRejects = (file, verdict) -> {
+            if (verdict != Verdict.ACCEPTED) System.out.println(verdict + "\t" + file);
+        };
+        Report report;
+        try (ScoreStore store = ScoreStore.open(storeFile)) {
+            if (Files.isDirectory(target)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(target, "*.snkr")) {
+                    report = verifier.verifyStore(store, files, threads, printRejects);
+                }
+            } else {
+                report = verifier.verifyStore(store, List.of(target), threads, printRejects);
+            }
+        }
+        report.summaryLines().forEach(System.out::println);
+    }
+}
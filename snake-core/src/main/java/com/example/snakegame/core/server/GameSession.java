@@ -0,0 +1,90 @@
+package com.example.snakegame.core.server;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.bot.Strategy;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * One player's game on the server. The engine is only ever touched by the
+ * shard thread that ticks it; other threads talk to the session through a
+ * pending turn, a restart flag and the {@link State} published after every
+ * tick.
+ */
+public final class GameSession {
+
+    /** What a client sees of the game after a tick. */
+    public record State(long tick, int score, int length, int headX, int headY,
+                        int foodX, int foodY, boolean gameOver) {
+    }
+
+    private final int id;
+    private final GameEngine engine;
+    private final Strategy autopilot;
+    private final long intervalNanos;
+    private final AtomicReference<Direction> pendingTurn = new AtomicReference<>();
+    private volatile boolean restartRequested;
+    private volatile boolean closed;
+    private volatile State state;
+    long deadline;      // owned by the shard thread
+
+    GameSession(int id, DifficultyLevel difficulty, long seed, Strategy autopilot) {
+        this.id = id;
+        this.engine = new GameEngine(difficulty, seed);
+        this.autopilot = autopilot;
+        this.intervalNanos = difficulty.tickNanos();
+        publish();
+    }
+
+    public int id() {
+        return id;
+    }
+
+    public DifficultyLevel difficulty() {
+        return engine.difficulty();
+    }
+
+    /** Turn to apply on the next tick; a later call before that tick replaces it. */
+    public void turn(Direction direction) {
+        pendingTurn.set(direction);
+    }
+
+    /** Starts a new game on the next tick. */
+    public void restart() {
+        restartRequested = true;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    long intervalNanos() {
+        return intervalNanos;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void close() {
+        closed = true;
+    }
+
+    /** One tick; a bot-driven session starts over by itself when its game ends. */
+    void tick() {
+        if (restartRequested || autopilot != null && engine.isGameOver()) {
+            restartRequested = false;
+            engine.reset();
+        }
+        Direction turn = autopilot != null ? autopilot.nextMove(engine) : pendingTurn.getAndSet(null);
+        engine.step(turn);
+        publish();
+    }
+
+    private void publish() {
+        state = new State(engine.tick(), engine.score(), engine.snake().length(),
+                engine.snake().headX(), engine.snake().headY(), engine.foodX(), engine.foodY(), engine.isGameOver());
+    }
+}
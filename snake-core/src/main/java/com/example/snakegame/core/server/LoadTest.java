@@ -0,0 +1,53 @@
+package com.example.snakegame.core.server;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.bot.StrategyType;
+import com.example.snakegame.core.metrics.LatencyHistogram;
+
+/**
+ * Ramps up bot-driven sessions (difficulties round-robin) and reports, for
+ * each session count, the tick rate achieved against the rate asked for and
+ * how late the ticks ran:
+ * {@code java -cp snake-core.jar com.example.snakegame.core.server.LoadTest [counts] [holdSeconds] [shards]}
+ * where counts is a comma-separated list, e.g. {@code 1000,4000,16000}.
+ */
+public final class LoadTest {
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String[] counts = (args.length > 0 ? args[0] : "1000,2000,4000,8000,16000,32000").split(",");
+        int holdSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int shards = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        DifficultyLevel[] levels = DifficultyLevel.values();
+
+        System.out.printf("%d shard(s), %d s per step%n", shards, holdSeconds);
+        System.out.printf("%8s %10s %10s %8s %8s %8s %8s %8s %8s%n",
+                "sessions", "ticks/s", "wanted/s", "miss%", "dropped", "p50 µs", "p99 µs", "p99.9 µs", "max µs");
+        try (SessionManager manager = new SessionManager(shards)) {
+            double wantedPerSecond = 0;
+            for (String count : counts) {
+                int target = Integer.parseInt(count.trim());
+                while (manager.size() < target) {
+                    DifficultyLevel level = levels[manager.size() % levels.length];
+                    manager.open(level, StrategyType.GREEDY.create(GameEngine.DEFAULT_WIDTH, GameEngine.DEFAULT_HEIGHT));
+                    wantedPerSecond += 1e9 / level.tickNanos();
+                }
+                Thread.sleep(1000);     // let the new sessions' schedules settle
+                manager.resetStats();
+                long start = System.nanoTime();
+                Thread.sleep(holdSeconds * 1000L);
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                SessionManager.Report r = manager.report();
+                LatencyHistogram late = r.lateness();
+                System.out.printf("%8d %10.0f %10.0f %8.2f %8d %8d %8d %8d %8d%n",
+                        manager.size(), r.ticks() / seconds, wantedPerSecond,
+                        r.ticks() == 0 ? 0 : 100.0 * r.misses() / r.ticks(), r.dropped(),
+                        late.percentile(50) / 1000, late.percentile(99) / 1000,
+                        late.percentile(99.9) / 1000, late.max() / 1000);
+            }
+        }
+    }
+}
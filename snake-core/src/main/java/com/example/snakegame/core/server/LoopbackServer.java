@@ -0,0 +1,169 @@
+package com.example.snakegame.core.server;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.Direction;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Line protocol on 127.0.0.1 for driving sessions from a local client or a
+ * test harness. One virtual thread per connection; every request line gets
+ * exactly one reply line, {@code ERR <reason>} on failure.
+ * <pre>
+ * NEW EASY|MEDIUM|HARD        -> OK &lt;id&gt;
+ * TURN &lt;id&gt; UP|DOWN|LEFT|RIGHT -> OK
+ * STATE &lt;id&gt;                  -> STATE &lt;id&gt; &lt;tick&gt; &lt;score&gt; &lt;length&gt; &lt;headX&gt; &lt;headY&gt; &lt;foodX&gt; &lt;foodY&gt; RUNNING|OVER
+ * RESTART &lt;id&gt;                -> OK
+ * CLOSE &lt;id&gt;                  -> OK
+ * STATS                       -> STATS &lt;sessions&gt; &lt;ticks&gt; &lt;misses&gt; &lt;dropped&gt; &lt;p99 lateness µs&gt;
+ * QUIT                        -> BYE, then the connection closes
+ * </pre>
+ * Sessions belong to the connection that opened them: the other commands on
+ * a session opened elsewhere get {@code ERR not your session}, and when the
+ * connection drops, the sessions it didn't close itself are closed for it.
+ */
+public final class LoopbackServer implements AutoCloseable {
+    private final SessionManager sessions;
+    private final ServerSocket socket;
+    private final Thread acceptor;
+
+    private LoopbackServer(SessionManager sessions, ServerSocket socket) {
+        this.sessions = sessions;
+        this.socket = socket;
+        this.acceptor = Thread.ofVirtual().name("loopback-acceptor").start(this::accept);
+    }
+
+    /** Listens on the loopback interface only; port 0 picks a free port. */
+    public static LoopbackServer start(SessionManager sessions, int port) throws IOException {
+        return new LoopbackServer(sessions, new ServerSocket(port, 50, InetAddress.getLoopbackAddress()));
+    }
+
+    public int port() {
+        return socket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+        try {
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void accept() {
+        while (!socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                Thread.ofVirtual().name("loopback-client").start(() -> serve(client));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    System.err.println("Error accepting loopback client: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        Set<Integer> owned = new HashSet<>();
+        try (client;
+             BufferedReader in = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String reply = handle(line.trim(), owned);
+                out.write(reply);
+                out.newLine();
+                out.flush();
+                if (reply.equals("BYE")) break;
+            }
+        } catch (IOException e) {
+            System.err.println("Error serving loopback client: " + e.getMessage());
+        } finally {
+            for (int id : owned) {
+                sessions.close(id);
+            }
+        }
+    }
+
+    /** Answers one request line; {@code owned} tracks the sessions this connection has open. */
+    String handle(String line, Set<Integer> owned) {
+        String[] args = line.split("\\s+");
+        try {
+            return switch (args[0].toUpperCase()) {
+                case "NEW" -> {
+                    int id = sessions.open(DifficultyLevel.valueOf(args[1].toUpperCase())).id();
+                    owned.add(id);
+                    yield "OK " + id;
+                }
+                case "TURN" -> {
+                    session(args[1], owned).turn(Direction.valueOf(args[2].toUpperCase()));
+                    yield "OK";
+                }
+                case "STATE" -> {
+                    GameSession.State s = session(args[1], owned).state();
+                    yield "STATE " + args[1] + " " + s.tick() + " " + s.score() + " " + s.length() + " "
+                            + s.headX() + " " + s.headY() + " " + s.foodX() + " " + s.foodY() + " "
+                            + (s.gameOver() ? "OVER" : "RUNNING");
+                }
+                case "RESTART" -> {
+                    session(args[1], owned).restart();
+                    yield "OK";
+                }
+                case "CLOSE" -> {
+                    int id = Integer.parseInt(args[1]);
+                    if (!owned.remove(id)) yield "ERR not your session";
+                    yield sessions.close(id) ? "OK" : "ERR no session " + args[1];
+                }
+                case "STATS" -> {
+                    SessionManager.Report r = sessions.report();
+                    yield "STATS " + sessions.size() + " " + r.ticks() + " " + r.misses() + " " + r.dropped() + " "
+                            + r.lateness().percentile(99) / 1000;
+                }
+                case "QUIT" -> "BYE";
+                default -> "ERR unknown command " + args[0];
+            };
+        } catch (ArrayIndexOutOfBoundsException e) {
+            return "ERR missing argument";
+        } catch (IllegalArgumentException e) {   // includes NumberFormatException
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    private GameSession session(String id, Set<Integer> owned) {
+        int key = Integer.parseInt(id);
+        if (!owned.contains(key)) {
+            throw new IllegalArgumentException("not your session");
+        }
+        Optional<GameSession> session = sessions.get(key);
+        return session.orElseThrow(() -> new IllegalArgumentException("no session " + id));
+    }
+
+    /**
+     * Serves until killed:
+     * {@code java -cp snake-core.jar com.example.snakegame.core.server.LoopbackServer [port] [shards]}
+     * Port 0 (the default) picks a free one and prints it.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int shards = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        try (SessionManager sessions = new SessionManager(shards);
+             LoopbackServer server = start(sessions, port)) {
+            System.out.println("Listening on " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.port()
+                    + " with " + shards + " shard(s)");
+            server.acceptor.join();
+        }
+    }
+}
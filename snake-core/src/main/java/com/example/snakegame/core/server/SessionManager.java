@@ -0,0 +1,221 @@
+package com.example.snakegame.core.server;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.bot.Strategy;
+import com.example.snakegame.core.metrics.LatencyHistogram;
+
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hosts many {@link GameSession}s in one JVM. Sessions are spread over a
+ * fixed number of shard threads; each shard keeps its sessions in a queue
+ * ordered by next deadline, sleeps until the earliest one is due and ticks
+ * everything that is. Every session ticks at its own difficulty's interval
+ * on a fixed-rate schedule, so a late tick does not push later ones back.
+ * <p>
+ * Each tick's lateness (start time minus deadline) goes into the shard's
+ * {@link LatencyHistogram}. A tick starting more than a tenth of its interval
+ * late counts as a deadline miss; a session that falls more than
+ * {@link #MAX_TICKS_BEHIND} intervals behind skips the backlog instead of
+ * running it in a burst, and the skipped ticks are counted as dropped.
+ */
+public final class SessionManager implements AutoCloseable {
+    public static final int MAX_TICKS_BEHIND = 5;
+
+    private final Shard[] shards;
+    private final ConcurrentHashMap<Integer, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final long seedBase = System.nanoTime();
+
+    public SessionManager(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Need at least one shard: " + shardCount);
+        }
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard(i);
+        }
+    }
+
+    /** Opens a session driven by {@link GameSession#turn} calls. */
+    public GameSession open(DifficultyLevel difficulty) {
+        return open(difficulty, null);
+    }
+
+    /** Opens a session; with an {@code autopilot} it plays itself and restarts after every game. */
+    public GameSession open(DifficultyLevel difficulty, Strategy autopilot) {
+        int id = nextId.getAndIncrement();
+        GameSession session = new GameSession(id, difficulty, seedBase + id * 0x9E3779B97F4A7C15L, autopilot);
+        sessions.put(id, session);
+        shards[id % shards.length].add(session);
+        return session;
+    }
+
+    public Optional<GameSession> get(int id) {
+        return Optional.ofNullable(sessions.get(id));
+    }
+
+    /** Stops ticking a session; returns false if there was no such session. */
+    public boolean close(int id) {
+        GameSession session = sessions.remove(id);
+        if (session == null) return false;
+        session.close();
+        return true;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    /** Tick timing summed over all shards since the last {@link #resetStats()}. */
+    public Report report() {
+        Report report = new Report();
+        for (Shard shard : shards) {
+            shard.addTo(report);
+        }
+        return report;
+    }
+
+    public void resetStats() {
+        for (Shard shard : shards) {
+            shard.resetStats();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Shard shard : shards) {
+            shard.stop();
+        }
+        sessions.values().forEach(GameSession::close);
+        sessions.clear();
+    }
+
+    /** Totals across the shards; see {@link SessionManager#report()}. */
+    public static final class Report {
+        private final LatencyHistogram lateness = new LatencyHistogram();
+        private long ticks, misses, dropped;
+
+        private Report() {
+        }
+
+        public LatencyHistogram lateness() {
+            return lateness;
+        }
+
+        public long ticks() {
+            return ticks;
+        }
+
+        /** Ticks that started more than a tenth of their interval late. */
+        public long misses() {
+            return misses;
+        }
+
+        /** Ticks skipped by sessions that fell too far behind. */
+        public long dropped() {
+            return dropped;
+        }
+    }
+
+    private static final class Shard implements Runnable {
+        private final Thread thread;
+        private final Queue<GameSession> incoming = new ConcurrentLinkedQueue<>();
+        private final PriorityQueue<GameSession> schedule =
+                new PriorityQueue<>((a, b) -> Long.compare(a.deadline, b.deadline));
+        private volatile boolean running = true;
+
+        // guarded by this
+        private final LatencyHistogram lateness = new LatencyHistogram();
+        private long ticks, misses, dropped;
+
+        Shard(int index) {
+            thread = new Thread(this, "session-shard-" + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        void add(GameSession session) {
+            incoming.add(session);
+            LockSupport.unpark(thread);
+        }
+
+        void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                for (GameSession s; (s = incoming.poll()) != null; ) {
+                    s.deadline = System.nanoTime() + s.intervalNanos();
+                    schedule.add(s);
+                }
+                GameSession next = schedule.peek();
+                if (next == null) {
+                    LockSupport.park(this);
+                    continue;
+                }
+                long wait = next.deadline - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(this, wait);
+                    continue;
+                }
+                runDue();
+            }
+        }
+
+        private synchronized void runDue() {
+            GameSession s;
+            long now = System.nanoTime();
+            while ((s = schedule.peek()) != null && s.deadline <= now) {
+                schedule.poll();
+                if (s.isClosed()) continue;
+                long interval = s.intervalNanos();
+                long start = System.nanoTime();
+                long late = start - s.deadline;
+                lateness.record(late);
+                ticks++;
+                if (late > interval / 10) misses++;
+
+                s.tick();
+
+                s.deadline += interval;
+                long behind = start - s.deadline;
+                if (behind > MAX_TICKS_BEHIND * interval) {
+                    long skipped = behind / interval;
+                    dropped += skipped;
+                    s.deadline += skipped * interval;
+                }
+                schedule.add(s);
+                now = System.nanoTime();
+            }
+        }
+
+        synchronized void addTo(Report report) {
+            report.lateness.add(lateness);
+            report.ticks += ticks;
+            report.misses += misses;
+            report.dropped += dropped;
+        }
+
+        synchronized void resetStats() {
+            lateness.reset();
+            ticks = 0;
+            misses = 0;
+            dropped = 0;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.snakegame.core.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Append-only text log written by one background thread. Callers only enqueue
+ * a line, so {@link #append(String)} never touches the disk. The writer drains
+ * whatever has queued up since its last write and commits it as one batch to a
+ * {@link FileChannel} that stays open for the life of the log; when the data is
+ * forced to the device is set by the {@link FsyncPolicy}.
+ */
+public final class AsyncAppendLog implements AutoCloseable {
+
+    public enum FsyncPolicy {
+        /** Leave it to the OS; fastest, a crash can lose the last few seconds. */
+        NONE,
+        /** Force after every batch; nothing acknowledged by flush() is ever lost. */
+        EVERY_BATCH,
+        /** Force at most once per interval, and always on flush and close. */
+        PERIODIC;
+
+        /** Parses a policy name as used in system properties, e.g. {@code -Dsnake.fsync=periodic}. */
+        public static FsyncPolicy parse(String name, FsyncPolicy fallback) {
+            if (name == null || name.isBlank()) return fallback;
+            return valueOf(name.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+
+    private static final int MAX_BATCH = 512;
+    private static final Object CLOSE = new Object();
+
+    private final Path file;
+    private final FileChannel channel;
+    private final FsyncPolicy policy;
+    private final long fsyncIntervalNanos;
+    private final Consumer<IOException> onError;
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    // append, flush and close check and enqueue under this, so nothing lands behind CLOSE
+    private final Object enqueueLock = new Object();
+    private boolean closed;
+    private long lastForce = System.nanoTime();
+    private boolean unforced;
+
+    private AsyncAppendLog(Path file, FileChannel channel, FsyncPolicy policy,
+                           long fsyncIntervalMillis, Consumer<IOException> onError) {
+        this.file = file;
+        this.channel = channel;
+        this.policy = policy;
+        this.fsyncIntervalNanos = fsyncIntervalMillis * 1_000_000L;
+        this.onError = onError;
+        this.writer = Thread.ofVirtual().name("append-log " + file.getFileName()).start(this::run);
+    }
+
+    /**
+     * Opens (creating if needed) {@code file} for appending.
+     *
+     * @param onError called on the writer thread for every failed batch; the
+     *                records in that batch are counted in {@link #failedRecords()}
+     */
+    public static AsyncAppendLog open(Path file, FsyncPolicy policy, long fsyncIntervalMillis,
+                                      Consumer<IOException> onError) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new AsyncAppendLog(file, channel, policy, fsyncIntervalMillis, onError);
+    }
+
+    /** Queues one record; a line terminator is added if it is missing. */
+    public void append(String record) {
+        String line = record.endsWith("\n") ? record : record + "\n";
+        synchronized (enqueueLock) {
+            if (closed) {
+                throw new IllegalStateException("Log is closed: " + file);
+            }
+            queue.add(line);
+        }
+    }
+
+    /**
+     * Returns a future completed once every record appended before this call
+     * is written (and forced, unless the policy is {@link FsyncPolicy#NONE}),
+     * or exceptionally if writing any of them failed.
+     */
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (enqueueLock) {
+            if (!closed) {
+                queue.add(done);
+                return done;
+            }
+        }
+        done.complete(null);    // close() already wrote and forced everything
+        return done;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public long writtenRecords() {
+        return written.get();
+    }
+
+    public long failedRecords() {
+        return failed.get();
+    }
+
+    /** Writes everything still queued, forces it to disk and closes the channel. */
+    @Override
+    public void close() {
+        synchronized (enqueueLock) {
+            if (closed) return;
+            closed = true;
+            queue.add(CLOSE);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Object> batch = new ArrayList<>(MAX_BATCH);
+        List<CompletableFuture<Void>> waiting = new ArrayList<>();
+        StringBuilder text = new StringBuilder(4096);
+        // the last failure since markers were last completed: a flush fails if any earlier record did
+        IOException sinceMarkers = null;
+        boolean stop = false;
+        while (!stop) {
+            try {
+                Object first = nextItem();
+                if (first == null) {
+                    // PERIODIC: the interval ran out with nothing new queued
+                    force();
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                stop = true;
+            } catch (IOException e) {
+                onError.accept(e);
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - batch.size());
+
+            int records = 0;
+            for (Object item : batch) {
+                if (item instanceof String line) {
+                    text.append(line);
+                    records++;
+                } else if (item == CLOSE) {
+                    stop = true;
+                } else {
+                    @SuppressWarnings("unchecked")
+                    CompletableFuture<Void> marker = (CompletableFuture<Void>) item;
+                    waiting.add(marker);
+                }
+            }
+            batch.clear();
+
+            IOException error = null;
+            try {
+                if (records > 0) {
+                    ByteBuffer bytes = StandardCharsets.UTF_8.encode(text.toString());
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    written.addAndGet(records);
+                }
+                maybeForce(records > 0, !waiting.isEmpty() || stop);
+            } catch (IOException e) {
+                error = e;
+                failed.addAndGet(records);
+                onError.accept(e);
+            }
+            text.setLength(0);
+            if (error != null) sinceMarkers = error;
+
+            if (!waiting.isEmpty()) {
+                for (CompletableFuture<Void> marker : waiting) {
+                    if (sinceMarkers == null) marker.complete(null);
+                    else marker.completeExceptionally(sinceMarkers);
+                }
+                waiting.clear();
+                sinceMarkers = null;
+            }
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            onError.accept(e);
+        }
+        // only left over if the writer was interrupted: fail them rather than leave a flush hanging
+        synchronized (enqueueLock) {
+            closed = true;
+        }
+        List<Object> leftover = new ArrayList<>();
+        queue.drainTo(leftover);
+        IOException notWritten = new IOException("Log writer stopped before writing: " + file);
+        for (Object item : leftover) {
+            if (item instanceof String) {
+                failed.incrementAndGet();
+            } else if (item != CLOSE) {
+                @SuppressWarnings("unchecked")
+                CompletableFuture<Void> marker = (CompletableFuture<Void>) item;
+                marker.completeExceptionally(notWritten);
+            }
+        }
+    }
+
+    /** Waits for the next item, or returns null when a periodic force is due first. */
+    private Object nextItem() throws InterruptedException {
+        if (policy != FsyncPolicy.PERIODIC || !unforced) {
+            return queue.take();
+        }
+        long wait = fsyncIntervalNanos - (System.nanoTime() - lastForce);
+        return wait <= 0 ? queue.poll() : queue.poll(wait, TimeUnit.NANOSECONDS);
+    }
+
+    private void maybeForce(boolean wroteSomething, boolean barrier) throws IOException {
+        unforced |= wroteSomething;
+        boolean due = switch (policy) {
+            case NONE -> false;
+            case EVERY_BATCH -> wroteSomething || barrier;
+            case PERIODIC -> barrier || (unforced && System.nanoTime() - lastForce >= fsyncIntervalNanos);
+        };
+        if (due) {
+            force();
+        }
+    }
+
+    private void force() throws IOException {
+        // stamped first: a force that fails is retried after another interval, not in a tight loop
+        lastForce = System.nanoTime();
+        if (policy != FsyncPolicy.NONE) {
+            channel.force(false);
+        }
+        unforced = false;
+    }
+}
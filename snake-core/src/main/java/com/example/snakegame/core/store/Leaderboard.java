@@ -0,0 +1,202 @@
+package com.example.snakegame.core.store;
+
+import com.example.snakegame.core.DifficultyLevel;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Aggregates over the game results, built in one streaming pass over a text
+ * score log ({@link #load}) or a {@link ScoreStore} ({@link #from}) and then
+ * kept current by {@link #record} as games finish, so nothing ever rescans.
+ * It keeps the best {@code topN} games per difficulty in a min-heap each, and
+ * per player (by game code and name, since older files let several people
+ * share a code) the games played, the best and the total score.
+ * <p>
+ * Score lines are {@code name (code): score difficulty}. Lines written before
+ * the difficulty was recorded end at the score; they count towards the
+ * player totals and a board of their own, {@link #top(DifficultyLevel)} with
+ * {@code null}. Lines that don't parse are counted and skipped.
+ */
+public final class Leaderboard {
+
+    public record Entry(String name, String code, int score, DifficultyLevel difficulty) {
+    }
+
+    public record PlayerStats(String code, String name, int games, int best, long totalScore) {
+        public double average() {
+            return games == 0 ? 0 : (double) totalScore / games;
+        }
+    }
+
+    // heap order: lowest score first; on equal scores the later game goes first, so the earlier one stays
+    private record Ranked(Entry entry, long seq) {
+    }
+
+    private static final Comparator<Ranked> WORST_FIRST = Comparator.<Ranked>comparingInt(r -> r.entry.score())
+            .thenComparing(Comparator.comparingLong(Ranked::seq).reversed());
+
+    private final int topN;
+    // one heap per difficulty, plus a last one for lines without a difficulty
+    private final List<PriorityQueue<Ranked>> tops = new ArrayList<>();
+    private final Map<PlayerKey, Totals> players = new HashMap<>();
+    private long games;
+    private long seq;
+    private int garbageLines;
+
+    // names compared ignoring case, as a login does
+    private record PlayerKey(String code, String name) {
+        static PlayerKey of(String code, String name) {
+            return new PlayerKey(code, name.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static final class Totals {
+        String name;
+        int games;
+        int best;
+        long total;
+    }
+
+    public Leaderboard(int topN) {
+        if (topN < 1) throw new IllegalArgumentException("topN must be positive: " + topN);
+        this.topN = topN;
+        for (int i = 0; i <= DifficultyLevel.values().length; i++) {
+            tops.add(new PriorityQueue<>(topN + 1, WORST_FIRST));
+        }
+    }
+
+    /** Reads {@code file} line by line; a missing file is an empty leaderboard. */
+    public static Leaderboard load(Path file, int topN) throws IOException {
+        Leaderboard board = new Leaderboard(topN);
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Entry entry = parse(line);
+                if (entry != null) {
+                    board.add(entry);
+                } else if (!line.isBlank()) {
+                    board.garbageLines++;
+                }
+            }
+        } catch (NoSuchFileException ignored) {
+        }
+        return board;
+    }
+
+    /** Builds the aggregates from every game in {@code store}, in one pass over its mapping. */
+    public static Leaderboard from(ScoreStore store, int topN) {
+        Leaderboard board = new Leaderboard(topN);
+        store.scan(0, store.size(), c -> board.add(new Entry(c.name(), c.code(), c.score(), c.difficulty())));
+        return board;
+    }
+
+    /**
+     * The log line for a finished game, as {@link #load} reads it back; a
+     * null difficulty writes the old format.
+     */
+    public static String format(String name, String code, int score, DifficultyLevel difficulty) {
+        String line = name + " (" + code + "): " + score;
+        return difficulty == null ? line : line + " " + difficulty.displayName();
+    }
+
+    /** Parses a score line, old or new; null if it isn't one. */
+    static Entry parse(String line) {
+        int colon = line.lastIndexOf("): ");
+        int open = colon < 0 ? -1 : line.lastIndexOf(" (", colon);
+        if (open < 0) return null;
+        int end = line.length();
+        while (end > colon + 3 && line.charAt(end - 1) == ' ') end--;
+        int space = line.indexOf(' ', colon + 3);
+        DifficultyLevel difficulty = null;
+        if (space >= 0 && space < end) {
+            difficulty = byName(line, space + 1, end);
+            if (difficulty == null) return null;
+        } else {
+            space = end;
+        }
+        try {
+            return new Entry(line.substring(0, open), line.substring(open + 2, colon),
+                    Integer.parseInt(line, colon + 3, space, 10), difficulty);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static DifficultyLevel byName(String line, int from, int to) {
+        for (DifficultyLevel d : DifficultyLevel.values()) {
+            String name = d.displayName();
+            if (name.length() == to - from && line.regionMatches(true, from, name, 0, name.length())) return d;
+        }
+        return null;
+    }
+
+    /** Counts a finished game; the caller writes the line with {@link #format} itself. */
+    public synchronized void record(String name, String code, int score, DifficultyLevel difficulty) {
+        add(new Entry(name, code, score, difficulty));
+    }
+
+    private void add(Entry entry) {
+        games++;
+        PriorityQueue<Ranked> top = tops.get(entry.difficulty() == null
+                ? DifficultyLevel.values().length : entry.difficulty().ordinal());
+        Ranked ranked = new Ranked(entry, seq++);
+        if (top.size() < topN) {
+            top.add(ranked);
+        } else if (WORST_FIRST.compare(ranked, top.peek()) > 0) {
+            top.poll();
+            top.add(ranked);
+        }
+
+        Totals t = players.computeIfAbsent(PlayerKey.of(entry.code(), entry.name()), k -> new Totals());
+        if (t.name == null) t.name = entry.name();
+        if (t.games == 0 || entry.score() > t.best) t.best = entry.score();
+        t.games++;
+        t.total += entry.score();
+    }
+
+    /** Best games at {@code difficulty}, highest first; {@code null} for games logged without one. */
+    public synchronized List<Entry> top(DifficultyLevel difficulty) {
+        List<Ranked> ranked = new ArrayList<>(tops.get(difficulty == null
+                ? DifficultyLevel.values().length : difficulty.ordinal()));
+        ranked.sort(WORST_FIRST.reversed());
+        List<Entry> entries = new ArrayList<>(ranked.size());
+        for (Ranked r : ranked) entries.add(r.entry());
+        return entries;
+    }
+
+    /** Totals for the player logged in as {@code code} and {@code name}. */
+    public synchronized Optional<PlayerStats> player(String code, String name) {
+        Totals t = players.get(PlayerKey.of(code, name));
+        return t == null ? Optional.empty() : Optional.of(new PlayerStats(code, t.name, t.games, t.best, t.total));
+    }
+
+    public int topN() {
+        return topN;
+    }
+
+    public synchronized long games() {
+        return games;
+    }
+
+    public synchronized int playerCount() {
+        return players.size();
+    }
+
+    /** Lines in the file that weren't score lines. */
+    public synchronized int garbageLines() {
+        return garbageLines;
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.snakegame.core.store;
+
+import com.example.snakegame.core.store.AsyncAppendLog.FsyncPolicy;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * All registered players, read from {@code players.txt} once and then kept in
+ * a hash index from game code to the names registered under it, so a login is
+ * two lookups. New sign-ups go to the index and to the end of the file through
+ * an {@link AsyncAppendLog}.
+ * <p>
+ * A new sign-up can't take a code that is already registered. Older files
+ * can hold several players on one code, and each of them keeps logging in;
+ * only lines that repeat a code and name already on file (names compared
+ * ignoring case, as a login does) and lines that don't parse are counted as
+ * garbage and dropped when the file is compacted.
+ */
+public final class PlayerRegistry implements AutoCloseable {
+
+    public enum SignUp {
+        CREATED,
+        /** Another player already registered this code. */
+        CODE_TAKEN,
+        /** Empty fields, or a comma or line break that would corrupt the file. */
+        INVALID
+    }
+
+    private final Path file;
+    private final FsyncPolicy policy;
+    private final long fsyncIntervalMillis;
+    private final Consumer<IOException> onError;
+    // code -> (lower-cased name -> name as registered), both in file order
+    private final Map<String, Map<String, String>> namesByCode = new LinkedHashMap<>();
+    private int players;
+    private AsyncAppendLog log;        // null once a compaction failed to reopen the file
+    private IOException reopenFailure;
+    private List<String> sinceSnapshot; // sign-ups made while a compaction runs
+    private int garbageLines;
+    private ScheduledExecutorService compactor;
+    private boolean closed;
+
+    private PlayerRegistry(Path file, FsyncPolicy policy, long fsyncIntervalMillis, Consumer<IOException> onError) {
+        this.file = file;
+        this.policy = policy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.onError = onError;
+    }
+
+    /** Reads {@code file} (a missing file is an empty registry) and opens it for appending. */
+    public static PlayerRegistry load(Path file, FsyncPolicy policy, long fsyncIntervalMillis,
+                                      Consumer<IOException> onError) throws IOException {
+        PlayerRegistry registry = new PlayerRegistry(file, policy, fsyncIntervalMillis, onError);
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                registry.index(line);
+            }
+        } catch (NoSuchFileException ignored) {
+        }
+        registry.log = AsyncAppendLog.open(file, policy, fsyncIntervalMillis, onError);
+        return registry;
+    }
+
+    private void index(String line) {
+        String[] parts = line.split(",");
+        if (parts.length != 2 || !add(parts[0], parts[1])) {
+            garbageLines++;
+        }
+    }
+
+    /** False if {@code code} already has {@code name}. */
+    private boolean add(String code, String name) {
+        Map<String, String> names = namesByCode.computeIfAbsent(code, c -> new LinkedHashMap<>(2));
+        if (names.putIfAbsent(key(name), name) != null) return false;
+        players++;
+        return true;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    public synchronized boolean verify(String code, String name) {
+        Map<String, String> names = namesByCode.get(code);
+        return names != null && name != null && names.containsKey(key(name));
+    }
+
+    /** The first name registered under {@code code}. */
+    public synchronized Optional<String> nameOf(String code) {
+        Map<String, String> names = namesByCode.get(code);
+        return names == null ? Optional.empty() : Optional.of(names.values().iterator().next());
+    }
+
+    public synchronized SignUp register(String code, String name) {
+        if (!isValidField(code) || !isValidField(name)) {
+            return SignUp.INVALID;
+        }
+        if (namesByCode.containsKey(code)) {
+            return SignUp.CODE_TAKEN;
+        }
+        if (log == null) {
+            throw new IllegalStateException("Sign-ups are off: " + file + " could not be reopened after compaction",
+                    reopenFailure);
+        }
+        add(code, name);
+        String line = code + "," + name;
+        log.append(line);
+        if (sinceSnapshot != null) sinceSnapshot.add(line);
+        return SignUp.CREATED;
+    }
+
+    private static boolean isValidField(String s) {
+        return s != null && !s.isEmpty() && s.indexOf(',') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0;
+    }
+
+    /** Registered players: code and name pairs, so a code shared by two players counts twice. */
+    public synchronized int size() {
+        return players;
+    }
+
+    /** Lines in the file that the index does not use (repeated code and name, malformed lines). */
+    public synchronized int garbageLines() {
+        return garbageLines;
+    }
+
+    /**
+     * Rewrites the file with one line per player, grouped by code in the order
+     * the codes were first registered, and swaps it in atomically. The file is
+     * written and reopened without holding the registry's lock, so sign-ups
+     * carry on meanwhile; the ones that land
+     * after the snapshot are appended again to the new file once it is open.
+     * If the new file can't be reopened the registry stops taking sign-ups.
+     */
+    public void compact() throws IOException {
+        List<String> snapshot = new ArrayList<>();
+        synchronized (this) {
+            if (closed || log == null || sinceSnapshot != null) return;
+            for (Map.Entry<String, Map<String, String>> e : namesByCode.entrySet()) {
+                for (String name : e.getValue().values()) snapshot.add(e.getKey() + "," + name);
+            }
+            sinceSnapshot = new ArrayList<>();
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (String line : snapshot) {
+                    out.write(line);
+                    out.newLine();
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the old file is untouched and the old log still appends to it
+            synchronized (this) {
+                sinceSnapshot = null;
+            }
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        AsyncAppendLog next, old;
+        try {
+            next = AsyncAppendLog.open(file, policy, fsyncIntervalMillis, onError);
+        } catch (IOException e) {
+            // the old log now appends to the replaced file, where nothing would survive a restart
+            synchronized (this) {
+                sinceSnapshot = null;
+                old = log;
+                log = null;
+                reopenFailure = e;
+            }
+            old.close();
+            throw e;
+        }
+        synchronized (this) {
+            for (String line : sinceSnapshot) {
+                next.append(line);
+            }
+            sinceSnapshot = null;
+            garbageLines = 0;
+            old = log;
+            log = next;
+            if (closed) {
+                old = null;
+                next.close();
+            }
+        }
+        if (old != null) old.close();
+    }
+
+    /** Compacts in the background every {@code period} whenever garbage lines have piled up. */
+    public synchronized void startPeriodicCompaction(long period, TimeUnit unit) {
+        if (compactor != null) return;
+        compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "player-registry-compactor");
+            t.setDaemon(true);
+            return t;
+        });
+        compactor.scheduleWithFixedDelay(() -> {
+            try {
+                if (garbageLines() > 0) compact();
+            } catch (IOException e) {
+                onError.accept(e);
+            }
+        }, 0, period, unit);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        if (compactor != null) compactor.shutdown();
+        if (log != null) log.close();
+    }
+}
@@ -0,0 +1,433 @@
+package com.example.snakegame.core.store;
+
+import com.example.snakegame.core.DifficultyLevel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Game results as fixed-width binary records in a memory-mapped file, one
+ * 32-byte record per game:
+ * <pre>
+ *   0  timestamp millis   long   (0 = unknown, e.g. imported from text)
+ *   8  player id          int    index into the player table
+ *  12  score              int
+ *  16  length             int    snake length at the end (0 = unknown)
+ *  20  duration millis    int    simulated game time (0 = unknown)
+ *  24  difficulty         byte   ordinal, or -1 if unknown
+ *  25  (unused)           7 bytes
+ * </pre>
+ * The file starts with one record-sized header: magic {@code SNKS}, a
+ * version, and the number of records written. A record is written before
+ * the count is bumped, so a crash leaves at worst one unused slot.
+ * <p>
+ * Players are interned: each code and name pair gets an id the first time
+ * it is seen (older player files let several people share a code), and
+ * {@code <file>.names} keeps code and name per id, so a record never
+ * holds a string and a scan never decodes one. Scans read straight from the
+ * mapping through a {@link Cursor}; a full pass over a million records takes
+ * a few milliseconds.
+ * <p>
+ * Not thread-safe: use it from one thread at a time, handing it over through
+ * something that orders memory (a future, a lock).
+ */
+public final class ScoreStore implements AutoCloseable {
+    public static final int RECORD_BYTES = 32;
+    private static final int MAGIC = 0x534E4B53;        // "SNKS"
+    private static final int VERSION = 1;
+    private static final int COUNT_OFFSET = 8;
+    private static final long INITIAL_RECORDS = 1 << 16;
+    private static final long MAX_BYTES = Integer.MAX_VALUE;
+
+    private static final DifficultyLevel[] DIFFICULTIES = DifficultyLevel.values();
+    private static final int TIMESTAMP = 0, PLAYER = 8, SCORE = 12, LENGTH = 16, DURATION = 20, DIFFICULTY = 24;
+
+    public record Result(String code, String name, long timestampMillis, DifficultyLevel difficulty,
+                         int score, int length, long durationMillis) {
+    }
+
+    private final FileChannel channel;
+    private final DataOutputStream namesOut;
+    private final List<String> codes = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final Map<Player, Integer> ids = new HashMap<>();
+    private MappedByteBuffer map;
+    private long count;
+    private boolean closed;
+
+    private record Player(String code, String name) {
+    }
+
+    private ScoreStore(FileChannel channel, DataOutputStream namesOut) {
+        this.channel = channel;
+        this.namesOut = namesOut;
+    }
+
+    /** Opens {@code file} and its name table, creating both if they don't exist. */
+    public static ScoreStore open(Path file) throws IOException {
+        Path namesFile = namesFile(file);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        ScoreStore store = null;
+        try {
+            store = new ScoreStore(channel, new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(namesFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND))));
+            store.readNames(namesFile);
+            store.mapHeader();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            if (store != null) store.namesOut.close();
+            channel.close();
+            throw e;
+        }
+    }
+
+    private static Path namesFile(Path file) {
+        return file.resolveSibling(file.getFileName() + ".names");
+    }
+
+    private void readNames(Path namesFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(namesFile)))) {
+            while (true) {
+                String code, name;
+                try {
+                    code = in.readUTF();
+                    name = in.readUTF();
+                } catch (EOFException end) {
+                    break;      // also drops an entry cut short by a crash
+                }
+                ids.putIfAbsent(new Player(code, name), codes.size());
+                codes.add(code);
+                names.add(name);
+            }
+        } catch (NoSuchFileException ignored) {
+        }
+    }
+
+    private void mapHeader() throws IOException {
+        long size = channel.size();
+        if (size == 0) {
+            remap(RECORD_BYTES * (INITIAL_RECORDS + 1));
+            map.putInt(0, MAGIC);
+            map.putInt(4, VERSION);
+            map.putLong(COUNT_OFFSET, 0);
+            return;
+        }
+        if (size < RECORD_BYTES) throw new IOException("Not a score store: too short");
+        remap(size);
+        if (map.getInt(0) != MAGIC) throw new IOException("Not a score store: bad magic");
+        if (map.getInt(4) != VERSION) throw new IOException("Unsupported score store version " + map.getInt(4));
+        count = map.getLong(COUNT_OFFSET);
+        if (count < 0 || (count + 1) * RECORD_BYTES > size) throw new IOException("Score store header is corrupt: " + count + " records");
+        for (long i = 0; i < count; i++) {
+            int player = map.getInt(offset(i) + PLAYER);
+            if (player < 0 || player >= codes.size()) {
+                throw new IOException("Record " + i + " names player " + player + ", table has " + codes.size());
+            }
+            int difficulty = map.get(offset(i) + DIFFICULTY);
+            if (difficulty < -1 || difficulty >= DIFFICULTIES.length) {
+                throw new IOException("Record " + i + " has difficulty " + difficulty);
+            }
+        }
+    }
+
+    private void remap(long bytes) throws IOException {
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        map.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int offset(long index) {
+        return (int) ((index + 1) * RECORD_BYTES);
+    }
+
+    /** The id for {@code code} and {@code name}, adding them to the table on first sight. */
+    private int intern(String code, String name) throws IOException {
+        Player player = new Player(code, name);
+        Integer id = ids.get(player);
+        if (id != null) return id;
+        namesOut.writeUTF(code);
+        namesOut.writeUTF(name);
+        namesOut.flush();   // before any record can point at it
+        int next = codes.size();
+        ids.put(player, next);
+        codes.add(code);
+        names.add(name);
+        return next;
+    }
+
+    /**
+     * Appends one game and returns its index. The record goes into the mapped
+     * pages only; it reaches the disk when the OS writes them back, or on
+     * {@link #force()} and {@link #close()}.
+     */
+    public long append(String code, String name, long timestampMillis, DifficultyLevel difficulty,
+                       int score, int length, long durationMillis) throws IOException {
+        if (closed) throw new IllegalStateException("Score store is closed");
+        long end = (count + 2) * RECORD_BYTES;
+        if (end > MAX_BYTES) throw new IllegalStateException("Score store full: " + count + " records");
+        int player = intern(code, name);
+        if (end > map.capacity()) {
+            remap(Math.min(MAX_BYTES, (long) map.capacity() * 2));
+        }
+        int at = offset(count);
+        map.putLong(at + TIMESTAMP, timestampMillis);
+        map.putInt(at + PLAYER, player);
+        map.putInt(at + SCORE, score);
+        map.putInt(at + LENGTH, length);
+        map.putInt(at + DURATION, (int) Math.min(Integer.MAX_VALUE, durationMillis));
+        map.put(at + DIFFICULTY, (byte) (difficulty == null ? -1 : difficulty.ordinal()));
+        map.putLong(COUNT_OFFSET, ++count);
+        return count - 1;
+    }
+
+    public long size() {
+        return count;
+    }
+
+    public int playerCount() {
+        return codes.size();
+    }
+
+    public Result get(long index) {
+        Cursor c = new Cursor();
+        c.moveTo(index);
+        return c.toResult();
+    }
+
+    /** Read-only window onto one record of the mapping; {@link #scan} moves it along. */
+    public final class Cursor {
+        private long index;
+        private int at;
+
+        private Cursor() {
+        }
+
+        private void moveTo(long index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Record " + index + " of " + count);
+            }
+            this.index = index;
+            this.at = offset(index);
+        }
+
+        public long index() {
+            return index;
+        }
+
+        public long timestampMillis() {
+            return map.getLong(at + TIMESTAMP);
+        }
+
+        public int playerId() {
+            return map.getInt(at + PLAYER);
+        }
+
+        public String code() {
+            return codes.get(playerId());
+        }
+
+        public String name() {
+            return names.get(playerId());
+        }
+
+        public int score() {
+            return map.getInt(at + SCORE);
+        }
+
+        public int length() {
+            return map.getInt(at + LENGTH);
+        }
+
+        public long durationMillis() {
+            return map.getInt(at + DURATION);
+        }
+
+        /** Null for games recorded without one, or with a byte that isn't a difficulty. */
+        public DifficultyLevel difficulty() {
+            int d = map.get(at + DIFFICULTY);
+            return d < 0 || d >= DIFFICULTIES.length ? null : DIFFICULTIES[d];
+        }
+
+        public Result toResult() {
+            return new Result(code(), name(), timestampMillis(), difficulty(), score(), length(), durationMillis());
+        }
+    }
+
+    /** Visits records {@code from} (inclusive) to {@code to} (exclusive) in order, through one reused cursor. */
+    public void scan(long from, long to, Consumer<Cursor> visitor) {
+        Cursor c = new Cursor();
+        for (long i = Math.max(0, from), end = Math.min(to, count); i < end; i++) {
+            c.moveTo(i);
+            visitor.accept(c);
+        }
+    }
+
+    /** The {@code n} best games at {@code difficulty} (null: games without one), highest first; ties keep file order. */
+    public List<Result> top(DifficultyLevel difficulty, int n) {
+        if (n <= 0) throw new IllegalArgumentException("n must be positive: " + n);
+        byte wanted = (byte) (difficulty == null ? -1 : difficulty.ordinal());
+        // best n so far, sorted by score descending; a plain insertion keeps it cheap for small n
+        long[] best = new long[n];
+        int[] bestScores = new int[n];
+        int found = 0;
+        for (long i = 0; i < count; i++) {
+            int at = offset(i);
+            if (map.get(at + DIFFICULTY) != wanted) continue;
+            int score = map.getInt(at + SCORE);
+            if (found == n && score <= bestScores[n - 1]) continue;
+            int pos = Math.min(found, n - 1);
+            while (pos > 0 && bestScores[pos - 1] < score) {
+                best[pos] = best[pos - 1];
+                bestScores[pos] = bestScores[pos - 1];
+                pos--;
+            }
+            best[pos] = i;
+            bestScores[pos] = score;
+            if (found < n) found++;
+        }
+        List<Result> results = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) results.add(get(best[i]));
+        return results;
+    }
+
+    /**
+     * Games, best and total score of the player with game code {@code code}
+     * and {@code name} (ignoring case, as a login does); empty if they never
+     * played.
+     */
+    public Optional<Leaderboard.PlayerStats> player(String code, String name) {
+        BitSet matching = new BitSet();
+        for (int id = 0; id < codes.size(); id++) {
+            if (codes.get(id).equals(code) && names.get(id).equalsIgnoreCase(name)) matching.set(id);
+        }
+        if (matching.isEmpty()) return Optional.empty();
+        int games = 0, best = 0;
+        long total = 0;
+        for (long i = 0; i < count; i++) {
+            int at = offset(i);
+            if (!matching.get(map.getInt(at + PLAYER))) continue;
+            int score = map.getInt(at + SCORE);
+            if (games == 0 || score > best) best = score;
+            games++;
+            total += score;
+        }
+        return games == 0 ? Optional.empty()
+                : Optional.of(new Leaderboard.PlayerStats(code, names.get(matching.nextSetBit(0)), games, best, total));
+    }
+
+    /**
+     * Appends every game in a {@code scores.txt}-style text log, streaming it
+     * line by line. Text lines carry no time, length or duration, so those
+     * are stored as unknown. Returns the number of games imported; lines that
+     * don't parse are skipped.
+     */
+    public long importText(Path text) throws IOException {
+        long imported = 0;
+        try (BufferedReader in = Files.newBufferedReader(text, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                Leaderboard.Entry e = Leaderboard.parse(line);
+                if (e == null) continue;
+                append(e.code(), e.name(), 0, e.difficulty(), e.score(), 0, 0);
+                imported++;
+            }
+        }
+        return imported;
+    }
+
+    /** Writes every game as a text log line, in the format {@link Leaderboard} reads. */
+    public void exportText(Path text) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(text, StandardCharsets.UTF_8)) {
+            Cursor c = new Cursor();
+            for (long i = 0; i < count; i++) {
+                c.moveTo(i);
+                out.write(Leaderboard.format(c.name(), c.code(), c.score(), c.difficulty()));
+                out.newLine();
+            }
+        }
+    }
+
+    /** Forces the records written so far to the device. */
+    public void force() {
+        map.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            map.force();
+            namesOut.close();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * {@code import <scores.txt> <scores.bin>}, {@code export <scores.bin> <scores.txt>}
+     * or {@code stats <scores.bin>} (sizes, the top five per difficulty and how long the queries took).
+     */
+    public static void main(String[] args) throws IOException {
+        // import and export name two files, stats one
+        int needed = args.length > 0 && args[0].equals("stats") ? 2 : 3;
+        if (args.length < needed) {
+            System.err.println("Usage: ScoreStore import <scores.txt> <scores.bin> | export <scores.bin> <scores.txt>"
+                    + " | stats <scores.bin>");
+            System.exit(2);
+        }
+        switch (args[0]) {
+            case "import" -> {
+                try (ScoreStore store = open(Path.of(args[2]))) {
+                    long t0 = System.nanoTime();
+                    long n = store.importText(Path.of(args[1]));
+                    System.out.printf("imported %d games in %.1f ms, %d records, %d players%n",
+                            n, (System.nanoTime() - t0) / 1e6, store.size(), store.playerCount());
+                }
+            }
+            case "export" -> {
+                try (ScoreStore store = open(Path.of(args[1]))) {
+                    store.exportText(Path.of(args[2]));
+                    System.out.printf("exported %d games%n", store.size());
+                }
+            }
+            case "stats" -> {
+                try (ScoreStore store = open(Path.of(args[1]))) {
+                    System.out.printf("%d records, %d players%n", store.size(), store.playerCount());
+                    for (DifficultyLevel d : DifficultyLevel.values()) {
+                        long t0 = System.nanoTime();
+                        List<Result> top = store.top(d, 5);
+                        System.out.printf("%-6s top %d in %.2f ms%n", d.displayName(), top.size(),
+                                (System.nanoTime() - t0) / 1e6);
+                        for (Result r : top) System.out.printf("  %6d  %s (%s)%n", r.score(), r.name(), r.code());
+                    }
+                }
+            }
+            default -> {
+                System.err.println("Unknown command " + args[0]);
+                System.exit(2);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.snakegame.core.telemetry;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue of telemetry events, many producers and one
+ * consumer. All storage is allocated up front as one primitive array per
+ * event field, so {@link #offer} allocates nothing: a producer claims a slot
+ * with one CAS on the tail, writes the fields and publishes the slot by
+ * bumping its sequence number. A full ring drops the event and counts it
+ * rather than make a game tick wait.
+ * <p>
+ * Slot {@code i} is free for the producer claiming position {@code p} when
+ * its sequence is {@code p}, and holds a published event for the consumer
+ * when it is {@code p + 1}; the consumer hands it back as {@code p + capacity}.
+ */
+public final class EventRing {
+
+    /** Receives drained events; called on the consumer thread. */
+    @FunctionalInterface
+    public interface Sink {
+        void accept(EventType type, int difficulty, int session, long tick, long value);
+    }
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final byte[] types;
+    private final byte[] difficulties;
+    private final int[] sessions;
+    private final long[] ticks;
+    private final long[] values;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long head;   // consumer only
+
+    /** @param capacity rounded up to a power of two */
+    public EventRing(int capacity) {
+        if (capacity < 2 || capacity > 1 << 30) throw new IllegalArgumentException("Bad capacity: " + capacity);
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+        types = new byte[size];
+        difficulties = new byte[size];
+        sessions = new int[size];
+        ticks = new long[size];
+        values = new long[size];
+    }
+
+    /** Queues one event; false (and counted in {@link #dropped()}) if the ring is full. */
+    public boolean offer(EventType type, int difficulty, int session, long tick, long value) {
+        long t = tail.get();
+        int i;
+        while (true) {
+            i = (int) t & mask;
+            long gap = sequences.getAcquire(i) - t;
+            if (gap == 0) {
+                if (tail.compareAndSet(t, t + 1)) break;
+                t = tail.get();
+            } else if (gap < 0) {
+                dropped.incrementAndGet();
+                return false;
+            } else {
+                t = tail.get();
+            }
+        }
+        types[i] = (byte) type.ordinal();
+        difficulties[i] = (byte) difficulty;
+        sessions[i] = session;
+        ticks[i] = tick;
+        values[i] = value;
+        sequences.setRelease(i, t + 1);
+        return true;
+    }
+
+    /**
+     * Hands up to {@code max} published events to {@code sink}, oldest first,
+     * and returns how many. Stops early at a slot that is claimed but not yet
+     * published. Single consumer only.
+     */
+    public int drain(Sink sink, int max) {
+        int n = 0;
+        while (n < max) {
+            int i = (int) head & mask;
+            if (sequences.getAcquire(i) != head + 1) break;
+            sink.accept(EventType.of(types[i]), difficulties[i], sessions[i], ticks[i], values[i]);
+            sequences.setRelease(i, head + mask + 1);
+            head++;
+            n++;
+        }
+        return n;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** Events lost because the ring was full. */
+    public long dropped() {
+        return dropped.get();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.snakegame.core.telemetry;
+
+import com.example.snakegame.core.StepResult;
+
+/**
+ * What a telemetry event records. Every event carries the session, the
+ * difficulty and the engine tick it happened on, plus one value whose
+ * meaning depends on the type.
+ */
+public enum EventType {
+    /** A new game; the value is unused. */
+    GAME_STARTED,
+    /** The snake ate the food; the value is the score after eating. */
+    FOOD_EATEN,
+    /** A bonus appeared; the value is its packed cell. */
+    BONUS_SPAWNED,
+    /** The snake ate the bonus; the value is how many ticks it had been up. */
+    BONUS_EATEN,
+    /** The bonus left the board uneaten; the value is how many ticks it had been up. */
+    BONUS_EXPIRED,
+    /** Game over against a wall; the value is the final score. */
+    HIT_WALL,
+    /** Game over against the snake's own body; the value is the final score. */
+    HIT_SELF,
+    /** The snake filled the board; the value is the final score. */
+    BOARD_FULL,
+    /** One game-loop tick; the value is the wall-clock nanoseconds it took. */
+    TICK;
+
+    private static final EventType[] VALUES = values();
+
+    static EventType of(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /** The event for a game-ending step result. */
+    static EventType ending(StepResult result) {
+        return switch (result) {
+            case HIT_WALL -> HIT_WALL;
+            case HIT_SELF -> HIT_SELF;
+            case BOARD_FULL -> BOARD_FULL;
+            default -> throw new IllegalArgumentException("Not a game-ending result: " + result);
+        };
+    }
+
+    public boolean endsGame() {
+        return this == HIT_WALL || this == HIT_SELF || this == BOARD_FULL;
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.snakegame.core.telemetry;
+
+import com.example.snakegame.core.GameEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Binary event log fed from an {@link EventRing}. Games only ever offer to the
+ * ring; one background thread wakes every flush interval, drains whatever has
+ * queued up and appends it to the file as one batch with a single write.
+ * <p>
+ * File layout: the magic {@code SNKT} and a version byte, then batches. A
+ * batch is its event count and wall-clock time (epoch milliseconds) as
+ * varints, then per event the {@link EventType} ordinal and difficulty
+ * ordinal as a byte each and the session, tick and value as varints, so a
+ * typical event is 6 to 10 bytes. {@link TelemetryReport} reads it back.
+ */
+public final class TelemetryLog implements AutoCloseable {
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    static final int MAGIC = 0x534E4B54;   // "SNKT"
+    static final int VERSION = 1;
+    private static final int BATCH_EVENTS = 4096;
+    private static final int MAX_EVENT_BYTES = 2 + 5 + 10 + 10;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final EventRing ring;
+    private final long flushIntervalNanos;
+    private final Consumer<IOException> onError;
+    private final Thread writer;
+    private final AtomicLong written = new AtomicLong();
+    private volatile boolean closed;
+
+    // writer thread only
+    private final ByteBuffer batchHeader = ByteBuffer.allocate(20);
+    private final ByteBuffer batch = ByteBuffer.allocate(BATCH_EVENTS * MAX_EVENT_BYTES);
+    private final ByteBuffer[] parts = {batchHeader, batch};
+    private boolean broken;     // a failed batch couldn't be cut back off the file
+    private final EventRing.Sink encoder = (type, difficulty, session, tick, value) -> {
+        batch.put((byte) type.ordinal());
+        batch.put((byte) difficulty);
+        putVarint(batch, session);
+        putVarint(batch, tick);
+        putVarint(batch, value);
+    };
+
+    private TelemetryLog(Path file, FileChannel channel, int capacity, long flushIntervalMillis,
+                         Consumer<IOException> onError) {
+        this.file = file;
+        this.channel = channel;
+        this.ring = new EventRing(capacity);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.onError = onError;
+        this.writer = Thread.ofVirtual().name("telemetry " + file.getFileName()).start(this::run);
+    }
+
+    /**
+     * Opens {@code file} for appending, writing the header if it is new.
+     *
+     * @param capacity events the ring holds between flushes before it drops
+     * @param onError  called on the writer thread for every failed batch
+     */
+    public static TelemetryLog open(Path file, int capacity, long flushIntervalMillis,
+                                    Consumer<IOException> onError) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(5);
+            if (channel.size() == 0) {
+                header.putInt(MAGIC).put((byte) VERSION).flip();
+                while (header.hasRemaining()) channel.write(header);
+            } else {
+                int r;
+                do {
+                    r = channel.read(header, header.position());
+                } while (r > 0 && header.hasRemaining());
+                if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                    throw new IOException("Not a telemetry log: " + file);
+                }
+                if (header.get(4) != VERSION) throw new IOException("Unsupported telemetry log version " + header.get(4));
+                // only the writer thread writes from here on, always at the end
+                channel.position(channel.size());
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new TelemetryLog(file, channel, capacity, flushIntervalMillis, onError);
+    }
+
+    /** A recorder for {@code engine} feeding this log; attach it as an engine listener. */
+    public TelemetryRecorder recorder(GameEngine engine, int session) {
+        return new TelemetryRecorder(engine, ring, session);
+    }
+
+    public EventRing ring() {
+        return ring;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public long writtenEvents() {
+        return written.get();
+    }
+
+    /** Events dropped because the ring filled up between flushes. */
+    public long droppedEvents() {
+        return ring.dropped();
+    }
+
+    /** Writes whatever is still in the ring and closes the file. */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            boolean last = closed;
+            // keep going while batches come back full; after that wait for the next interval
+            int n;
+            do {
+                n = ring.drain(encoder, BATCH_EVENTS);
+                if (n > 0) writeBatch(n);
+            } while (n == BATCH_EVENTS);
+            if (last) break;
+            LockSupport.parkNanos(this, flushIntervalNanos);
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            onError.accept(e);
+        }
+    }
+
+    /**
+     * Appends the encoded batch. A write that fails partway is cut back off
+     * the file, since {@link TelemetryReport} can only skip a broken batch at
+     * the end; if even that fails, nothing more is written.
+     */
+    private void writeBatch(int events) {
+        batchHeader.clear();
+        putVarint(batchHeader, events);
+        putVarint(batchHeader, System.currentTimeMillis());
+        batchHeader.flip();
+        batch.flip();
+        if (!broken) {
+            long start = -1;
+            try {
+                start = channel.size();
+                while (batch.hasRemaining()) channel.write(parts);
+                written.addAndGet(events);
+            } catch (IOException e) {
+                onError.accept(e);
+                rollBack(start);
+            }
+        }
+        batch.clear();
+    }
+
+    private void rollBack(long size) {
+        if (size < 0) return;      // failed before anything was written
+        try {
+            channel.truncate(size);
+            channel.position(size);
+        } catch (IOException e) {
+            broken = true;
+            onError.accept(new IOException("Telemetry stopped: a failed batch is left in " + file, e));
+        }
+    }
+
+    private static void putVarint(ByteBuffer out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+}
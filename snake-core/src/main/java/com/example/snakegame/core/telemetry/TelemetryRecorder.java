@@ -0,0 +1,74 @@
+package com.example.snakegame.core.telemetry;
+
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.GameListener;
+import com.example.snakegame.core.StepResult;
+
+/**
+ * Turns one engine's listener callbacks into telemetry events on an
+ * {@link EventRing}. Attach it as (one of) the engine's listeners; each
+ * callback costs one ring slot and no allocation. The game loop adds the
+ * tick timings itself through {@link #tickTook(long)}.
+ * <p>
+ * Like a {@code ReplayRecorder}, create it right after the engine or a reset:
+ * the game in progress is logged as started then.
+ * <p>
+ * Eating is worked out from the moves: the head landing on the cell where the
+ * food was last placed is a {@link EventType#FOOD_EATEN}.
+ */
+public final class TelemetryRecorder implements GameListener {
+    private final GameEngine engine;
+    private final EventRing ring;
+    private final int session;
+    private int foodCell = -1;
+    private long bonusSpawnTick;
+
+    public TelemetryRecorder(GameEngine engine, EventRing ring, int session) {
+        this.engine = engine;
+        this.ring = ring;
+        this.session = session;
+        foodCell = engine.foodX() >= 0 ? engine.foodY() * engine.width() + engine.foodX() : -1;
+        emit(EventType.GAME_STARTED, 0);
+    }
+
+    private void emit(EventType type, long value) {
+        ring.offer(type, engine.difficulty().ordinal(), session, engine.tick(), value);
+    }
+
+    @Override
+    public void onReset() {
+        // the reset's food placement follows straight after
+        emit(EventType.GAME_STARTED, 0);
+    }
+
+    @Override
+    public void onSnakeMoved(int headCell, int oldHeadCell, int tailCell) {
+        if (headCell == foodCell) emit(EventType.FOOD_EATEN, engine.score());
+    }
+
+    @Override
+    public void onFoodPlaced(int cell) {
+        foodCell = cell;
+    }
+
+    @Override
+    public void onBonusPlaced(int cell) {
+        bonusSpawnTick = engine.tick();
+        emit(EventType.BONUS_SPAWNED, cell);
+    }
+
+    @Override
+    public void onBonusRemoved(int cell, boolean eaten) {
+        emit(eaten ? EventType.BONUS_EATEN : EventType.BONUS_EXPIRED, engine.tick() - bonusSpawnTick);
+    }
+
+    @Override
+    public void onGameEnded(StepResult result) {
+        emit(EventType.ending(result), engine.score());
+    }
+
+    /** Records how long the loop's last tick took, in wall-clock nanoseconds. */
+    public void tickTook(long nanos) {
+        emit(EventType.TICK, nanos);
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.snakegame.core.telemetry;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.metrics.LatencyHistogram;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Offline aggregation of a {@link TelemetryLog} into per-difficulty numbers
+ * for tuning the bonus timings and the tick rates: how long games last and
+ * how they end, how often food is eaten, how many bonuses appear and how many
+ * are picked up (and how late), and how long the loop's ticks take.
+ * <p>
+ * A log whose last batch was cut short (the game was killed mid-write) is
+ * read up to that batch; {@link #truncated()} says so.
+ * <p>
+ * Run from the command line:
+ * {@code java -cp snake-core.jar com.example.snakegame.core.telemetry.TelemetryReport <telemetry.snkt>...}
+ */
+public final class TelemetryReport {
+
+    /** Totals for one difficulty. Times in seconds are simulated game time. */
+    public static final class Stats {
+        private final DifficultyLevel difficulty;
+        private long games, wallDeaths, selfDeaths, wins;
+        private long totalScore, totalTicks;
+        private long foods, foodGapTicks;
+        private long bonusSpawns, bonusesEaten, bonusesExpired, eatenAgeTicks;
+        private final LatencyHistogram tickNanos = new LatencyHistogram();
+
+        private Stats(DifficultyLevel difficulty) {
+            this.difficulty = difficulty;
+        }
+
+        public DifficultyLevel difficulty() {
+            return difficulty;
+        }
+
+        public long games() {
+            return games;
+        }
+
+        /** Games that reached an end; the rest were abandoned. */
+        public long finishedGames() {
+            return wallDeaths + selfDeaths + wins;
+        }
+
+        public long wallDeaths() {
+            return wallDeaths;
+        }
+
+        public long selfDeaths() {
+            return selfDeaths;
+        }
+
+        public long wins() {
+            return wins;
+        }
+
+        public double meanScore() {
+            return ratio(totalScore, finishedGames());
+        }
+
+        public double meanGameSeconds() {
+            return seconds(ratio(totalTicks, finishedGames()));
+        }
+
+        public long foods() {
+            return foods;
+        }
+
+        /** Mean time from the start of a game, or the last food, to the next food. */
+        public double meanSecondsPerFood() {
+            return seconds(ratio(foodGapTicks, foods));
+        }
+
+        public long bonusSpawns() {
+            return bonusSpawns;
+        }
+
+        public long bonusesEaten() {
+            return bonusesEaten;
+        }
+
+        public long bonusesExpired() {
+            return bonusesExpired;
+        }
+
+        /** Share of the bonuses that left the board which were eaten. */
+        public double bonusPickupRate() {
+            return ratio(bonusesEaten, bonusesEaten + bonusesExpired);
+        }
+
+        /** Mean time a bonus was up before it was eaten. */
+        public double meanSecondsToBonus() {
+            return seconds(ratio(eatenAgeTicks, bonusesEaten));
+        }
+
+        /** Wall-clock time of the game loop's ticks. */
+        public LatencyHistogram tickNanos() {
+            return tickNanos;
+        }
+
+        private double seconds(double ticks) {
+            return ticks * difficulty.tickNanos() / 1e9;
+        }
+
+        private static double ratio(long a, long b) {
+            return b == 0 ? 0 : (double) a / b;
+        }
+    }
+
+    private static final class Session {
+        long lastFoodTick;
+    }
+
+    private final Stats[] stats = new Stats[DifficultyLevel.values().length];
+    private final Map<Integer, Session> sessions = new HashMap<>();
+    private long events, batches;
+    private boolean truncated;
+
+    public TelemetryReport() {
+        for (DifficultyLevel d : DifficultyLevel.values()) stats[d.ordinal()] = new Stats(d);
+    }
+
+    public Stats stats(DifficultyLevel difficulty) {
+        return stats[difficulty.ordinal()];
+    }
+
+    public long events() {
+        return events;
+    }
+
+    public long batches() {
+        return batches;
+    }
+
+    /** True when a log ended in the middle of a batch. */
+    public boolean truncated() {
+        return truncated;
+    }
+
+    /** Adds every event in {@code file} to the totals. */
+    public void read(Path file) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            read(in);
+        }
+    }
+
+    public void read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != TelemetryLog.MAGIC) throw new IOException("Not a telemetry log");
+        int version = in.readUnsignedByte();
+        if (version != TelemetryLog.VERSION) throw new IOException("Unsupported telemetry log version " + version);
+        while (true) {
+            int first = in.read();
+            if (first < 0) return;
+            try {
+                long count = readVarint(in, first);
+                readVarint(in, in.readUnsignedByte());   // batch time, not needed for the totals
+                for (long i = 0; i < count; i++) {
+                    int type = in.readUnsignedByte(), difficulty = in.readUnsignedByte();
+                    int session = (int) readVarint(in, in.readUnsignedByte());
+                    long tick = readVarint(in, in.readUnsignedByte());
+                    long value = readVarint(in, in.readUnsignedByte());
+                    if (type >= EventType.values().length || difficulty >= stats.length) {
+                        throw new IOException("Bad event in batch " + batches);
+                    }
+                    add(EventType.of(type), stats[difficulty], session, tick, value);
+                }
+                batches++;
+            } catch (EOFException e) {
+                truncated = true;
+                return;
+            }
+        }
+    }
+
+    private void add(EventType type, Stats s, int session, long tick, long value) {
+        events++;
+        Session game = sessions.computeIfAbsent(session, k -> new Session());
+        switch (type) {
+            case GAME_STARTED -> {
+                s.games++;
+                game.lastFoodTick = tick;
+            }
+            case FOOD_EATEN -> {
+                s.foods++;
+                s.foodGapTicks += tick - game.lastFoodTick;
+                game.lastFoodTick = tick;
+            }
+            case BONUS_SPAWNED -> s.bonusSpawns++;
+            case BONUS_EATEN -> {
+                s.bonusesEaten++;
+                s.eatenAgeTicks += value;
+            }
+            case BONUS_EXPIRED -> s.bonusesExpired++;
+            case HIT_WALL, HIT_SELF, BOARD_FULL -> {
+                if (type == EventType.HIT_WALL) s.wallDeaths++;
+                else if (type == EventType.HIT_SELF) s.selfDeaths++;
+                else s.wins++;
+                s.totalScore += value;
+                s.totalTicks += tick;
+            }
+            case TICK -> s.tickNanos.record(value);
+        }
+    }
+
+    private static long readVarint(DataInputStream in, int first) throws IOException {
+        long v = first & 0x7F;
+        int b = first;
+        for (int shift = 7; (b & 0x80) != 0; shift += 7) {
+            if (shift >= 64) throw new IOException("Malformed varint");
+            b = in.readUnsignedByte();
+            v |= (long) (b & 0x7F) << shift;
+        }
+        return v;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: TelemetryReport <telemetry.snkt>...");
+            System.exit(2);
+        }
+        TelemetryReport report = new TelemetryReport();
+        for (String file : args) report.read(Path.of(file));
+        System.out.printf("%d events in %d batches%s%n", report.events(), report.batches(),
+                report.truncated() ? " (last batch cut short)" : "");
+        System.out.printf("%-24s", "");
+        for (DifficultyLevel d : DifficultyLevel.values()) System.out.printf("%12s", d.displayName());
+        System.out.println();
+        row(report, "games", s -> String.valueOf(s.games()));
+        row(report, "  finished", s -> String.valueOf(s.finishedGames()));
+        row(report, "  wall / self / won", s -> s.wallDeaths() + "/" + s.selfDeaths() + "/" + s.wins());
+        row(report, "mean score", s -> String.format(Locale.ROOT, "%.1f", s.meanScore()));
+        row(report, "mean game (s)", s -> String.format(Locale.ROOT, "%.1f", s.meanGameSeconds()));
+        row(report, "food eaten", s -> String.valueOf(s.foods()));
+        row(report, "s per food", s -> String.format(Locale.ROOT, "%.2f", s.meanSecondsPerFood()));
+        row(report, "bonus spawns", s -> String.valueOf(s.bonusSpawns()));
+        row(report, "  eaten / expired", s -> s.bonusesEaten() + "/" + s.bonusesExpired());
+        row(report, "  pickup rate", s -> String.format(Locale.ROOT, "%.0f%%", 100 * s.bonusPickupRate()));
+        row(report, "  s to pick up", s -> String.format(Locale.ROOT, "%.2f", s.meanSecondsToBonus()));
+        row(report, "ticks timed", s -> String.valueOf(s.tickNanos().count()));
+        row(report, "  tick mean (us)", s -> String.format(Locale.ROOT, "%.1f", s.tickNanos().mean() / 1e3));
+        row(report, "  tick p99 (us)", s -> String.format(Locale.ROOT, "%.1f", s.tickNanos().percentile(99) / 1e3));
+        row(report, "  tick max (us)", s -> String.format(Locale.ROOT, "%.1f", s.tickNanos().max() / 1e3));
+    }
+
+    private static void row(TelemetryReport report, String label, Function<Stats, String> cell) {
+        System.out.printf("%-24s", label);
+        for (DifficultyLevel d : DifficultyLevel.values()) System.out.printf("%12s", cell.apply(report.stats(d)));
+        System.out.println();
+    }
+}
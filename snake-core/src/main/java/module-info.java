@@ -0,0 +1,10 @@
+module com.example.snakegame.core {
+    exports com.example.snakegame.core;
+    exports com.example.snakegame.core.bot;
+    exports com.example.snakegame.core.level;
+    exports com.example.snakegame.core.metrics;
+    exports com.example.snakegame.core.replay;
+    exports com.example.snakegame.core.server;
+    exports com.example.snakegame.core.store;
+    exports com.example.snakegame.core.telemetry;
+}
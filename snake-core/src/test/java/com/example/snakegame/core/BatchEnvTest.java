@@ -0,0 +1,131 @@
+package com.example.snakegame.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchEnvTest {
+    private static final long FIRST_SEED = 100;
+
+    /**
+     * Steps {@code boards} games through a {@link BatchEnv} and the same
+     * number of {@link GameEngine}s side by side, mostly chasing the food
+     * with the odd random turn, and checks every observation against the
+     * engine after every tick.
+     */
+    private static void assertPlaysLikeGameEngine(int width, int height, DifficultyLevel difficulty,
+                                                  int threads, int ticks) {
+        int boards = 40;
+        GameEngine[] games = new GameEngine[boards];
+        for (int i = 0; i < boards; i++) games[i] = new GameEngine(width, height, difficulty, FIRST_SEED + i);
+        Direction[] directions = Direction.values();
+        int[] actions = new int[boards];
+        int[] obs = new int[boards * BatchEnv.OBS_FIELDS];
+        long[] bits = new long[(width * height + 63) / 64];
+        Random random = new Random(7);
+        String where = difficulty + " " + width + "x" + height + " on " + threads + " threads";
+        int ended = 0;
+        try (BatchEnv env = new BatchEnv(boards, width, height, difficulty, FIRST_SEED, threads)) {
+            env.observe(obs);
+            for (int t = 0; t < ticks; t++) {
+                for (int i = 0; i < boards; i++) {
+                    int o = i * BatchEnv.OBS_FIELDS;
+                    int head = obs[o + BatchEnv.HEAD], food = obs[o + BatchEnv.FOOD];
+                    int hx = head % width, hy = head / width, fx = food % width, fy = food / width;
+                    actions[i] = fx > hx ? Direction.RIGHT.ordinal() : fx < hx ? Direction.LEFT.ordinal()
+                            : fy > hy ? Direction.DOWN.ordinal() : Direction.UP.ordinal();
+                    // -1 keeps the current direction, like step(null)
+                    if (random.nextInt(10) == 0) actions[i] = random.nextInt(directions.length + 1) - 1;
+                }
+                int endedNow = env.step(actions, obs);
+                int expectedEnds = 0;
+                for (int i = 0; i < boards; i++) {
+                    GameEngine game = games[i];
+                    StepResult result = game.step(actions[i] < 0 ? null : directions[actions[i]]);
+                    int o = i * BatchEnv.OBS_FIELDS;
+                    String at = where + ", tick " + t + ", board " + i;
+                    assertEquals(result.ordinal(), obs[o + BatchEnv.RESULT], at);
+                    assertEquals(game.score(), obs[o + BatchEnv.SCORE], at);
+                    if (result.endsGame()) {
+                        game.reset();
+                        expectedEnds++;
+                    }
+                    assertEquals(game.snake().headCell(), obs[o + BatchEnv.HEAD], at);
+                    assertEquals(game.foodY() * width + game.foodX(), obs[o + BatchEnv.FOOD], at);
+                    assertEquals(game.hasBonusFood() ? game.bonusFoodY() * width + game.bonusFoodX() : -1,
+                            obs[o + BatchEnv.BONUS], at);
+                    assertEquals(game.direction().ordinal(), obs[o + BatchEnv.DIRECTION], at);
+                    assertEquals(game.snake().length(), obs[o + BatchEnv.LENGTH], at);
+                    assertEquals(game.tick(), obs[o + BatchEnv.TICK], at);
+                    assertEquals(game.seed(), env.seed(i), at);
+                }
+                assertEquals(expectedEnds, endedNow, where + ", tick " + t);
+                ended += endedNow;
+            }
+            for (int i = 0; i < boards; i++) {
+                env.copyOccupancy(i, bits, 0);
+                for (int cell = 0; cell < width * height; cell++) {
+                    assertEquals(games[i].snake().isOccupied(cell), (bits[cell >>> 6] & 1L << cell) != 0,
+                            where + ", board " + i + ", cell " + cell);
+                }
+            }
+        }
+        assertTrue(ended > 0, where + ": no game ended, so resets went unchecked");
+    }
+
+    @Test
+    void singlePageBoardsMatchGameEngine() {
+        for (DifficultyLevel difficulty : DifficultyLevel.values()) {
+            assertPlaysLikeGameEngine(30, 18, difficulty, 1, 2_000);
+            assertPlaysLikeGameEngine(5, 4, difficulty, 3, 1_000);
+        }
+    }
+
+    @Test
+    void multiPageBoardsMatchGameEngine() {
+        // 5000 cells: two Occupancy pages, so food is placed through the per-page counts
+        assertPlaysLikeGameEngine(100, 50, DifficultyLevel.EASY, 1, 1_500);
+        assertPlaysLikeGameEngine(100, 50, DifficultyLevel.HARD, 3, 1_500);
+    }
+
+    @Test
+    void restartMatchesReset() {
+        int width = 12, height = 8;
+        try (BatchEnv env = new BatchEnv(2, width, height, DifficultyLevel.MEDIUM, FIRST_SEED, 1)) {
+            GameEngine game = new GameEngine(width, height, DifficultyLevel.MEDIUM, FIRST_SEED + 1);
+            int[] actions = {-1, -1};
+            int[] obs = new int[2 * BatchEnv.OBS_FIELDS];
+            for (int t = 0; t < 3; t++) {
+                env.step(actions, obs);
+                game.step(null);
+            }
+            env.restart(1);
+            game.reset();
+            env.observe(obs);
+            int o = BatchEnv.OBS_FIELDS;
+            assertEquals(-1, obs[o + BatchEnv.RESULT]);
+            assertEquals(0, obs[o + BatchEnv.TICK]);
+            assertEquals(game.snake().headCell(), obs[o + BatchEnv.HEAD]);
+            assertEquals(game.foodY() * width + game.foodX(), obs[o + BatchEnv.FOOD]);
+            assertEquals(game.seed(), env.seed(1));
+            // board 0 is left alone
+            assertEquals(3, obs[BatchEnv.TICK]);
+        }
+    }
+
+    @Test
+    void rejectsBadArgumentsAndStepsAfterClose() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchEnv(1, 1, 8, DifficultyLevel.EASY, 0, 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new BatchEnv(1, GameEngine.MAX_SIDE + 1, 8, DifficultyLevel.EASY, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BatchEnv(0, 8, 8, DifficultyLevel.EASY, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BatchEnv(1, 8, 8, DifficultyLevel.EASY, 0, 0));
+        BatchEnv env = new BatchEnv(4, 8, 8, DifficultyLevel.EASY, 0, 2);
+        assertThrows(IllegalArgumentException.class, () -> env.step(new int[3], new int[4 * BatchEnv.OBS_FIELDS]));
+        env.close();
+        env.close();
+        assertThrows(IllegalStateException.class, () -> env.step(new int[4], new int[4 * BatchEnv.OBS_FIELDS]));
+    }
+}
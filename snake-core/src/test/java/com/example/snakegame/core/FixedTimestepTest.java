@@ -0,0 +1,65 @@
+package com.example.snakegame.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedTimestepTest {
+
+    @Test
+    void theRemainderCarriesOverBetweenFrames() {
+        FixedTimestep step = new FixedTimestep(100, 5);
+        assertEquals(0, step.advance(1_000));      // the first frame only sets the clock
+        assertEquals(0, step.advance(1_060));
+        assertEquals(1, step.advance(1_120));      // 120 elapsed: one tick, 20 left over
+        assertEquals(2, step.advance(1_300));      // 20 + 180
+        // 3 ticks in 300ns, however the frames fell
+        assertEquals(0, step.advance(1_300));
+        assertEquals(0, step.droppedTicks());
+    }
+
+    @Test
+    void aLongStallIsClampedAndTheRestDropped() {
+        FixedTimestep step = new FixedTimestep(100, 3);
+        step.advance(0);
+        assertEquals(3, step.advance(1_050));      // 10 due, 3 run
+        assertEquals(7, step.droppedTicks());
+        // the part-tick is kept, so the next frame doesn't run a burst
+        assertEquals(0.5, step.alpha(), 1e-9);
+        assertEquals(1, step.advance(1_100));
+        assertEquals(7, step.droppedTicks());
+    }
+
+    @Test
+    void alphaIsHowFarIntoTheNextTick() {
+        FixedTimestep step = new FixedTimestep(200, 4);
+        step.advance(0);
+        assertEquals(0, step.alpha());
+        step.advance(50);
+        assertEquals(0.25, step.alpha(), 1e-9);
+        assertEquals(1, step.advance(350));
+        assertEquals(0.75, step.alpha(), 1e-9);
+        assertTrue(step.alpha() < 1);
+    }
+
+    @Test
+    void resetForgetsThePausedTime() {
+        FixedTimestep step = new FixedTimestep(100, 5);
+        step.advance(0);
+        step.advance(50);
+        step.reset();
+        assertEquals(0, step.alpha());
+        assertEquals(0, step.advance(10_000));
+        assertEquals(0, step.advance(10_090));
+        assertEquals(0, step.droppedTicks());
+        // a clock that runs backwards adds nothing
+        assertEquals(0, step.advance(9_000));
+        assertEquals(1, step.advance(9_010));
+    }
+
+    @Test
+    void rejectsBadSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new FixedTimestep(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FixedTimestep(100, 0));
+    }
+}
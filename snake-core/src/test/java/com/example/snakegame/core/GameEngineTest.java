@@ -0,0 +1,138 @@
+package com.example.snakegame.core;
+
+import com.example.snakegame.core.bot.HamiltonianCycle;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEngineTest {
+
+    @Test
+    void hardBorderKills() {
+        GameEngine game = new GameEngine(DifficultyLevel.HARD, 1);
+        // the snake starts in the middle heading right, 14 cells from the border
+        for (int i = 0; i < GameEngine.DEFAULT_WIDTH / 2 - 1; i++) {
+            assertNotEquals(StepResult.HIT_WALL, game.step(null));
+        }
+        assertEquals(GameEngine.DEFAULT_WIDTH - 1, game.snake().headX());
+        assertEquals(StepResult.HIT_WALL, game.step(null));
+        assertTrue(game.isGameOver());
+        assertFalse(game.isVictory());
+        assertEquals(StepResult.FINISHED, game.step(null));
+    }
+
+    @Test
+    void easyBorderWraps() {
+        GameEngine game = new GameEngine(DifficultyLevel.EASY, 1);
+        int y = game.snake().headY();
+        for (int i = 0; i < GameEngine.DEFAULT_WIDTH / 2; i++) {
+            assertNotEquals(StepResult.HIT_WALL, game.step(null));
+        }
+        assertEquals(0, game.snake().headX());
+        assertEquals(y, game.snake().headY());
+        assertFalse(game.isGameOver());
+    }
+
+    @Test
+    void runningIntoTheBodyEndsTheGame() {
+        GameEngine game = new GameEngine(DifficultyLevel.EASY, 7);
+        chase(game, 4);
+        assertTrue(game.snake().length() >= 5);
+        // turning left every tick curls the head back into the neck within four ticks
+        Direction d = game.direction();
+        StepResult last = null;
+        for (int i = 0; i < 4 && !game.isGameOver(); i++) {
+            d = left(d);
+            last = game.step(d);
+        }
+        assertEquals(StepResult.HIT_SELF, last);
+        assertTrue(game.isGameOver());
+    }
+
+    @Test
+    void reversingIsIgnored() {
+        GameEngine game = new GameEngine(DifficultyLevel.EASY, 3);
+        int x = game.snake().headX();
+        game.step(Direction.LEFT);
+        assertEquals(Direction.RIGHT, game.direction());
+        assertEquals(x + 1, game.snake().headX());
+    }
+
+    @Test
+    void fillingTheBoardWins() {
+        GameEngine game = new GameEngine(6, 4, DifficultyLevel.EASY, 5);
+        HamiltonianCycle cycle = new HamiltonianCycle(6, 4);
+        StepResult last = null;
+        for (int i = 0; i < 10_000 && !game.isGameOver(); i++) {
+            last = game.step(cycle.next(game.snake().headCell()));
+        }
+        assertEquals(StepResult.BOARD_FULL, last);
+        assertTrue(game.isVictory());
+        assertEquals(6 * 4, game.snake().length());
+        assertEquals(-1, game.foodX());
+        assertFalse(game.hasBonusFood());
+    }
+
+    @Test
+    void sameSeedAndMovesPlayTheSameGame() {
+        GameEngine a = new GameEngine(DifficultyLevel.MEDIUM, 12345);
+        GameEngine b = new GameEngine(DifficultyLevel.MEDIUM, 12345);
+        Random moves = new Random(99);
+        Direction[] all = Direction.values();
+        for (int i = 0; i < 5_000 && !a.isGameOver(); i++) {
+            Direction turn = moves.nextInt(4) == 0 ? all[moves.nextInt(all.length)] : null;
+            assertEquals(a.step(turn), b.step(turn), "tick " + i);
+            assertEquals(a.foodX(), b.foodX());
+            assertEquals(a.foodY(), b.foodY());
+            assertEquals(a.bonusFoodX(), b.bonusFoodX());
+            assertEquals(a.score(), b.score());
+            assertEquals(a.snake().headCell(), b.snake().headCell());
+        }
+        assertEquals(a.isGameOver(), b.isGameOver());
+    }
+
+    @Test
+    void seedReplaysTheCurrentGame() {
+        GameEngine game = new GameEngine(DifficultyLevel.EASY, 42);
+        chase(game, 3);
+        game.reset();
+        GameEngine again = new GameEngine(DifficultyLevel.EASY, game.seed());
+        assertEquals(game.foodX(), again.foodX());
+        assertEquals(game.foodY(), again.foodY());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(game.step(null), again.step(null));
+            assertEquals(game.foodX(), again.foodX());
+            assertEquals(game.foodY(), again.foodY());
+        }
+    }
+
+    /** Steers straight for the food until the score reaches {@code target}. */
+    static void chase(GameEngine game, int target) {
+        for (int i = 0; game.score() < target; i++) {
+            assertTrue(i < 10_000, "never reached score " + target);
+            int hx = game.snake().headX(), hy = game.snake().headY();
+            Direction want;
+            if (game.foodX() != hx) {
+                want = game.foodX() > hx ? Direction.RIGHT : Direction.LEFT;
+            } else {
+                want = game.foodY() > hy ? Direction.DOWN : Direction.UP;
+            }
+            if (want.isOpposite(game.direction())) {
+                want = game.direction().dx != 0 ? Direction.UP : Direction.RIGHT;
+            }
+            StepResult result = game.step(want);
+            assertFalse(result == StepResult.HIT_WALL || result == StepResult.HIT_SELF, "died while chasing");
+        }
+    }
+
+    static Direction left(Direction d) {
+        return switch (d) {
+            case UP -> Direction.LEFT;
+            case LEFT -> Direction.DOWN;
+            case DOWN -> Direction.RIGHT;
+            case RIGHT -> Direction.UP;
+        };
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.snakegame.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputQueueTest {
+
+    @Test
+    void turnsComeOutInOrderWithTheirStamps() {
+        InputQueue queue = new InputQueue(4, Direction.RIGHT);
+        assertTrue(queue.offer(Direction.UP, 10));
+        assertTrue(queue.offer(Direction.LEFT, 20));
+        assertEquals(2, queue.size());
+        assertEquals(Direction.UP, queue.poll());
+        assertEquals(10, queue.polledAt());
+        assertEquals(Direction.LEFT, queue.poll());
+        assertEquals(20, queue.polledAt());
+        assertNull(queue.poll());
+        assertEquals(0, queue.size());
+    }
+
+    @Test
+    void repeatsAndReversalsOfTheLastQueuedTurnAreRefused() {
+        InputQueue queue = new InputQueue(4, Direction.RIGHT);
+        assertFalse(queue.offer(Direction.RIGHT, 0));
+        assertFalse(queue.offer(Direction.LEFT, 0));
+        assertTrue(queue.offer(Direction.UP, 0));
+        assertFalse(queue.offer(Direction.UP, 0));
+        assertFalse(queue.offer(Direction.DOWN, 0));
+        // checked against the last queued turn, not the starting direction
+        assertTrue(queue.offer(Direction.LEFT, 0));
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    void aFullQueueRefusesUntilPolled() {
+        InputQueue queue = new InputQueue(3, Direction.RIGHT);   // rounded up to 4
+        Direction[] cycle = {Direction.UP, Direction.LEFT, Direction.DOWN, Direction.RIGHT};
+        for (Direction d : cycle) assertTrue(queue.offer(d, 0));
+        assertFalse(queue.offer(Direction.UP, 0));
+        assertEquals(Direction.UP, queue.poll());
+        assertTrue(queue.offer(Direction.UP, 0));
+        assertEquals(4, queue.size());
+    }
+
+    @Test
+    void resetDropsWaitingTurnsAndStartsOverFromTheNewDirection() {
+        InputQueue queue = new InputQueue(4, Direction.RIGHT);
+        queue.offer(Direction.UP, 0);
+        queue.offer(Direction.LEFT, 0);
+        queue.reset(Direction.DOWN);
+        assertNull(queue.poll());
+        assertFalse(queue.offer(Direction.UP, 0));
+        assertTrue(queue.offer(Direction.LEFT, 0));
+        assertEquals(Direction.LEFT, queue.poll());
+    }
+
+    @Test
+    void oneProducerAndOneConsumerSeeEveryTurnOnce() throws InterruptedException {
+        InputQueue queue = new InputQueue(8, Direction.RIGHT);
+        Direction[] cycle = {Direction.UP, Direction.LEFT, Direction.DOWN, Direction.RIGHT};
+        int total = 20_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                while (!queue.offer(cycle[i & 3], i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        for (int i = 0; i < total; i++) {
+            Direction d;
+            while ((d = queue.poll()) == null) {
+                Thread.yield();
+            }
+            assertEquals(cycle[i & 3], d);
+            assertEquals(i, queue.polledAt());
+        }
+        producer.join();
+        assertNull(queue.poll());
+    }
+}
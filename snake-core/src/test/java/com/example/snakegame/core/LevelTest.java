@@ -0,0 +1,65 @@
+package com.example.snakegame.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelTest {
+
+    /** A 6x4 board walled all the way round. */
+    private static long[] border() {
+        long[] walls = new long[1];
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 6; x++) {
+                if (x == 0 || y == 0 || x == 5 || y == 3) walls[0] |= 1L << (y * 6 + x);
+            }
+        }
+        return walls;
+    }
+
+    @Test
+    void wallsAreReadBackAndCounted() {
+        Level level = new Level("box", 6, 4, border(), 2, 1, Direction.RIGHT);
+        assertEquals(16, level.wallCount());
+        assertTrue(level.isWall(0, 0));
+        assertTrue(level.isWall(5, 3));
+        assertFalse(level.isWall(2, 2));
+        assertEquals(level.isWall(4, 1), level.isWall(1 * 6 + 4));
+    }
+
+    @Test
+    void theWallBitmapIsCopied() {
+        long[] walls = border();
+        Level level = new Level("box", 6, 4, walls, 2, 1, Direction.RIGHT);
+        walls[0] = 0;
+        assertEquals(16, level.wallCount());
+        assertTrue(level.isWall(0, 0));
+    }
+
+    @Test
+    void rejectsLevelsTheSnakeCannotPlay() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Level("small", 1, 4, new long[1], 0, 0, Direction.RIGHT));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Level("big", GameEngine.MAX_SIDE + 1, 4, new long[1], 0, 0, Direction.RIGHT));
+        // wrong bitmap size, and walls past the last cell
+        assertThrows(IllegalArgumentException.class,
+                () -> new Level("short", 10, 10, new long[1], 1, 1, Direction.RIGHT));
+        assertThrows(IllegalArgumentException.class, () -> new Level("past", 6, 4, new long[]{1L << 24}, 1, 1,
+                Direction.RIGHT));
+        // starting on a wall, off the board, or facing a wall
+        assertThrows(IllegalArgumentException.class, () -> new Level("on", 6, 4, border(), 0, 1, Direction.RIGHT));
+        assertThrows(IllegalArgumentException.class, () -> new Level("off", 6, 4, border(), 6, 1, Direction.RIGHT));
+        assertThrows(IllegalArgumentException.class, () -> new Level("facing", 6, 4, border(), 1, 1, Direction.LEFT));
+    }
+
+    @Test
+    void theSnakeDiesOnAWallEvenOnEasy() {
+        // walls kill whatever the difficulty; only the open border wraps on easy
+        GameEngine game = new GameEngine(new Level("box", 6, 4, border(), 2, 1, Direction.RIGHT),
+                DifficultyLevel.EASY, 1);
+        StepResult last = null;
+        for (int i = 0; i < 5 && !game.isGameOver(); i++) last = game.step(null);
+        assertEquals(StepResult.HIT_WALL, last);
+    }
+}
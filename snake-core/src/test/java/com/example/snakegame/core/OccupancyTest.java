@@ -0,0 +1,91 @@
+package com.example.snakegame.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OccupancyTest {
+
+    /** Checks the ranked lookups against a plain scan of {@code model}. */
+    private static void assertMatches(BitSet model, int cells, Occupancy occupancy, Random random) {
+        assertEquals(cells - model.cardinality(), occupancy.freeCount());
+        for (int probe = 0; probe < 50; probe++) {
+            int cell = random.nextInt(cells);
+            int before = cell - model.get(0, cell).cardinality();
+            assertEquals(before, occupancy.freeBefore(cell), "freeBefore(" + cell + ")");
+            assertEquals(model.get(cell), occupancy.get(cell));
+            if (occupancy.freeCount() > 0) {
+                int rank = random.nextInt(occupancy.freeCount());
+                int expected = model.nextClearBit(0);
+                for (int r = 0; r < rank; r++) expected = model.nextClearBit(expected + 1);
+                assertEquals(expected, occupancy.selectFree(rank), "selectFree(" + rank + ")");
+            }
+        }
+    }
+
+    @Test
+    void rankedLookupsMatchAScanAcrossPages() {
+        Random random = new Random(3);
+        // one partial page, exactly one page, and several pages with a partial last one
+        for (int cells : new int[]{540, 4096, 3 * 4096 + 700}) {
+            Occupancy occupancy = new Occupancy(cells);
+            BitSet model = new BitSet(cells);
+            for (int round = 0; round < 20; round++) {
+                for (int k = 0; k < cells / 10; k++) {
+                    int cell = random.nextInt(cells);
+                    if (random.nextBoolean()) {
+                        occupancy.set(cell);
+                        model.set(cell);
+                    } else {
+                        occupancy.clear(cell);
+                        model.clear(cell);
+                    }
+                }
+                assertMatches(model, cells, occupancy, random);
+            }
+            occupancy.clearAll();
+            model.clear();
+            assertMatches(model, cells, occupancy, random);
+        }
+    }
+
+    @Test
+    void setAllKeepsTheIndexInStep() {
+        int cells = 5 * 4096 + 10;
+        Random random = new Random(8);
+        long[] bits = new long[(cells + 63) >>> 6];
+        BitSet model = new BitSet(cells);
+        for (int k = 0; k < 3000; k++) {
+            int cell = random.nextInt(cells);
+            bits[cell >>> 6] |= 1L << cell;
+            model.set(cell);
+        }
+        Occupancy occupancy = new Occupancy(cells);
+        occupancy.set(7);
+        model.set(7);
+        bits[0] |= 1L << 7;
+        occupancy.setAll(bits);
+        assertMatches(model, cells, occupancy, random);
+        occupancy.clear(7);
+        model.clear(7);
+        assertMatches(model, cells, occupancy, random);
+    }
+
+    @Test
+    void pickFreeSkipsTheExcludedCellsAndGivesUpWhenFull() {
+        Occupancy occupancy = new Occupancy(4);
+        occupancy.set(0);
+        occupancy.set(2);
+        Rng random = new Rng(1);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(3, occupancy.pickFree(random, 1, -1));
+        }
+        assertEquals(-1, occupancy.pickFree(random, 1, 3));
+        occupancy.set(1);
+        occupancy.set(3);
+        assertEquals(-1, occupancy.pickFree(random, -1, -1));
+    }
+}
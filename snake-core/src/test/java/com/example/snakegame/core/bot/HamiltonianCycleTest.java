@@ -0,0 +1,58 @@
+package com.example.snakegame.core.bot;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HamiltonianCycleTest {
+
+    /** Every cell once, each step to a neighbour, the last back to the first, and next() agreeing. */
+    private static void assertClosedPath(int width, int height) {
+        HamiltonianCycle cycle = new HamiltonianCycle(width, height);
+        int[] order = cycle.order();
+        assertEquals(width * height, order.length);
+        boolean[] seen = new boolean[order.length];
+        for (int i = 0; i < order.length; i++) {
+            int from = order[i], to = order[(i + 1) % order.length];
+            assertFalse(seen[from], "visited twice: " + from);
+            seen[from] = true;
+            Direction d = cycle.next(from);
+            assertEquals(to, (from / width + d.dy) * width + from % width + d.dx, width + "x" + height + " at " + from);
+            assertTrue(from % width + d.dx >= 0 && from % width + d.dx < width, "wraps the border at " + from);
+        }
+    }
+
+    @Test
+    void evenHeightsUseTheRowPath() {
+        assertClosedPath(2, 2);
+        assertClosedPath(6, 4);
+        assertClosedPath(5, 4);
+        assertClosedPath(GameEngine.DEFAULT_WIDTH, GameEngine.DEFAULT_HEIGHT);
+    }
+
+    @Test
+    void oddHeightsUseThePathTurnedOnItsSide() {
+        assertClosedPath(6, 5);
+        assertClosedPath(2, 3);
+        assertClosedPath(4, 7);
+    }
+
+    @Test
+    void oddByOddBoardsHaveNoCycle() {
+        assertThrows(IllegalArgumentException.class, () -> new HamiltonianCycle(5, 5));
+        assertThrows(IllegalArgumentException.class, () -> new HamiltonianCycle(3, 7));
+    }
+
+    @Test
+    void followingTheTurnedPathFillsTheBoard() {
+        for (DifficultyLevel difficulty : DifficultyLevel.values()) {
+            GameEngine game = new GameEngine(6, 5, difficulty, 3);
+            Strategy bot = StrategyType.HAMILTONIAN.create(6, 5);
+            while (!game.isGameOver()) game.step(bot.nextMove(game));
+            assertTrue(game.isVictory(), difficulty.toString());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.snakegame.core.bot;
+
+import com.example.snakegame.core.DifficultyLevel;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+
+    private static List<Object> summary(TournamentStats s) {
+        return List.of(s.games(), s.wins(), s.wallDeaths(), s.selfDeaths(), s.timeouts(), s.meanScore(),
+                s.scoreStdDev(), s.maxScore(), s.meanLength(), s.maxLength(), s.totalTicks(), s.maxTicks());
+    }
+
+    private static TournamentStats[] run(Tournament tournament, int threads) {
+        try (ForkJoinPool pool = new ForkJoinPool(threads)) {
+            return tournament.run(pool);
+        }
+    }
+
+    @Test
+    void theStatsDoNotDependOnTheParallelism() {
+        Tournament tournament = new Tournament(List.of(StrategyType.values()), List.of(DifficultyLevel.values()),
+                8, 6, 11, 13, 5_000);
+        TournamentStats[] serial = run(tournament, 1);
+        for (int threads : new int[]{2, 4}) {
+            TournamentStats[] parallel = run(tournament, threads);
+            assertEquals(serial.length, parallel.length);
+            for (int i = 0; i < serial.length; i++) {
+                assertEquals(summary(serial[i]), summary(parallel[i]), "pairing " + i + " on " + threads);
+            }
+        }
+        for (TournamentStats s : serial) assertEquals(13, s.games());
+        // the cycle-follower never dies
+        for (DifficultyLevel level : DifficultyLevel.values()) {
+            TournamentStats s = serial[tournament.pairing(StrategyType.HAMILTONIAN, level)];
+            assertEquals(0, s.wallDeaths() + s.selfDeaths());
+        }
+    }
+
+    @Test
+    void rejectsAnEmptyTournament() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new Tournament(List.of(), List.of(DifficultyLevel.EASY), 8, 6, 1, 1, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Tournament(List.of(StrategyType.BFS), List.of(DifficultyLevel.EASY), 8, 6, 1, 0, 10));
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.snakegame.core.level;
+
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.Level;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LevelPackTest {
+    private static final String SOURCE = String.join("\n",
+            "; a comment",
+            "level Box",
+            "######",
+            "#.>..#",
+            "#....#",
+            "######",
+            "",
+            "level Open",
+            "........",
+            "........",
+            "........",
+            "level Ragged",
+            "#..##",
+            "..v",
+            "#....#",
+            "");
+
+    @TempDir
+    Path dir;
+
+    private static List<Level> parse(String text) throws IOException {
+        return LevelPack.parse(new BufferedReader(new StringReader(text)));
+    }
+
+    private static void assertSameLevel(Level expected, Level actual) {
+        assertEquals(expected.name(), actual.name());
+        assertEquals(expected.width(), actual.width());
+        assertEquals(expected.height(), actual.height());
+        assertEquals(expected.startX(), actual.startX());
+        assertEquals(expected.startY(), actual.startY());
+        assertEquals(expected.startDirection(), actual.startDirection());
+        assertEquals(expected.wallCount(), actual.wallCount());
+        for (int cell = 0; cell < expected.width() * expected.height(); cell++) {
+            assertEquals(expected.isWall(cell), actual.isWall(cell), expected.name() + " cell " + cell);
+        }
+    }
+
+    @Test
+    void parsesTheTextFormat() throws IOException {
+        List<Level> levels = parse(SOURCE);
+        assertEquals(3, levels.size());
+        Level box = levels.get(0);
+        assertEquals("Box", box.name());
+        assertEquals(6, box.width());
+        assertEquals(4, box.height());
+        assertEquals(2, box.startX());
+        assertEquals(1, box.startY());
+        assertEquals(Direction.RIGHT, box.startDirection());
+        assertEquals(16, box.wallCount());
+        // no start marked: the middle, facing right
+        Level open = levels.get(1);
+        assertEquals(0, open.wallCount());
+        assertEquals(4, open.startX());
+        assertEquals(1, open.startY());
+        // short rows are padded with open cells to the longest one
+        Level ragged = levels.get(2);
+        assertEquals(6, ragged.width());
+        assertEquals(Direction.DOWN, ragged.startDirection());
+        assertFalse(ragged.isWall(5, 0));
+
+        assertThrows(IllegalArgumentException.class, () -> parse("level Bad\n#x#\n#.#\n"));
+        assertThrows(IllegalArgumentException.class, () -> parse("level Two\n>.<\n...\n"));
+        assertThrows(IOException.class, () -> parse("...\n...\n"));
+    }
+
+    @Test
+    void compileThenOpenGivesTheSameLevels() throws IOException {
+        Path source = dir.resolve("levels.txt"), file = dir.resolve("levels.snkl");
+        Files.writeString(source, SOURCE, StandardCharsets.UTF_8);
+        List<Level> levels = LevelPack.compile(source, file);
+        try (LevelPack pack = LevelPack.open(file, 2)) {
+            assertEquals(List.of("Box", "Open", "Ragged"), pack.names());
+            assertEquals(1, pack.indexOf("Open"));
+            assertEquals(-1, pack.indexOf("Missing"));
+            for (int i = 0; i < levels.size(); i++) assertSameLevel(levels.get(i), pack.level(i));
+            assertSameLevel(levels.get(0), pack.level("Box"));
+            assertThrows(IllegalArgumentException.class, () -> pack.level("Missing"));
+        }
+    }
+
+    @Test
+    void bigLevelsRoundTrip() throws IOException {
+        int side = GameEngine.MAX_SIDE;
+        long[] walls = new long[(side * side + 63) >>> 6];
+        for (int cell = 0; cell < side * side; cell += 7) walls[cell >>> 6] |= 1L << cell;
+        walls[0] &= ~(1L << 1 | 1L << 2);
+        Level level = new Level("Big", side, side, walls, 1, 0, Direction.RIGHT);
+        Path file = dir.resolve("big.snkl");
+        LevelPack.write(List.of(level), file);
+        try (LevelPack pack = LevelPack.open(file)) {
+            assertSameLevel(level, pack.level(0));
+        }
+    }
+
+    @Test
+    void theCacheKeepsTheLastLevelsPlayed() throws IOException {
+        Path source = dir.resolve("levels.txt"), file = dir.resolve("levels.snkl");
+        Files.writeString(source, SOURCE, StandardCharsets.UTF_8);
+        LevelPack.compile(source, file);
+        try (LevelPack pack = LevelPack.open(file, 2)) {
+            Level box = pack.level(0);
+            assertSame(box, pack.level(0));
+            pack.level(1);
+            pack.level(2);      // pushes out Box
+            assertEquals(2, pack.cached());
+            assertNotSame(box, pack.level(0));
+            assertEquals(1, pack.hits());
+            assertEquals(4, pack.misses());
+        }
+        assertThrows(IllegalArgumentException.class, () -> LevelPack.open(file, 0));
+    }
+
+    /** A one-level pack whose record is {@code record}, laid out as {@link LevelPack#write} does. */
+    private Path pack(long... record) throws IOException {
+        ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+        DataOutputStream rec = new DataOutputStream(recordBytes);
+        for (int i = 0; i < record.length; i++) {
+            if (i == 4) rec.writeByte((int) record[i]);     // the start direction
+            else varint(rec, record[i]);
+        }
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream idx = new DataOutputStream(indexBytes);
+        varint(idx, 1);
+        idx.writeUTF("L");
+        varint(idx, recordBytes.size());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x534E4B4C);
+        out.writeByte(1);
+        out.writeInt(indexBytes.size());
+        indexBytes.writeTo(out);
+        recordBytes.writeTo(out);
+        Path file = dir.resolve("pack" + System.nanoTime() + ".snkl");
+        Files.write(file, bytes.toByteArray());
+        return file;
+    }
+
+    private static void varint(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static void assertBadLevel(Path file) throws IOException {
+        try (LevelPack pack = LevelPack.open(file)) {
+            assertThrows(IOException.class, () -> pack.level(0));
+        }
+    }
+
+    @Test
+    void corruptRecordsAreIOExceptions() throws IOException {
+        // well-formed: an open 8x8 board
+        try (LevelPack pack = LevelPack.open(pack(8, 8, 1, 1, Direction.RIGHT.ordinal(), 0))) {
+            assertEquals(0, pack.level(0).wallCount());
+        }
+        // sizes that would ask for a huge bitmap are turned away before it is allocated
+        assertBadLevel(pack(1L << 31, 1L << 31, 0, 0, 0, 0));
+        assertBadLevel(pack(GameEngine.MAX_SIDE + 1, 8, 0, 0, 0, 0));
+        assertBadLevel(pack(-1, 8, 0, 0, 0, 0));
+        // a start off the board, a direction that doesn't exist, runs past the last cell, a start on a wall
+        assertBadLevel(pack(8, 8, 8, 0, 0, 0));
+        assertBadLevel(pack(8, 8, 1, 1, Direction.values().length, 0));
+        assertBadLevel(pack(8, 8, 1, 1, 0, 2, 60, 10));
+        assertBadLevel(pack(8, 8, 1, 1, 0, 2, 9, 1));
+        // and a file that isn't a pack at all
+        Path junk = dir.resolve("junk.snkl");
+        Files.write(junk, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10});
+        assertThrows(IOException.class, () -> LevelPack.open(junk));
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.snakegame.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    private static LatencyHistogram of(long... values) {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v : values) h.record(v);
+        return h;
+    }
+
+    @Test
+    void smallValuesAreExactAndLargerOnesShareBuckets() {
+        // below 64 every value has its own bucket
+        assertEquals(1, of(62, 63).countAbove(62));
+        assertEquals(1, of(63, 64).countAbove(63));
+        // from 64 on, buckets are two wide, then four from 128
+        assertEquals(0, of(64, 65).countAbove(64));
+        assertEquals(1, of(65, 66).countAbove(65));
+        assertEquals(1, of(127, 128).countAbove(127));
+        assertEquals(0, of(128, 131).countAbove(128));
+        assertEquals(1, of(131, 132).countAbove(131));
+    }
+
+    @Test
+    void percentilesReportTheBucketsUpperBound() {
+        assertEquals(63, of(63, 64).percentile(50));
+        assertEquals(64, of(63, 64).percentile(100));     // capped at the largest recorded value
+        assertEquals(65, of(64, 65).percentile(50));
+        assertEquals(127, of(127, 128).percentile(50));
+        assertEquals(128, of(127, 128).percentile(100));
+        assertEquals(131, of(128, 131, 200).percentile(50));
+
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.percentile(99));
+        for (int i = 1; i <= 100; i++) h.record(i * 1_000_000L);
+        assertEquals(100, h.count());
+        assertEquals(1_000_000, h.min());
+        assertEquals(100_000_000, h.max());
+        assertEquals(50_500_000, h.mean(), 1e-6);
+        // within the ~3% the buckets promise
+        assertEquals(50_000_000, h.percentile(50), 50_000_000 * 0.03);
+        assertEquals(99_000_000, h.percentile(99), 99_000_000 * 0.03);
+        assertEquals(1_000_000, h.percentile(0), 1_000_000 * 0.03);
+    }
+
+    @Test
+    void negativeValuesCountAsZero() {
+        LatencyHistogram h = of(-5);
+        assertEquals(0, h.min());
+        assertEquals(0, h.percentile(100));
+        assertEquals(0, h.countAbove(0));
+    }
+
+    @Test
+    void addAndCopyIntoCarryEverything() {
+        LatencyHistogram a = of(10, 20, 1_000);
+        LatencyHistogram b = of(5, 70_000);
+        a.add(b);
+        assertEquals(5, a.count());
+        assertEquals(5, a.min());
+        assertEquals(70_000, a.max());
+        assertEquals((10 + 20 + 1_000 + 5 + 70_000) / 5.0, a.mean(), 1e-9);
+        assertEquals(2, a.countAbove(20));
+        assertEquals(20, a.percentile(60));
+
+        a.add(new LatencyHistogram());
+        assertEquals(5, a.min());
+
+        LatencyHistogram copy = of(1, 2, 3);
+        a.copyInto(copy);
+        assertEquals(a.count(), copy.count());
+        assertEquals(a.min(), copy.min());
+        assertEquals(a.max(), copy.max());
+        assertEquals(a.mean(), copy.mean());
+        for (int p = 0; p <= 100; p += 10) assertEquals(a.percentile(p), copy.percentile(p));
+
+        copy.reset();
+        assertEquals(0, copy.count());
+        assertEquals(0, copy.min());
+        assertEquals(0, copy.percentile(50));
+        assertEquals(5, a.count());
+    }
+}
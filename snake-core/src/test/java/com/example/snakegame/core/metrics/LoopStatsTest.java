@@ -0,0 +1,42 @@
+package com.example.snakegame.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoopStatsTest {
+
+    @Test
+    void ticksMoreThanHalfAnIntervalLateAreCounted() {
+        LoopStats stats = new LoopStats(100);
+        stats.tick(0);             // the first tick has nothing to be late against
+        stats.tick(100);
+        stats.tick(250);           // exactly one and a half intervals: still on time
+        stats.tick(401);           // just past it
+        stats.tick(1_000);
+        stats.tick(1_040);         // early is never late
+        assertEquals(2, stats.lateTicks());
+        assertEquals(5, stats.tickInterval().count());
+        assertEquals(599, stats.tickInterval().max());
+
+        stats.droppedTicks(3);
+        assertTrue(stats.toLogLine(0, "run").endsWith("\tlate=2\tdropped=3"));
+        stats.reset();
+        assertEquals(0, stats.lateTicks());
+        assertEquals(0, stats.droppedTicks());
+        stats.tick(5_000);         // after a reset the gap since the last tick is forgotten
+        assertEquals(0, stats.lateTicks());
+        assertEquals(0, stats.tickInterval().count());
+    }
+
+    @Test
+    void framesRecordTheGapBetweenThem() {
+        LoopStats stats = new LoopStats(100);
+        stats.frame(10);
+        stats.frame(26);
+        stats.frame(60);
+        assertEquals(2, stats.frameInterval().count());
+        assertEquals(16, stats.frameInterval().min());
+        assertEquals(34, stats.frameInterval().max());
+    }
+}
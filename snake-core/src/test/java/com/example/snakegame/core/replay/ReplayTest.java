@@ -0,0 +1,228 @@
+package com.example.snakegame.core.replay;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.StepResult;
+import com.example.snakegame.core.bot.HamiltonianCycle;
+import com.example.snakegame.core.store.ScoreStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayTest {
+    private static final int W = 12, H = 8;
+
+    /** A whole game along the board's Hamiltonian cycle: thousands of ticks, turns and bonus spawns. */
+    private static Replay recordWin(List<long[]> states) {
+        GameEngine game = new GameEngine(W, H, DifficultyLevel.EASY, 2024);
+        ReplayRecorder recorder = new ReplayRecorder(game);
+        game.setListener(recorder);
+        HamiltonianCycle cycle = new HamiltonianCycle(W, H);
+        while (!game.isGameOver()) {
+            game.step(cycle.next(game.snake().headCell()));
+            states.add(state(game));
+        }
+        return recorder.toReplay();
+    }
+
+    private static long[] state(GameEngine game) {
+        return new long[]{game.tick(), game.snake().headCell(), game.snake().length(), game.score(),
+                game.foodY() * W + game.foodX(), game.hasBonusFood() ? game.bonusFoodY() * W + game.bonusFoodX() : -1};
+    }
+
+    private static Replay roundTrip(Replay replay) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        replay.write(out);
+        return Replay.read(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    void writeThenReadGivesTheSameRecording() throws IOException {
+        Replay replay = recordWin(new ArrayList<>());
+        Replay copy = roundTrip(replay);
+        assertEquals(W, copy.width());
+        assertEquals(H, copy.height());
+        assertEquals(DifficultyLevel.EASY, copy.difficulty());
+        assertEquals(replay.seed(), copy.seed());
+        assertEquals(StepResult.BOARD_FULL, copy.result());
+        assertEquals(replay.score(), copy.score());
+        assertEquals(replay.lastTick(), copy.lastTick());
+        assertEquals(replay.eventCount(), copy.eventCount());
+        boolean sawBonus = false;
+        for (int i = 0; i < replay.eventCount(); i++) {
+            assertEquals(replay.tickAt(i), copy.tickAt(i));
+            assertEquals(replay.kindAt(i), copy.kindAt(i));
+            assertEquals(replay.cellAt(i), copy.cellAt(i));
+            sawBonus |= replay.kindAt(i) == Replay.BONUS;
+        }
+        assertTrue(sawBonus, "the game should have spawned a bonus");
+        assertEquals(StepResult.BOARD_FULL, new ReplayPlayer(copy).playToEnd());
+    }
+
+    @Test
+    void largeValuesSurviveTheVarints() throws IOException {
+        Replay replay = new Replay(GameEngine.MAX_SIDE, GameEngine.MAX_SIDE, DifficultyLevel.HARD, Long.MIN_VALUE,
+                new long[]{1, 127, 128, 1L << 40}, new byte[]{0, Replay.BONUS, 3, 2},
+                new int[]{-1, GameEngine.MAX_SIDE * GameEngine.MAX_SIDE - 1, -1, -1}, 4,
+                StepResult.HIT_SELF, Integer.MAX_VALUE, (1L << 40) + 16_384);
+        Replay copy = roundTrip(replay);
+        assertEquals(GameEngine.MAX_SIDE, copy.width());
+        assertEquals(Long.MIN_VALUE, copy.seed());
+        assertEquals(4, copy.eventCount());
+        assertEquals(128, copy.tickAt(2));
+        assertEquals(1L << 40, copy.tickAt(3));
+        assertEquals(GameEngine.MAX_SIDE * GameEngine.MAX_SIDE - 1, copy.cellAt(1));
+        assertEquals(Integer.MAX_VALUE, copy.score());
+        assertEquals((1L << 40) + 16_384, copy.lastTick());
+    }
+
+    @Test
+    void anAbandonedRecordingHasNoResult() throws IOException {
+        GameEngine game = new GameEngine(DifficultyLevel.MEDIUM, 9);
+        ReplayRecorder recorder = new ReplayRecorder(game);
+        game.setListener(recorder);
+        for (int i = 0; i < 20; i++) game.step(null);
+        Replay copy = roundTrip(recorder.toReplay());
+        assertNull(copy.result());
+        assertEquals(20, copy.lastTick());
+        ReplayPlayer player = new ReplayPlayer(copy);
+        player.playToEnd();
+        assertEquals(20, player.engine().tick());
+        assertFalse(player.engine().isGameOver());
+        assertEquals(StepResult.FINISHED, player.step());
+    }
+
+    @Test
+    void seekLandsOnTheRecordedState() throws IOException {
+        List<long[]> states = new ArrayList<>();
+        Replay replay = roundTrip(recordWin(states));
+        assertTrue(replay.lastTick() > 4 * ReplayPlayer.KEYFRAME_INTERVAL, "only " + replay.lastTick() + " ticks");
+        ReplayPlayer player = new ReplayPlayer(replay);
+        long last = replay.lastTick();
+        // forwards past several keyframes, back to before the first, into the middle, and to the end
+        long[] targets = {700, 3, last / 2, last - 1, ReplayPlayer.KEYFRAME_INTERVAL, 1, last};
+        for (long target : targets) {
+            player.seek(target);
+            assertEquals(target, player.engine().tick());
+            assertArrayEquals(states.get((int) target - 1), state(player.engine()), "seek to " + target);
+        }
+        player.seek(0);
+        assertEquals(0, player.engine().tick());
+        assertEquals(StepResult.BOARD_FULL, player.playToEnd());
+    }
+
+    /** A header as {@link Replay#write} lays it out, with each field under the test's control. */
+    private static byte[] header(long width, int difficulty, long events, long... rest) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x534E4B52);
+        out.writeByte(2);
+        varint(out, width);
+        varint(out, 8);
+        out.writeByte(difficulty);
+        out.writeLong(1);
+        varint(out, events);
+        for (long v : rest) varint(out, v);
+        return bytes.toByteArray();
+    }
+
+    private static void varint(DataOutputStream out, long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            out.writeByte((int) (v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte((int) v);
+    }
+
+    private static void assertUnreadable(byte[] bytes) {
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void corruptHeadersAreIOExceptions() throws IOException {
+        assertUnreadable(header(8, DifficultyLevel.values().length, 1, 1 << 3 | Replay.STOP));
+        assertUnreadable(header(1, 0, 1, 1 << 3 | Replay.STOP));
+        assertUnreadable(header(GameEngine.MAX_SIDE + 1, 0, 1, 1 << 3 | Replay.STOP));
+        assertUnreadable(header(8, 0, 0));
+        assertUnreadable(header(8, 0, Long.MAX_VALUE >>> 1, 1 << 3 | Replay.STOP));
+        // a kind that doesn't exist, a bonus off the board, a result that doesn't exist
+        assertUnreadable(header(8, 0, 2, 1 << 3 | 7));
+        assertUnreadable(header(8, 0, 2, 1 << 3 | Replay.BONUS, 64));
+        byte[] end = header(8, 0, 1, 1 << 3 | Replay.END);
+        byte[] badResult = Arrays.copyOf(end, end.length + 2);
+        badResult[end.length] = (byte) StepResult.values().length;
+        assertUnreadable(badResult);
+        // tick deltas that add up past Long.MAX_VALUE
+        assertUnreadable(header(8, 0, 6, -8, -8, -8, -8, -8, 1 << 3 | Replay.STOP));
+        // well-formed: a recording that stopped at tick 1
+        assertEquals(1, Replay.read(new ByteArrayInputStream(header(8, 0, 1, 1 << 3 | Replay.STOP))).lastTick());
+    }
+
+    @Test
+    void aHugeEventCountAllocatesOnlyWhatIsRead() throws IOException {
+        // claims the maximum number of events but ends after three bytes of them
+        byte[] bytes = header(8, 0, Replay.MAX_EVENTS, 1 << 3, 1 << 3 | 1, 1 << 3 | 2);
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(bytes)));
+    }
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void verifierRejectsOversizedFilesUnread() throws IOException {
+        Replay win = recordWin(new ArrayList<>());
+        Path big = dir.resolve("win.snkr");
+        win.save(big);
+        Path junk = dir.resolve("junk.snkr");
+        Files.write(junk, header(8, 9, 1, 1 << 3 | Replay.STOP));
+        Map<Path, ScoreVerifier.Verdict> verdicts = new ConcurrentHashMap<>();
+        new ScoreVerifier(ScoreVerifier.DEFAULT_MAX_TICKS).verifyAll(List.of(big, junk), 2, verdicts::put);
+        assertEquals(ScoreVerifier.Verdict.ACCEPTED, verdicts.get(big));
+        assertEquals(ScoreVerifier.Verdict.UNREADABLE, verdicts.get(junk));
+        // a file bigger than any 10-tick game is turned away before it is parsed
+        Path padded = dir.resolve("padded.snkr");
+        Files.write(padded, Arrays.copyOf(header(8, 0, 1, 1 << 3 | Replay.STOP), 4096));
+        new ScoreVerifier(10).verifyAll(List.of(padded), 1, verdicts::put);
+        assertEquals(ScoreVerifier.Verdict.TOO_LONG, verdicts.get(padded));
+        new ScoreVerifier(ScoreVerifier.DEFAULT_MAX_TICKS).verifyAll(List.of(padded), 1, verdicts::put);
+        assertEquals(ScoreVerifier.Verdict.INCOMPLETE, verdicts.get(padded));
+    }
+
+    @Test
+    void verifierChecksReplaysAgainstTheStoredClaim() throws IOException {
+        Replay win = recordWin(new ArrayList<>());
+        try (ScoreStore store = ScoreStore.open(dir.resolve("scores.bin"))) {
+            long honest = store.append("c1", "Ada", 0, DifficultyLevel.EASY, win.score(), 0, 0);
+            long inflated = store.append("c2", "Bob", 0, DifficultyLevel.EASY, win.score() + 10, 0, 0);
+            Path good = dir.resolve(honest + ".c1.snkr"), bad = dir.resolve(inflated + ".c2.snkr");
+            Path orphan = dir.resolve("99.c3.snkr"), unnamed = dir.resolve("c1-1700000000.snkr");
+            for (Path file : List.of(good, bad, orphan, unnamed)) win.save(file);
+
+            Map<Path, ScoreVerifier.Verdict> verdicts = new ConcurrentHashMap<>();
+            ScoreVerifier.Report report = new ScoreVerifier(ScoreVerifier.DEFAULT_MAX_TICKS)
+                    .verifyStore(store, List.of(good, bad, orphan, unnamed), 2, verdicts::put);
+            assertEquals(ScoreVerifier.Verdict.ACCEPTED, verdicts.get(good));
+            // the replay itself is consistent; the leaderboard entry is what's wrong
+            assertEquals(ScoreVerifier.Verdict.SCORE_MISMATCH, verdicts.get(bad));
+            assertEquals(ScoreVerifier.Verdict.NO_RECORD, verdicts.get(orphan));
+            assertEquals(ScoreVerifier.Verdict.NO_RECORD, verdicts.get(unnamed));
+            assertEquals(4, report.games());
+        }
+        assertEquals(12, ScoreVerifier.recordIndex(Path.of("replays", "12.abc.snkr")));
+        assertEquals(-1, ScoreVerifier.recordIndex(Path.of("12-abc.snkr")));
+        assertEquals(-1, ScoreVerifier.recordIndex(Path.of("12.abc.txt")));
+    }
+}
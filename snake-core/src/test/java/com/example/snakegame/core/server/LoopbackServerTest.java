@@ -0,0 +1,77 @@
+package com.example.snakegame.core.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.example.snakegame.core.server.SessionManagerTest.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoopbackServerTest {
+
+    @Test
+    void commandsOnlyReachTheConnectionsOwnSessions() throws Exception {
+        try (SessionManager sessions = new SessionManager(1);
+             LoopbackServer server = LoopbackServer.start(sessions, 0)) {
+            Set<Integer> mine = new HashSet<>(), theirs = new HashSet<>();
+            String opened = server.handle("NEW hard", mine);
+            assertTrue(opened.startsWith("OK "), opened);
+            String id = opened.substring(3);
+            assertEquals(Set.of(Integer.parseInt(id)), mine);
+
+            for (String command : new String[]{"TURN " + id + " UP", "STATE " + id, "RESTART " + id, "CLOSE " + id}) {
+                assertEquals("ERR not your session", server.handle(command, theirs), command);
+            }
+            assertEquals(1, sessions.size());
+
+            assertEquals("OK", server.handle("TURN " + id + " up", mine));
+            assertTrue(server.handle("STATE " + id, mine).startsWith("STATE " + id + " "));
+            assertEquals("OK", server.handle("RESTART " + id, mine));
+            assertTrue(server.handle("STATS", theirs).startsWith("STATS 1 "));
+            assertEquals("OK", server.handle("CLOSE " + id, mine));
+            assertTrue(mine.isEmpty());
+            assertEquals(0, sessions.size());
+            assertEquals("ERR not your session", server.handle("CLOSE " + id, mine));
+        }
+    }
+
+    @Test
+    void badRequestsGetAnErrorLine() throws IOException {
+        try (SessionManager sessions = new SessionManager(1);
+             LoopbackServer server = LoopbackServer.start(sessions, 0)) {
+            Set<Integer> owned = new HashSet<>();
+            assertEquals("ERR missing argument", server.handle("TURN", owned));
+            assertTrue(server.handle("NEW IMPOSSIBLE", owned).startsWith("ERR "));
+            assertTrue(server.handle("STATE seven", owned).startsWith("ERR "));
+            assertEquals("ERR unknown command JUMP", server.handle("JUMP", owned));
+            assertEquals("BYE", server.handle("quit", owned));
+            assertEquals(0, sessions.size());
+        }
+    }
+
+    @Test
+    void aDroppedConnectionClosesItsSessions() throws Exception {
+        try (SessionManager sessions = new SessionManager(1);
+             LoopbackServer server = LoopbackServer.start(sessions, 0)) {
+            try (Socket client = new Socket(InetAddress.getLoopbackAddress(), server.port());
+                 PrintWriter out = new PrintWriter(client.getOutputStream(), true, StandardCharsets.UTF_8);
+                 BufferedReader in = new BufferedReader(
+                         new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8))) {
+                out.println("NEW EASY");
+                assertTrue(in.readLine().startsWith("OK "));
+                out.println("NEW MEDIUM");
+                assertTrue(in.readLine().startsWith("OK "));
+                assertEquals(2, sessions.size());
+            }
+            await(() -> sessions.size() == 0, "the sessions to close");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.snakegame.core.server;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.Direction;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.bot.StrategyType;
+import org.junit.jupiter.api.Test;
+
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionManagerTest {
+
+    /** Polls until {@code done}, failing after ten seconds. */
+    static void await(BooleanSupplier done, String what) throws InterruptedException {
+        long giveUp = System.nanoTime() + 10_000_000_000L;
+        while (!done.getAsBoolean()) {
+            assertTrue(System.nanoTime() < giveUp, "timed out waiting for " + what);
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void sessionsTickOnTheirOwnUntilClosed() throws InterruptedException {
+        try (SessionManager sessions = new SessionManager(2)) {
+            GameSession bot = sessions.open(DifficultyLevel.HARD,
+                    StrategyType.HAMILTONIAN.create(GameEngine.DEFAULT_WIDTH, GameEngine.DEFAULT_HEIGHT));
+            GameSession idle = sessions.open(DifficultyLevel.HARD);
+            assertNotEquals(bot.id(), idle.id());
+            assertEquals(2, sessions.size());
+            assertSame(bot, sessions.get(bot.id()).orElseThrow());
+
+            await(() -> bot.state().tick() >= 5, "five ticks");
+            assertFalse(bot.state().gameOver());
+            assertTrue(sessions.report().ticks() >= 5);
+
+            assertTrue(sessions.close(bot.id()));
+            assertFalse(sessions.close(bot.id()));
+            assertTrue(sessions.get(bot.id()).isEmpty());
+            assertEquals(1, sessions.size());
+            long stoppedAt = bot.state().tick();
+            Thread.sleep(4 * DifficultyLevel.HARD.tickNanos() / 1_000_000);
+            assertTrue(bot.state().tick() <= stoppedAt + 1, "still ticking after close");
+        }
+    }
+
+    @Test
+    void turnsAndRestartsApplyOnTheNextTick() throws InterruptedException {
+        try (SessionManager sessions = new SessionManager(1)) {
+            GameSession session = sessions.open(DifficultyLevel.HARD);
+            GameSession.State start = session.state();
+            assertEquals(0, start.tick());
+            session.turn(Direction.DOWN);
+            await(() -> session.state().headY() != start.headY(), "the turn");
+            assertEquals(start.headY() + 1, session.state().headY());
+
+            // left alone it runs into the bottom wall; a restart starts over
+            await(() -> session.state().gameOver(), "the crash");
+            long crashedAt = session.state().tick();
+            session.restart();
+            await(() -> !session.state().gameOver(), "the restart");
+            assertTrue(session.state().tick() < crashedAt);
+        }
+    }
+
+    @Test
+    void needsAShard() {
+        assertThrows(IllegalArgumentException.class, () -> new SessionManager(0));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.snakegame.core.store;
+
+import com.example.snakegame.core.store.AsyncAppendLog.FsyncPolicy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class AsyncAppendLogTest {
+
+    @TempDir
+    Path dir;
+
+    private static AsyncAppendLog open(Path file, FsyncPolicy policy) throws IOException {
+        return AsyncAppendLog.open(file, policy, 10, e -> {
+            throw new UncheckedIOException(e);
+        });
+    }
+
+    @Test
+    void batchesKeepEachWritersOrder() throws Exception {
+        Path file = dir.resolve("log.txt");
+        int writers = 4, perWriter = 2_000;
+        try (AsyncAppendLog log = open(file, FsyncPolicy.EVERY_BATCH)) {
+            List<Thread> threads = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int id = w;
+                threads.add(Thread.ofPlatform().start(() -> {
+                    for (int i = 0; i < perWriter; i++) log.append(id + "," + i);
+                }));
+            }
+            for (Thread t : threads) t.join();
+            log.flush().get(10, TimeUnit.SECONDS);
+            assertEquals(writers * perWriter, log.writtenRecords());
+            assertEquals(0, log.failedRecords());
+        }
+        int[] next = new int[writers];
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(writers * perWriter, lines.size());
+        for (String line : lines) {
+            String[] parts = line.split(",");
+            int w = Integer.parseInt(parts[0]);
+            assertEquals(next[w]++, Integer.parseInt(parts[1]), line);
+        }
+    }
+
+    @Test
+    void flushCompletesOnceEarlierRecordsAreOnFile() throws Exception {
+        Path file = dir.resolve("log.txt");
+        Files.writeString(file, "old\n", StandardCharsets.UTF_8);
+        for (FsyncPolicy policy : FsyncPolicy.values()) {
+            try (AsyncAppendLog log = open(file, policy)) {
+                log.append("a " + policy);
+                log.append("b " + policy + "\n");   // a terminator already there is kept, not doubled
+                log.flush().get(10, TimeUnit.SECONDS);
+                List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+                assertEquals(List.of("a " + policy, "b " + policy), lines.subList(lines.size() - 2, lines.size()));
+            }
+        }
+        assertEquals("old", Files.readAllLines(file, StandardCharsets.UTF_8).get(0));
+    }
+
+    @Test
+    void closeDrainsTheQueue() throws Exception {
+        Path file = dir.resolve("log.txt");
+        AsyncAppendLog log = open(file, FsyncPolicy.PERIODIC);
+        for (int i = 0; i < 5_000; i++) log.append("line " + i);
+        CompletableFuture<Void> pending = log.flush();
+        log.close();
+        assertTrue(pending.isDone());
+        assertFalse(pending.isCompletedExceptionally());
+        assertEquals(5_000, Files.readAllLines(file, StandardCharsets.UTF_8).size());
+        assertThrows(IllegalStateException.class, () -> log.append("late"));
+        assertTrue(log.flush().isDone());
+        log.close();
+    }
+
+    @Test
+    void recordsRacingCloseAreWrittenOrRefused() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            Path file = dir.resolve("race" + round + ".txt");
+            AsyncAppendLog log = open(file, FsyncPolicy.NONE);
+            AtomicInteger accepted = new AtomicInteger();
+            List<CompletableFuture<Void>> flushes = new CopyOnWriteArrayList<>();
+            Thread writer = Thread.ofPlatform().start(() -> {
+                try {
+                    while (true) {
+                        log.append("x");
+                        accepted.incrementAndGet();
+                        flushes.add(log.flush());
+                    }
+                } catch (IllegalStateException closed) {
+                    // the log is closed: stop
+                }
+            });
+            Thread.sleep(2);
+            log.close();
+            writer.join();
+            // nothing accepted was lost, and no flush is left hanging
+            assertEquals(accepted.get(), Files.readAllLines(file, StandardCharsets.UTF_8).size());
+            for (CompletableFuture<Void> f : flushes) f.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void aFailedWriteIsReportedAndFailsTheFlush() throws Exception {
+        Path full = Path.of("/dev/full");
+        assumeTrue(Files.isWritable(full), "needs /dev/full");
+        List<IOException> errors = new CopyOnWriteArrayList<>();
+        try (AsyncAppendLog log = AsyncAppendLog.open(full, FsyncPolicy.NONE, 0, errors::add)) {
+            log.append("lost");
+            log.append("lost too");
+            CompletableFuture<Void> flush = log.flush();
+            CompletionException e = assertThrows(CompletionException.class, flush::join);
+            assertInstanceOf(IOException.class, e.getCause());
+            assertFalse(errors.isEmpty());
+            assertEquals(2, log.failedRecords() + log.writtenRecords());
+            assertTrue(log.failedRecords() > 0);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.snakegame.core.store;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.store.Leaderboard.Entry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parsesOldAndNewLines() {
+        assertEquals(new Entry("Ada", "c1", 12, null), Leaderboard.parse("Ada (c1): 12"));
+        assertEquals(new Entry("Ada", "c1", 12, DifficultyLevel.EASY), Leaderboard.parse("Ada (c1): 12 Easy"));
+        assertEquals(new Entry("Ada", "c1", 7, DifficultyLevel.HARD), Leaderboard.parse("Ada (c1): 7 hard  "));
+        assertEquals(new Entry("Ada", "c1", 3, null), Leaderboard.parse("Ada (c1): 3   "));
+        // the last " (...): " is the code, so a name may hold brackets of its own
+        assertEquals(new Entry("Bo (the) Snake", "c2", 40, DifficultyLevel.MEDIUM),
+                Leaderboard.parse("Bo (the) Snake (c2): 40 Medium"));
+    }
+
+    @Test
+    void formatIsReadBack() {
+        for (DifficultyLevel d : new DifficultyLevel[]{null, DifficultyLevel.EASY, DifficultyLevel.HARD}) {
+            assertEquals(new Entry("Cy", "c3", 99, d), Leaderboard.parse(Leaderboard.format("Cy", "c3", 99, d)));
+        }
+    }
+
+    @Test
+    void rejectsLinesThatAreNotScores() {
+        assertNull(Leaderboard.parse(""));
+        assertNull(Leaderboard.parse("just some text"));
+        assertNull(Leaderboard.parse("Ada (c1): lots"));
+        assertNull(Leaderboard.parse("Ada (c1): 12 Impossible"));
+        assertNull(Leaderboard.parse("Ada c1: 12"));
+        assertNull(Leaderboard.parse("Ada (c1): 99999999999"));
+    }
+
+    @Test
+    void loadKeepsTheBestPerDifficultyAndPlayerTotals() throws IOException {
+        Path file = dir.resolve("scores.txt");
+        Files.write(file, List.of(
+                "Ada (c1): 5",
+                "Ada (c1): 30 Easy",
+                "Bob (c2): 30 Easy",
+                "not a score",
+                "",
+                "Cy (c3): 10 Easy",
+                "Bob (c2): 2 Easy",
+                "Ada (c1): 8 Hard"), StandardCharsets.UTF_8);
+        Leaderboard board = Leaderboard.load(file, 2);
+        assertEquals(6, board.games());
+        assertEquals(1, board.garbageLines());
+        assertEquals(3, board.playerCount());
+        // equal scores keep file order
+        assertEquals(List.of(new Entry("Ada", "c1", 30, DifficultyLevel.EASY),
+                new Entry("Bob", "c2", 30, DifficultyLevel.EASY)), board.top(DifficultyLevel.EASY));
+        assertEquals(List.of(new Entry("Ada", "c1", 8, DifficultyLevel.HARD)), board.top(DifficultyLevel.HARD));
+        assertEquals(List.of(new Entry("Ada", "c1", 5, null)), board.top(null));
+        assertTrue(board.top(DifficultyLevel.MEDIUM).isEmpty());
+
+        Leaderboard.PlayerStats ada = board.player("c1", "Ada").orElseThrow();
+        assertEquals(3, ada.games());
+        assertEquals(30, ada.best());
+        assertEquals(43, ada.totalScore());
+
+        board.record("Bob", "c2", 50, DifficultyLevel.EASY);
+        assertEquals(50, board.top(DifficultyLevel.EASY).get(0).score());
+        assertEquals(2, board.top(DifficultyLevel.EASY).size());
+        assertEquals(3, board.player("c2", "Bob").orElseThrow().games());
+    }
+
+    @Test
+    void playersSharingACodeKeepTheirOwnTotals() throws IOException {
+        Path file = dir.resolve("scores.txt");
+        Files.write(file, List.of("sami (123): 9", "maham (123): 4", "Sami (123): 2 Easy", "maham (123): 6"),
+                StandardCharsets.UTF_8);
+        Leaderboard board = Leaderboard.load(file, 5);
+        assertEquals(2, board.playerCount());
+        assertEquals(new Leaderboard.PlayerStats("123", "sami", 2, 9, 11), board.player("123", "SAMI").orElseThrow());
+        assertEquals(new Leaderboard.PlayerStats("123", "maham", 2, 6, 10), board.player("123", "maham").orElseThrow());
+        board.record("maham", "123", 20, DifficultyLevel.HARD);
+        assertEquals(20, board.player("123", "maham").orElseThrow().best());
+        assertEquals(9, board.player("123", "sami").orElseThrow().best());
+        assertTrue(board.player("123", "komal").isEmpty());
+    }
+
+    @Test
+    void aMissingFileIsEmpty() throws IOException {
+        Leaderboard board = Leaderboard.load(dir.resolve("none.txt"), 5);
+        assertEquals(0, board.games());
+        assertTrue(board.player("c1", "Ada").isEmpty());
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.snakegame.core.store;
+
+import com.example.snakegame.core.store.AsyncAppendLog.FsyncPolicy;
+import com.example.snakegame.core.store.PlayerRegistry.SignUp;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlayerRegistryTest {
+
+    @TempDir
+    Path dir;
+
+    private static PlayerRegistry load(Path file) throws IOException {
+        return PlayerRegistry.load(file, FsyncPolicy.NONE, 0, e -> {
+            throw new UncheckedIOException(e);
+        });
+    }
+
+    @Test
+    void signUpsSurviveAReload() throws IOException {
+        Path file = dir.resolve("players.txt");
+        try (PlayerRegistry players = load(file)) {
+            assertEquals(SignUp.CREATED, players.register("c1", "Ada"));
+            assertEquals(SignUp.CREATED, players.register("c2", "Bob"));
+            assertEquals(SignUp.CODE_TAKEN, players.register("c1", "Eve"));
+            assertEquals(SignUp.INVALID, players.register("c3", "a,b"));
+            assertEquals(SignUp.INVALID, players.register("", "Cy"));
+        }
+        try (PlayerRegistry players = load(file)) {
+            assertEquals(2, players.size());
+            assertTrue(players.verify("c1", "ada"));
+            assertFalse(players.verify("c1", "Eve"));
+            assertEquals("Bob", players.nameOf("c2").orElseThrow());
+            assertTrue(players.nameOf("c3").isEmpty());
+            assertEquals(0, players.garbageLines());
+        }
+    }
+
+    @Test
+    void compactionKeepsEveryPlayerAndDropsOnlyRepeats() throws IOException {
+        Path file = dir.resolve("players.txt");
+        // older files let several players share a code; all of them must keep logging in
+        Files.write(file, List.of("c1,Ada", "c2,Bob", "c1,Eve", "broken", "c1,Ada", "c1,ADA", "c2,Bob"),
+                StandardCharsets.UTF_8);
+        try (PlayerRegistry players = load(file)) {
+            assertEquals(4, players.garbageLines());
+            assertEquals(3, players.size());
+            assertTrue(players.verify("c1", "ada"));
+            assertTrue(players.verify("c1", "Eve"));
+            assertFalse(players.verify("c2", "Eve"));
+            assertEquals("Ada", players.nameOf("c1").orElseThrow());
+            // a code that is on file can't be taken by a new sign-up
+            assertEquals(SignUp.CODE_TAKEN, players.register("c1", "Cy"));
+            players.compact();
+            assertEquals(0, players.garbageLines());
+            assertEquals(List.of("c1,Ada", "c1,Eve", "c2,Bob"), Files.readAllLines(file, StandardCharsets.UTF_8));
+            assertTrue(players.verify("c1", "Ada"));
+            assertTrue(players.verify("c1", "Eve"));
+            // the log was reopened on the new file
+            assertEquals(SignUp.CREATED, players.register("c3", "Cy"));
+        }
+        assertEquals(List.of("c1,Ada", "c1,Eve", "c2,Bob", "c3,Cy"), Files.readAllLines(file, StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dir.resolve("players.txt.compact")));
+        try (PlayerRegistry players = load(file)) {
+            assertEquals(4, players.size());
+            assertEquals(0, players.garbageLines());
+            assertTrue(players.verify("c1", "Eve"));
+        }
+    }
+
+    @Test
+    void theShippedPlayerFileLosesNoLogins() throws IOException {
+        Path file = dir.resolve("players.txt");
+        List<String> lines = List.of("123,sami", "123,maham", "1236,maham", "123,sami", "1236,komal", "123,hgdhfh");
+        Files.write(file, lines, StandardCharsets.UTF_8);
+        try (PlayerRegistry players = load(file)) {
+            players.compact();
+        }
+        try (PlayerRegistry players = load(file)) {
+            for (String line : lines) {
+                String[] parts = line.split(",");
+                assertTrue(players.verify(parts[0], parts[1]), line);
+            }
+            assertEquals(5, players.size());
+        }
+    }
+}
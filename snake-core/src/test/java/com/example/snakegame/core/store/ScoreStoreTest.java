@@ -0,0 +1,155 @@
+package com.example.snakegame.core.store;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.store.ScoreStore.Result;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScoreStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsSurviveCloseAndReopen() throws IOException {
+        Path file = dir.resolve("scores.bin");
+        try (ScoreStore store = ScoreStore.open(file)) {
+            assertEquals(0, store.append("c1", "Ada", 1000, DifficultyLevel.EASY, 12, 14, 9_000));
+            assertEquals(1, store.append("c2", "Bob", 2000, null, 5, 0, 0));
+            assertEquals(2, store.append("c1", "Ada", 3000, DifficultyLevel.HARD, 40, 42, 30_000));
+        }
+        try (ScoreStore store = ScoreStore.open(file)) {
+            assertEquals(3, store.size());
+            assertEquals(2, store.playerCount());
+            assertEquals(new Result("c1", "Ada", 1000, DifficultyLevel.EASY, 12, 14, 9_000), store.get(0));
+            assertEquals(new Result("c2", "Bob", 2000, null, 5, 0, 0), store.get(1));
+            assertEquals(new Result("c1", "Ada", 3000, DifficultyLevel.HARD, 40, 42, 30_000), store.get(2));
+            // the ids are read back from the name table, so new games by old players reuse them
+            store.append("c2", "Bob", 4000, DifficultyLevel.EASY, 7, 9, 5_000);
+            assertEquals(2, store.playerCount());
+        }
+    }
+
+    @Test
+    void growsPastTheFirstMapping() throws IOException {
+        Path file = dir.resolve("scores.bin");
+        int games = 70_000;
+        try (ScoreStore store = ScoreStore.open(file)) {
+            for (int i = 0; i < games; i++) {
+                store.append("c" + (i % 3), "P" + (i % 3), i, DifficultyLevel.MEDIUM, i, 0, 0);
+            }
+        }
+        try (ScoreStore store = ScoreStore.open(file)) {
+            assertEquals(games, store.size());
+            assertEquals(games - 1, store.get(games - 1).score());
+            assertEquals(3, store.playerCount());
+        }
+    }
+
+    @Test
+    void topAndPlayerMatchTheRecords() throws IOException {
+        try (ScoreStore store = ScoreStore.open(dir.resolve("scores.bin"))) {
+            store.append("c1", "Ada", 0, DifficultyLevel.EASY, 30, 0, 0);
+            store.append("c2", "Bob", 0, DifficultyLevel.EASY, 30, 0, 0);
+            store.append("c3", "Cy", 0, DifficultyLevel.EASY, 50, 0, 0);
+            store.append("c1", "Ada", 0, DifficultyLevel.HARD, 8, 0, 0);
+            store.append("c1", "Ada", 0, null, 5, 0, 0);
+
+            // ties keep file order
+            assertEquals(List.of("c3", "c1"), store.top(DifficultyLevel.EASY, 2).stream().map(Result::code).toList());
+            assertEquals(3, store.top(DifficultyLevel.EASY, 10).size());
+            assertEquals(5, store.top(null, 3).get(0).score());
+            assertTrue(store.top(DifficultyLevel.MEDIUM, 3).isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> store.top(DifficultyLevel.EASY, 0));
+
+            assertEquals(new Leaderboard.PlayerStats("c1", "Ada", 3, 30, 43), store.player("c1", "ada").orElseThrow());
+            assertTrue(store.player("c1", "Bob").isEmpty());
+            assertTrue(store.player("nobody", "Ada").isEmpty());
+        }
+    }
+
+    @Test
+    void textImportAndExportRoundTrip() throws IOException {
+        Path text = dir.resolve("scores.txt");
+        Files.write(text, List.of(
+                "Ada (c1): 5",
+                "Ada (c1): 30 Easy",
+                "not a score",
+                "Bob (c2): 2 Hard"), StandardCharsets.UTF_8);
+        Path out = dir.resolve("export.txt");
+        try (ScoreStore store = ScoreStore.open(dir.resolve("scores.bin"))) {
+            assertEquals(3, store.importText(text));
+            assertEquals(new Result("c1", "Ada", 0, null, 5, 0, 0), store.get(0));
+            store.exportText(out);
+        }
+        assertEquals(List.of("Ada (c1): 5", "Ada (c1): 30 Easy", "Bob (c2): 2 Hard"),
+                Files.readAllLines(out, StandardCharsets.UTF_8));
+        // and the leaderboard reads the same games from either
+        assertEquals(Leaderboard.load(text, 5).top(DifficultyLevel.EASY),
+                Leaderboard.load(out, 5).top(DifficultyLevel.EASY));
+    }
+
+    @Test
+    void playersSharingACodeStayApart() throws IOException {
+        // older player files let several people register one code, as in the shipped scores.txt
+        Path text = dir.resolve("scores.txt");
+        List<String> lines = List.of("maham (1236): 3", "komal (1236): 5", "sami (123): 9", "maham (123): 4",
+                "komal (1236): 1 Easy");
+        Files.write(text, lines, StandardCharsets.UTF_8);
+        Path file = dir.resolve("scores.bin"), out = dir.resolve("export.txt");
+        try (ScoreStore store = ScoreStore.open(file)) {
+            store.importText(text);
+            assertEquals(4, store.playerCount());
+        }
+        try (ScoreStore store = ScoreStore.open(file)) {
+            assertEquals("komal", store.get(1).name());
+            assertEquals(new Leaderboard.PlayerStats("1236", "komal", 2, 5, 6),
+                    store.player("1236", "komal").orElseThrow());
+            assertEquals(new Leaderboard.PlayerStats("1236", "maham", 1, 3, 3),
+                    store.player("1236", "maham").orElseThrow());
+            // new games land on the right player after a reopen
+            store.append("123", "maham", 0, null, 2, 0, 0);
+            assertEquals(4, store.playerCount());
+            assertEquals(2, store.player("123", "maham").orElseThrow().games());
+            store.exportText(out);
+        }
+        List<String> expected = new ArrayList<>(lines);
+        expected.add("maham (123): 2");
+        assertEquals(expected, Files.readAllLines(out, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void aCorruptDifficultyIsReportedOnOpen() throws IOException {
+        Path file = dir.resolve("scores.bin");
+        try (ScoreStore store = ScoreStore.open(file)) {
+            store.append("c1", "Ada", 0, DifficultyLevel.EASY, 1, 0, 0);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // record 0 sits after the header record; its difficulty is byte 24
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) DifficultyLevel.values().length}),
+                    ScoreStore.RECORD_BYTES + 24);
+        }
+        IOException e = assertThrows(IOException.class, () -> ScoreStore.open(file));
+        assertTrue(e.getMessage().contains("difficulty"), e.getMessage());
+    }
+
+    @Test
+    void aClosedStoreRefusesAppends() throws IOException {
+        ScoreStore store = ScoreStore.open(dir.resolve("scores.bin"));
+        store.close();
+        store.close();
+        assertThrows(IllegalStateException.class, () -> store.append("c1", "Ada", 0, null, 1, 0, 0));
+    }
+}
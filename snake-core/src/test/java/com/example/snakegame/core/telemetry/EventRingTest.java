@@ -0,0 +1,92 @@
+package com.example.snakegame.core.telemetry;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventRingTest {
+
+    private record Event(EventType type, int difficulty, int session, long tick, long value) {
+    }
+
+    private static List<Event> drainAll(EventRing ring) {
+        List<Event> events = new ArrayList<>();
+        ring.drain((type, difficulty, session, tick, value) ->
+                events.add(new Event(type, difficulty, session, tick, value)), Integer.MAX_VALUE);
+        return events;
+    }
+
+    @Test
+    void eventsComeOutInOrderAcrossTheWrap() {
+        EventRing ring = new EventRing(6);     // rounded up to 8
+        assertEquals(8, ring.capacity());
+        long next = 0;
+        // 5 at a time into 8 slots: every round after the first straddles the end of the array
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 5; i++) {
+                assertTrue(ring.offer(EventType.TICK, 2, 7, next + i, -(next + i)));
+            }
+            List<Event> events = drainAll(ring);
+            assertEquals(5, events.size());
+            for (Event e : events) {
+                assertEquals(new Event(EventType.TICK, 2, 7, next, -next), e);
+                next++;
+            }
+        }
+        assertEquals(0, ring.dropped());
+    }
+
+    @Test
+    void aFullRingDropsAndCounts() {
+        EventRing ring = new EventRing(4);
+        for (int i = 0; i < 4; i++) assertTrue(ring.offer(EventType.FOOD_EATEN, 0, 1, i, i));
+        assertFalse(ring.offer(EventType.FOOD_EATEN, 0, 1, 4, 4));
+        assertFalse(ring.offer(EventType.HIT_SELF, 0, 1, 5, 5));
+        assertEquals(2, ring.dropped());
+        // draining part of it makes room again; the dropped events are gone for good
+        assertEquals(2, ring.drain((type, difficulty, session, tick, value) -> { }, 2));
+        assertTrue(ring.offer(EventType.BOARD_FULL, 0, 1, 6, 6));
+        List<Event> rest = drainAll(ring);
+        assertEquals(List.of(2L, 3L, 6L), rest.stream().map(Event::tick).toList());
+        assertEquals(2, ring.dropped());
+    }
+
+    @Test
+    void rejectsBadCapacities() {
+        assertThrows(IllegalArgumentException.class, () -> new EventRing(1));
+        assertThrows(IllegalArgumentException.class, () -> new EventRing((1 << 30) + 1));
+    }
+
+    @Test
+    void eachProducersEventsArriveInTheOrderItOfferedThem() throws InterruptedException {
+        EventRing ring = new EventRing(64);
+        int producers = 3, perProducer = 20_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int session = p;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!ring.offer(EventType.TICK, 0, session, i, i)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        long[] next = new long[producers];
+        int seen = 0;
+        while (seen < producers * perProducer) {
+            int n = ring.drain((type, difficulty, session, tick, value) -> {
+                assertEquals(next[session]++, tick, "session " + session);
+                assertEquals(tick, value);
+            }, 32);
+            if (n == 0) Thread.yield();
+            seen += n;
+        }
+        for (Thread t : threads) t.join();
+        for (long n : next) assertEquals(perProducer, n);
+        assertEquals(0, ring.drain((type, difficulty, session, tick, value) -> fail("extra event"), 10));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.snakegame.core.telemetry;
+
+import com.example.snakegame.core.DifficultyLevel;
+import com.example.snakegame.core.GameEngine;
+import com.example.snakegame.core.StepResult;
+import com.example.snakegame.core.bot.HamiltonianCycle;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryLogTest {
+
+    @TempDir
+    Path dir;
+
+    private static TelemetryLog open(Path file) throws IOException {
+        return TelemetryLog.open(file, TelemetryLog.DEFAULT_CAPACITY, 5, e -> {
+            throw new UncheckedIOException(e);
+        });
+    }
+
+    @Test
+    void theReportAddsUpWhatTheGamesDid() throws IOException {
+        Path file = dir.resolve("telemetry.snkt");
+        int width = 6, height = 4;
+        long foods = 0, bonuses = 0, ticks = 0;
+        int score;
+        try (TelemetryLog log = open(file)) {
+            GameEngine game = new GameEngine(width, height, DifficultyLevel.EASY, 5);
+            TelemetryRecorder recorder = log.recorder(game, 1);
+            game.setListener(recorder);
+            HamiltonianCycle cycle = new HamiltonianCycle(width, height);
+            while (!game.isGameOver()) {
+                StepResult result = game.step(cycle.next(game.snake().headCell()));
+                recorder.tickTook(1_000 + ticks);
+                ticks++;
+                // the winning bite is on the food too, and the recorder logs it as one
+                if (result == StepResult.ATE_FOOD || result == StepResult.BOARD_FULL) foods++;
+                if (result == StepResult.ATE_BONUS) bonuses++;
+            }
+            assertTrue(game.isVictory());
+            score = game.score();
+
+            // a second session that runs into the border on hard
+            GameEngine hard = new GameEngine(DifficultyLevel.HARD, 2);
+            hard.setListener(log.recorder(hard, 2));
+            while (!hard.isGameOver()) hard.step(null);
+        }
+        TelemetryReport report = new TelemetryReport();
+        report.read(file);
+        assertFalse(report.truncated());
+        TelemetryReport.Stats easy = report.stats(DifficultyLevel.EASY);
+        assertEquals(1, easy.games());
+        assertEquals(1, easy.wins());
+        assertEquals(score, easy.meanScore());
+        assertEquals(foods, easy.foods());
+        assertEquals(bonuses, easy.bonusesEaten());
+        assertEquals(ticks, easy.tickNanos().count());
+        assertEquals(1_000 + ticks - 1, easy.tickNanos().max());
+        TelemetryReport.Stats hard = report.stats(DifficultyLevel.HARD);
+        assertEquals(1, hard.games());
+        assertEquals(1, hard.wallDeaths());
+        assertEquals(0, report.stats(DifficultyLevel.MEDIUM).games());
+    }
+
+    @Test
+    void reopeningAppendsBatches() throws IOException {
+        Path file = dir.resolve("telemetry.snkt");
+        for (int run = 0; run < 2; run++) {
+            try (TelemetryLog log = open(file)) {
+                for (int i = 0; i < 10; i++) log.ring().offer(EventType.FOOD_EATEN, 1, run, i, i);
+            }
+        }
+        TelemetryReport report = new TelemetryReport();
+        report.read(file);
+        assertEquals(20, report.events());
+        assertEquals(2, report.batches());
+        assertEquals(20, report.stats(DifficultyLevel.MEDIUM).foods());
+    }
+
+    @Test
+    void aLogCutShortIsReadUpToTheLastWholeBatch() throws IOException {
+        Path file = dir.resolve("telemetry.snkt");
+        int events = 5_000;     // more than one batch's worth, so the writer writes at least two
+        try (TelemetryLog log = open(file)) {
+            for (int i = 0; i < events; i++) assertTrue(log.ring().offer(EventType.TICK, 0, 1, i, 100 + i));
+        }
+        byte[] whole = Files.readAllBytes(file);
+        TelemetryReport full = new TelemetryReport();
+        full.read(new ByteArrayInputStream(whole));
+        assertEquals(events, full.events());
+        assertTrue(full.batches() >= 2, "batches " + full.batches());
+        assertFalse(full.truncated());
+
+        TelemetryReport cut = new TelemetryReport();
+        cut.read(new ByteArrayInputStream(Arrays.copyOf(whole, whole.length - 3)));
+        assertTrue(cut.truncated());
+        assertEquals(full.batches() - 1, cut.batches());
+        // the events of the cut batch before the cut still count; the batch itself doesn't
+        assertTrue(cut.events() > 0 && cut.events() < events, "read " + cut.events());
+
+        assertThrows(IOException.class,
+                () -> new TelemetryReport().read(new ByteArrayInputStream(new byte[]{1, 2, 3, 4, 5})));
+    }
+
+    @Test
+    void notATelemetryLogIsRefusedOnOpen() throws IOException {
+        Path file = dir.resolve("other.bin");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6});
+        assertThrows(IOException.class, () -> open(file));
+    }
+}